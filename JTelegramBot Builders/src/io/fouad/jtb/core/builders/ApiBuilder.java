@@ -29,13 +29,17 @@ import io.fouad.jtb.core.beans.*;
 import io.fouad.jtb.core.enums.ChatAction;
 import io.fouad.jtb.core.enums.ParseMode;
 import io.fouad.jtb.core.exceptions.NegativeResponseException;
-import io.fouad.jtb.core.utils.HttpClient;
+import io.fouad.jtb.core.utils.FileDownloader;
+import io.fouad.jtb.core.utils.FileDownloader.DownloadReport;
+import io.fouad.jtb.core.utils.FileDownloader.ProgressListener;
+import io.fouad.jtb.core.utils.HttpClient.RequestTimeouts;
 
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A helper class which can wrap <code>TelegramBotApi</code> and provide a more simple
@@ -64,6 +68,33 @@ public class ApiBuilder
 			this.telegramBotApi = telegramBotApi;
 		}
 		
+		/**
+		 * Overrides the deadline of the API call, i.e. the maximum time of the whole request, after which
+		 * it is aborted with <code>SocketTimeoutException</code>.
+		 * 
+		 * @param deadline the maximum time of the request
+		 * @param timeUnit the unit of <code>deadline</code>
+		 */
+		public ApiTopLevel withDeadline(long deadline, TimeUnit timeUnit)
+		{
+			if(deadline <= 0) throw new IllegalArgumentException("\"deadline\" must be positive.");
+			
+			RequestTimeouts requestTimeouts = telegramBotApi.getRequestTimeouts();
+			return new ApiTopLevel(telegramBotApi.withTimeouts(requestTimeouts.withDeadline(timeUnit.toMillis(deadline))));
+		}
+		
+		/**
+		 * Overrides the timeouts of the API call.
+		 * 
+		 * @param requestTimeouts the time limits of the request
+		 */
+		public ApiTopLevel withTimeouts(RequestTimeouts requestTimeouts)
+		{
+			if(requestTimeouts == null) throw new IllegalArgumentException("\"requestTimeouts\" cannot be null.");
+			
+			return new ApiTopLevel(telegramBotApi.withTimeouts(requestTimeouts));
+		}
+		
 		/**
 		 * Gets basic info about the current bot as <code>User</code> object.
 		 */
@@ -1710,6 +1741,72 @@ public class ApiBuilder
 		{
 			return new FileDownloadingReady(telegramBotApi, file, outputStream);
 		}
+		
+		/**
+		 * Saves the file to the local file system. Large files are downloaded in several concurrent segments,
+		 * and a download that fails can be resumed by downloading again to the same local file.
+		 * 
+		 * @param localFile the file where the downloaded content will be saved
+		 */
+		public FileDownloadingToFileReady saveToFile(File localFile)
+		{
+			if(localFile == null) throw new IllegalArgumentException("\"localFile\" cannot be null.");
+			
+			return new FileDownloadingToFileReady(telegramBotApi, file, localFile);
+		}
+	}
+	
+	public static class FileDownloadingToFileReady
+	{
+		private TelegramBotApi telegramBotApi;
+		private TelegramFile file;
+		private File localFile;
+		private FileDownloader fileDownloader;
+		private ProgressListener progressListener;
+		
+		public FileDownloadingToFileReady(TelegramBotApi telegramBotApi, TelegramFile file, File localFile)
+		{
+			this.telegramBotApi = telegramBotApi;
+			this.file = file;
+			this.localFile = localFile;
+		}
+		
+		/**
+		 * Uses a custom downloader, for example to change the number of segments.
+		 * 
+		 * @param fileDownloader the downloader which performs the download
+		 */
+		public FileDownloadingToFileReady usingDownloader(FileDownloader fileDownloader)
+		{
+			this.fileDownloader = fileDownloader;
+			return this;
+		}
+		
+		/**
+		 * Gets notified about the progress and the throughput of the download.
+		 * 
+		 * @param progressListener the listener which receives the progress
+		 */
+		public FileDownloadingToFileReady onProgress(ProgressListener progressListener)
+		{
+			this.progressListener = progressListener;
+			return this;
+		}
+		
+		/**
+		 * Begins downloading the file.
+		 * 
+		 * @return statistics about the download
+		 * 
+		 * @throws IOException if an I/O exception occurs
+		 * @throws NegativeResponseException if 4xx-5xx HTTP response is received from Telegram server
+		 */
+		public DownloadReport execute() throws IOException, NegativeResponseException
+		{
+			String fileUrl = telegramBotApi.getFileUrl(file);
+			FileDownloader downloader = fileDownloader != null ? fileDownloader : new FileDownloader();
+			return downloader.download(fileUrl, localFile, progressListener);
+		}
 	}
 	
 	public static class FileDownloadingReady
@@ -1733,8 +1830,7 @@ public class ApiBuilder
 		 */
 		public void execute() throws IOException, NegativeResponseException
 		{
-			String fileUrl = TelegramBotApi.FILE_API_URL_PREFIX + telegramBotApi.getApiToken() + "/" + file.getFilePath();
-			HttpClient.downloadFile(fileUrl, saveToOutputStream);
+			telegramBotApi.downloadFile(file, saveToOutputStream);
 		}
 	}
 	
@@ -25,6 +25,7 @@
 package io.fouad.jtb.core.builders;
 
 import io.fouad.jtb.core.beans.ForceReply;
+import io.fouad.jtb.core.beans.FrozenReplyMarkup;
 import io.fouad.jtb.core.beans.InlineKeyboardButton;
 import io.fouad.jtb.core.beans.InlineKeyboardMarkup;
 import io.fouad.jtb.core.beans.KeyboardButton;
@@ -125,6 +126,15 @@ public class ReplyMarkupBuilder
 		{
 			return new ReplyKeyboardMarkup(keyboard, resizeKeyboard, oneTimeKeyboard, selective);
 		}
+		
+		/**
+		 * Builds the <code>ReplyMarkup</code> object and serializes it once, so that it can be attached
+		 * to many messages without serializing it for every message.
+		 */
+		public FrozenReplyMarkup toFrozenReplyMarkup()
+		{
+			return FrozenReplyMarkup.freeze(toReplyMarkup());
+		}
 	}
 	
 	public static class MessageWithHidingKeyboard
@@ -152,6 +162,15 @@ public class ReplyMarkupBuilder
 		{
 			return new ReplyKeyboardHide(selective);
 		}
+		
+		/**
+		 * Builds the <code>ReplyMarkup</code> object and serializes it once, so that it can be attached
+		 * to many messages without serializing it for every message.
+		 */
+		public FrozenReplyMarkup toFrozenReplyMarkup()
+		{
+			return FrozenReplyMarkup.freeze(toReplyMarkup());
+		}
 	}
 	
 	public static class MessageWithForceReply
@@ -179,6 +198,15 @@ public class ReplyMarkupBuilder
 		{
 			return new ForceReply(selective);
 		}
+		
+		/**
+		 * Builds the <code>ReplyMarkup</code> object and serializes it once, so that it can be attached
+		 * to many messages without serializing it for every message.
+		 */
+		public FrozenReplyMarkup toFrozenReplyMarkup()
+		{
+			return FrozenReplyMarkup.freeze(toReplyMarkup());
+		}
 	}
 	
 	public static class MessageWithAttachingInlineKeyboard
@@ -197,5 +225,14 @@ public class ReplyMarkupBuilder
 		{
 			return new InlineKeyboardMarkup(inlineKeyboard);
 		}
+		
+		/**
+		 * Builds the <code>ReplyMarkup</code> object and serializes it once, so that it can be attached
+		 * to many messages without serializing it for every message.
+		 */
+		public FrozenReplyMarkup toFrozenReplyMarkup()
+		{
+			return FrozenReplyMarkup.freeze(toReplyMarkup());
+		}
 	}
 }
\ No newline at end of file
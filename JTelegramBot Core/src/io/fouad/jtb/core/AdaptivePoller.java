@@ -0,0 +1,136 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Fouad Almalki
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.fouad.jtb.core;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chooses the limit and the timeout of every getUpdates request from the outcome of the previous ones. The limit
+ * follows the number of updates which are expected to arrive during one poll, i.e. the arrival rate of the updates
+ * times the average interval of the polls which brought updates:
+ * <ul>
+ *     <li>If a request returns a full batch, more updates are likely waiting on the server, so the next request
+ *     asks for the largest batch without waiting (timeout of 0), as long as the workers keep up.</li>
+ *     <li>Otherwise, the next request long-polls with the configured timeout, and asks for about twice the updates
+ *     which are expected during one poll (at least one update). The server returns as soon as any update arrives, so a small limit keeps
+ *     the responses small and the polls snappy while the traffic is low or moderate.</li>
+ *     <li>While the workers are behind, i.e. more updates are pending than the largest batch, the limit stays at
+ *     the updates which are expected during one poll, so the poller does not pile up more updates than arrive.</li>
+ * </ul>
+ * If it is not adaptive, every request asks for the largest batch with the configured timeout, as before. Either way,
+ * it keeps the metrics of the polling loop. It is used by the polling thread only, while the metrics can be read
+ * by any thread.
+ */
+class AdaptivePoller
+{
+	// the weight of the latest sample in the moving averages
+	private static final double SMOOTHING_FACTOR = 0.3;
+	
+	private final boolean adaptive;
+	private final int maxLimit;
+	private final int timeoutInSeconds;
+	
+	private long polls = 0;
+	private long catchUpPolls = 0;
+	private long receivedUpdates = 0;
+	private double arrivalRate = 0;
+	private double averageBatchSize = 0;
+	private double averagePollSeconds = 0;
+	private long lastPollNanos;
+	
+	private int nextLimit;
+	private int nextTimeoutInSeconds;
+	private boolean catchingUp = false;
+	
+	private volatile PollingMetrics metrics;
+	
+	AdaptivePoller(boolean adaptive, int maxLimit, int timeoutInSeconds)
+	{
+		this.adaptive = adaptive;
+		this.maxLimit = maxLimit;
+		this.timeoutInSeconds = timeoutInSeconds;
+		this.nextLimit = maxLimit;
+		this.nextTimeoutInSeconds = timeoutInSeconds;
+		this.lastPollNanos = System.nanoTime();
+		this.metrics = createMetrics(0);
+	}
+	
+	int getNextLimit(){return nextLimit;}
+	int getNextTimeoutInSeconds(){return nextTimeoutInSeconds;}
+	PollingMetrics getMetrics(){return metrics;}
+	
+	/**
+	 * Called once a getUpdates request is completed, even if it failed in the middle of the response.
+	 * 
+	 * @param limit the limit of the request
+	 * @param batchSize the number of updates which the request returned
+	 * @param pendingUpdates the number of updates which are received but not handled yet
+	 */
+	void onPollCompleted(int limit, int batchSize, int pendingUpdates)
+	{
+		long now = System.nanoTime();
+		double elapsedSeconds = Math.max(now - lastPollNanos, 1) / (double) TimeUnit.SECONDS.toNanos(1);
+		lastPollNanos = now;
+		
+		polls++;
+		if(catchingUp) catchUpPolls++;
+		receivedUpdates += batchSize;
+		arrivalRate += SMOOTHING_FACTOR * (batchSize / elapsedSeconds - arrivalRate);
+		averageBatchSize += SMOOTHING_FACTOR * (batchSize - averageBatchSize);
+		
+		// an empty poll says nothing about how long the updates take to come back, only that none arrived
+		if(batchSize > 0)
+		{
+			if(averagePollSeconds == 0) averagePollSeconds = elapsedSeconds;
+			else averagePollSeconds += SMOOTHING_FACTOR * (elapsedSeconds - averagePollSeconds);
+		}
+		
+		catchingUp = batchSize >= limit;
+		
+		if(adaptive)
+		{
+			double expectedUpdatesPerPoll = arrivalRate * averagePollSeconds;
+			
+			if(pendingUpdates > maxLimit) nextLimit = clampLimit(expectedUpdatesPerPoll);
+			else if(catchingUp) nextLimit = maxLimit;
+			else nextLimit = clampLimit(2 * expectedUpdatesPerPoll);
+			
+			nextTimeoutInSeconds = catchingUp && pendingUpdates <= maxLimit ? 0 : timeoutInSeconds;
+		}
+		
+		metrics = createMetrics(pendingUpdates);
+	}
+	
+	private int clampLimit(double updates)
+	{
+		return (int) Math.max(Math.min(Math.ceil(updates), maxLimit), 1);
+	}
+	
+	private PollingMetrics createMetrics(int pendingUpdates)
+	{
+		return new PollingMetrics(polls, catchUpPolls, receivedUpdates, arrivalRate, averageBatchSize, pendingUpdates,
+		                          nextLimit, nextTimeoutInSeconds, catchingUp);
+	}
+}
@@ -34,12 +34,17 @@ import io.fouad.jtb.core.utils.HttpClient.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Represents a Telegram bot. It supports POLLING mode by default. To run as webhook,
@@ -50,10 +55,24 @@ public class JTelegramBot implements TelegramBotApi
 	private final String botName;
 	private final String apiToken;
 	private final UpdateHandler updateHandler;
+	private volatile TelegramBotConfig telegramBotConfig;
+	private final RequestTimeouts requestTimeouts; // overrides the timeouts of the config, if not null
+	
+	// the least time which is given to confirm the received updates when the bot is stopped with a timeout
+	private static final long MIN_CONFIRMATION_DEADLINE_IN_MILLIS = 1000;
 	
 	// an atomic flag to indicate the current running state of the bot
 	private AtomicReference<BotState> botState = new AtomicReference<BotState>(BotState.IDLE);
 	
+	// the polling loop, which is guarded by the lock, so that stopping the bot can abort it
+	private final Lock pollingLock = new ReentrantLock();
+	private Thread pollingThread = null;
+	private CountDownLatch pollingStopped = null;
+	private boolean pollingAborted = false;
+	private long stopDeadlineNanos = 0;
+	private volatile List<Update> unhandledUpdates = Collections.emptyList();
+	private volatile AdaptivePoller adaptivePoller = null;
+	
 	/**
 	 * Creates an instance of Telegram bot.
 	 * 
@@ -62,17 +81,124 @@ public class JTelegramBot implements TelegramBotApi
 	 * @param updateHandler the handler which handles incoming updates to the bot
 	 */
 	public JTelegramBot(String botName, String apiToken, UpdateHandler updateHandler)
+	{
+		this(botName, apiToken, updateHandler, new TelegramBotConfigBuilder().build());
+	}
+	
+	/**
+	 * Creates an instance of Telegram bot with custom configurations. The configurations apply
+	 * to the API methods as well, so they can be used without starting the bot (e.g. in webhook mode).
+	 * 
+	 * @param botName it is used only for debugging purposes
+	 * @param apiToken the API token which is usually retrieved from @BotFather (cannot be null) 
+	 * @param updateHandler the handler which handles incoming updates to the bot
+	 * @param telegramBotConfig custom configurations related to the bot (cannot be null)
+	 */
+	public JTelegramBot(String botName, String apiToken, UpdateHandler updateHandler, TelegramBotConfig telegramBotConfig)
 	{
 		if(apiToken == null) throw new IllegalArgumentException("\"apiToken\" cannot be null.");
+		if(telegramBotConfig == null) throw new IllegalArgumentException("\"telegramBotConfig\" cannot be null.");
 		
 		this.botName = botName;
 		this.apiToken = apiToken;
 		this.updateHandler = updateHandler;
+		this.telegramBotConfig = telegramBotConfig;
+		this.requestTimeouts = null;
+	}
+	
+	/**
+	 * Creates a view of a Telegram bot, which sends the API requests with other timeouts.
+	 */
+	private JTelegramBot(JTelegramBot telegramBot, RequestTimeouts requestTimeouts)
+	{
+		this.botName = telegramBot.botName;
+		this.apiToken = telegramBot.apiToken;
+		this.updateHandler = telegramBot.updateHandler;
+		this.telegramBotConfig = telegramBot.telegramBotConfig;
+		this.requestTimeouts = requestTimeouts;
 	}
 	
 	@Override
 	public String getApiToken(){return apiToken;}
 	public String getBotName(){return botName;}
+	public TelegramBotConfig getTelegramBotConfig(){return telegramBotConfig;}
+	
+	/**
+	 * @return the metrics of the last polling loop of the bot, or null if it has never been started in POLLING mode
+	 */
+	public PollingMetrics getPollingMetrics()
+	{
+		AdaptivePoller poller = adaptivePoller;
+		return poller != null ? poller.getMetrics() : null;
+	}
+	
+	@Override
+	public RequestTimeouts getRequestTimeouts()
+	{
+		return requestTimeouts != null ? requestTimeouts : telegramBotConfig.getRequestTimeouts();
+	}
+	
+	@Override
+	public JTelegramBot withTimeouts(RequestTimeouts requestTimeouts)
+	{
+		if(requestTimeouts == null) throw new IllegalArgumentException("\"requestTimeouts\" cannot be null.");
+		
+		return new JTelegramBot(this, requestTimeouts);
+	}
+	
+	@Override
+	public String getFileUrl(TelegramFile file)
+	{
+		return telegramBotConfig.getFileApiUrlPrefix() + apiToken + "/" + file.getFilePath();
+	}
+	
+	@Override
+	public void downloadFile(TelegramFile file, OutputStream saveToOutputStream) throws IOException
+	{
+		getHttpTransport().downloadFile(getFileUrl(file), saveToOutputStream, getRequestTimeouts());
+	}
+	
+	private HttpTransport getHttpTransport()
+	{
+		return telegramBotConfig.getHttpTransport();
+	}
+	
+	private String getApiUrl(String methodName)
+	{
+		return telegramBotConfig.getApiUrlPrefix() + apiToken + "/" + methodName;
+	}
+	
+	/**
+	 * Sends an API request which has no files to upload, using the configured request encoding.
+	 */
+	private <R> TelegramResult<R> sendRequest(String methodName, List<NameValueParameter<String, Object>> formFields,
+	                                          TypeReference<TelegramResult<R>> resultType)
+			throws IOException, NegativeResponseException
+	{
+		return sendRequest(methodName, formFields, getRequestTimeouts(), resultType);
+	}
+	
+	private <R> TelegramResult<R> sendRequest(String methodName, List<NameValueParameter<String, Object>> formFields,
+	                                          RequestTimeouts timeouts, TypeReference<TelegramResult<R>> resultType)
+			throws IOException, NegativeResponseException
+	{
+		if(telegramBotConfig.getRequestEncoding() == RequestEncoding.JSON)
+		{
+			return getHttpTransport().sendJsonPost(getApiUrl(methodName), formFields, timeouts, resultType);
+		}
+		else return getHttpTransport().sendHttpPost(getApiUrl(methodName), formFields, timeouts, resultType);
+	}
+	
+	/**
+	 * Sends an API request which uploads files.
+	 */
+	private <R> TelegramResult<R> sendRequest(String methodName, List<NameValueParameter<String, Object>> formFields,
+	                                          List<NameValueParameter<String, FileField>> files,
+	                                          TypeReference<TelegramResult<R>> resultType)
+			throws IOException, NegativeResponseException
+	{
+		return getHttpTransport().sendHttpPost(getApiUrl(methodName), formFields, files, getRequestTimeouts(), resultType);
+	}
 	
 	/**
 	 * Starts the bot in POLLING mode. This is a blocking method.
@@ -84,7 +210,7 @@ public class JTelegramBot implements TelegramBotApi
 			throw new IllegalStateException("You cannot start the bot while it is not idle.");
 		}
 		
-		start(new TelegramBotConfigBuilder().build());
+		start(telegramBotConfig);
 	}
 	
 	/**
@@ -97,18 +223,73 @@ public class JTelegramBot implements TelegramBotApi
 			throw new IllegalStateException("You cannot start the bot while it is not idle.");
 		}
 		
-		startAsync(new TelegramBotConfigBuilder().build());
+		startAsync(telegramBotConfig);
 	}
 	
 	/**
-	 * Stops the bot at next timeout.
+	 * Stops the bot at next timeout. Then, the worker threads handle the updates which are already received and
+	 * they are released, and the received updates are confirmed to Telegram server. This method returns immediately.
 	 */
 	public void stop()
 	{
-		if(!botState.compareAndSet(BotState.RUNNING, BotState.STOPPING))
+		pollingLock.lock();
+		try
+		{
+			if(!botState.compareAndSet(BotState.RUNNING, BotState.STOPPING))
+			{
+				throw new IllegalStateException("You cannot stop the bot while it is not running.");
+			}
+		}
+		finally
+		{
+			pollingLock.unlock();
+		}
+	}
+	
+	/**
+	 * Stops the bot within a bounded time, e.g. for rolling deployments. The in-flight getUpdates request is aborted
+	 * immediately, and the worker threads are given until the timeout to handle the updates which are already
+	 * received. Then, the workers are interrupted and released, and the received updates are confirmed to Telegram
+	 * server, so that they are not delivered again. The confirmation is given at least one second, even if the timeout
+	 * has passed. This method blocks until the bot is stopped.
+	 * 
+	 * @param timeout the maximum time to wait for the worker threads
+	 * @param unit the time unit of the timeout
+	 * 
+	 * @return the received updates which were not handled in time, ordered by their ids, so that they can be handed
+	 *         off to another instance of the bot. It includes the updates whose handlers were still running.
+	 * 
+	 * @throws IllegalStateException if the bot is not running, or this method is called by the polling thread
+	 * @throws InterruptedException if the calling thread is interrupted while waiting for the bot to stop
+	 */
+	public List<Update> stop(long timeout, TimeUnit unit) throws InterruptedException
+	{
+		CountDownLatch stopped;
+		
+		pollingLock.lock();
+		try
+		{
+			if(Thread.currentThread() == pollingThread)
+			{
+				throw new IllegalStateException("You cannot wait for the bot to stop from its polling thread.");
+			}
+			if(!botState.compareAndSet(BotState.RUNNING, BotState.STOPPING))
+			{
+				throw new IllegalStateException("You cannot stop the bot while it is not running.");
+			}
+			
+			pollingAborted = true;
+			stopDeadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+			pollingThread.interrupt();
+			stopped = pollingStopped;
+		}
+		finally
 		{
-			throw new IllegalStateException("You cannot stop the bot while it is not running.");
+			pollingLock.unlock();
 		}
+		
+		stopped.await();
+		return unhandledUpdates;
 	}
 	
 	/**
@@ -118,6 +299,7 @@ public class JTelegramBot implements TelegramBotApi
 	 */
 	public void start(TelegramBotConfig telegramBotConfig) throws IllegalStateException
 	{
+		this.telegramBotConfig = telegramBotConfig;
 		startPolling(telegramBotConfig);
 	}
 	
@@ -128,6 +310,18 @@ public class JTelegramBot implements TelegramBotApi
 	 */
 	public void startAsync(final TelegramBotConfig telegramBotConfig) throws IllegalStateException
 	{
+		// fails the caller rather than the polling thread
+		try
+		{
+			telegramBotConfig.checkUpdateFetching();
+		}
+		catch(IllegalArgumentException e)
+		{
+			botState.compareAndSet(BotState.STARTING, BotState.IDLE);
+			throw e;
+		}
+		
+		this.telegramBotConfig = telegramBotConfig;
 		new Thread(new Runnable()
 		{
 			@Override
@@ -145,45 +339,244 @@ public class JTelegramBot implements TelegramBotApi
 	 */
 	private void startPolling(TelegramBotConfig telegramBotConfig)
 	{
-		// create a thread pool
-		ExecutorService executorService = Executors.newFixedThreadPool(telegramBotConfig.getWorkerThreads());
+		ExecutorService executorService;
+		UpdateBuffer updateBuffer;
+		
+		// the bot can be started again if it fails to start
+		try
+		{
+			telegramBotConfig.checkUpdateFetching();
+			executorService = createExecutorService(telegramBotConfig);
+			updateBuffer = new UpdateBuffer(telegramBotConfig.getUpdateBufferCapacity(),
+			                                telegramBotConfig.getUpdateBufferHighWatermark(),
+			                                telegramBotConfig.getUpdateBufferLowWatermark());
+		}
+		catch(RuntimeException e)
+		{
+			botState.compareAndSet(BotState.STARTING, BotState.IDLE);
+			throw e;
+		}
+		
+		UpdateDispatcher updateDispatcher = new UpdateDispatcher(executorService, updateBuffer);
 		
-		Integer offset = null;
-		int timeout = telegramBotConfig.getPollingTimeoutInSeconds();
+		AdaptivePoller poller = new AdaptivePoller(telegramBotConfig.isAdaptivePolling(),
+		                                           telegramBotConfig.getUpdateFetchSize(),
+		                                           telegramBotConfig.getPollingTimeoutInSeconds());
+		adaptivePoller = poller;
+		
+		pollingLock.lock();
+		try
+		{
+			pollingThread = Thread.currentThread();
+			pollingStopped = new CountDownLatch(1);
+			pollingAborted = false;
+			botState.set(BotState.RUNNING);
+		}
+		finally
+		{
+			pollingLock.unlock();
+		}
 		
-		botState.set(BotState.RUNNING);
 		System.out.println("JTelegramBot (" + botName + ") starts in \"Polling\" mode.");
 		
 		while(botState.get() == BotState.RUNNING)
 		{
 			try
 			{
-				List<Update> newUpdates = getNewUpdates(offset, timeout);
+				// the executor's queue is unbounded, so the poller holds back while the workers are behind,
+				// and the not yet fetched updates wait on the Telegram server instead of in the heap
+				int freeCapacity = updateBuffer.awaitFreeCapacity(1, TimeUnit.SECONDS);
+				if(freeCapacity == 0) continue; // check the state of the bot again
 				
-				for(int i = 0; i < newUpdates.size(); i++)
+				int limit = Math.min(poller.getNextLimit(), freeCapacity);
+				int receivedUpdates = updateDispatcher.getReceivedUpdates();
+				try
 				{
-					final Update newUpdate = newUpdates.get(i);
-					
-					executorService.submit(new Runnable()
-					{
-						@Override
-						public void run()
-						{
-							onUpdateReceived(newUpdate);
-						}
-					});
-					
-					if(i == newUpdates.size() - 1) // if last item, calculate the offset
-					{
-						offset = newUpdate.getUpdateId() + 1;
-					}
+					getNewUpdates(updateDispatcher.getOffset(), limit, poller.getNextTimeoutInSeconds(), updateDispatcher);
+				}
+				finally
+				{
+					poller.onPollCompleted(limit, updateDispatcher.getReceivedUpdates() - receivedUpdates,
+					                       updateBuffer.getPendingUpdates());
 				}
 			}
+			catch(InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				break;
+			}
+			catch(Exception e)
+			{
+				// a request which is aborted by stopping the bot is not a failure
+				if(updateHandler != null && botState.get() == BotState.RUNNING) updateHandler.onGetUpdatesFailure(e);
+			}
+		}
+		
+		stopPolling(executorService, updateBuffer, updateDispatcher);
+	}
+	
+	/**
+	 * Releases the worker threads once the polling loop is left, and confirms the received updates. If the loop is
+	 * left because the polling thread is interrupted by anything other than stopping the bot, the workers are not
+	 * waited for, and the thread is interrupted again at the end.
+	 */
+	private void stopPolling(ExecutorService executorService, UpdateBuffer updateBuffer, UpdateDispatcher updateDispatcher)
+	{
+		CountDownLatch stopped;
+		boolean bounded;
+		long deadlineNanos;
+		boolean interruptedElsewhere = false;
+		
+		pollingLock.lock();
+		try
+		{
+			stopped = pollingStopped;
+			pollingThread = null;
+			bounded = pollingAborted;
+			deadlineNanos = stopDeadlineNanos;
+			
+			// clears the interrupt which aborted the polling
+			if(Thread.interrupted() && !pollingAborted)
+			{
+				interruptedElsewhere = true;
+				bounded = true;
+				deadlineNanos = System.nanoTime();
+			}
+			
+			botState.set(BotState.STOPPING);
+		}
+		finally
+		{
+			pollingLock.unlock();
+		}
+		
+		// the updates which are still queued or being handled once the time is up
+		List<Update> updates = Collections.emptyList();
+		
+		executorService.shutdown();
+		try
+		{
+			boolean terminated = bounded ? executorService.awaitTermination(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS)
+			                             : executorService.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+			if(!terminated)
+			{
+				updates = updateBuffer.getUnhandledUpdates();
+				executorService.shutdownNow();
+			}
+		}
+		catch(InterruptedException e)
+		{
+			updates = updateBuffer.getUnhandledUpdates();
+			executorService.shutdownNow();
+			interruptedElsewhere = true;
+		}
+		
+		Integer offset = updateDispatcher.getOffset();
+		if(offset != null)
+		{
+			long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+			long deadlineInMillis = bounded ? Math.max(remainingMillis, MIN_CONFIRMATION_DEADLINE_IN_MILLIS) : 0;
+			
+			try
+			{
+				confirmUpdates(offset, deadlineInMillis);
+			}
 			catch(Exception e)
 			{
 				if(updateHandler != null) updateHandler.onGetUpdatesFailure(e);
 			}
 		}
+		
+		unhandledUpdates = updates;
+		botState.set(BotState.IDLE);
+		System.out.println("JTelegramBot (" + botName + ") has stopped.");
+		stopped.countDown();
+		
+		if(interruptedElsewhere) Thread.currentThread().interrupt();
+	}
+	
+	/**
+	 * Creates the executor which handles the updates according to the dispatch mode.
+	 */
+	private ExecutorService createExecutorService(TelegramBotConfig telegramBotConfig)
+	{
+		int workerThreads = telegramBotConfig.getWorkerThreads();
+		
+		switch(telegramBotConfig.getDispatchMode())
+		{
+			case PER_CHAT_ORDERED: return new StripedExecutor(workerThreads);
+			case VIRTUAL_THREADS: return new VirtualThreadExecutor("JTelegramBot (" + botName + ")-",
+			                                                       telegramBotConfig.getMaxConcurrentUpdates());
+			default: return Executors.newFixedThreadPool(workerThreads);
+		}
+	}
+	
+	/**
+	 * Submits every update to the worker threads as soon as it is decoded, and keeps the offset of the next
+	 * getUpdates request, which is greater by one than the highest update id seen so far. The offset counts
+	 * the updates which were dispatched before a failure in the middle of a response as well. Every update
+	 * is counted in the buffer until a worker thread handles it. If the executor is striped, the updates
+	 * are keyed by their chat, so that the updates of the same chat are handled in order.
+	 */
+	private class UpdateDispatcher implements UpdateStream.Listener
+	{
+		private final ExecutorService executorService;
+		private final UpdateBuffer updateBuffer;
+		private Integer offset = null;
+		private int receivedUpdates = 0; // may overflow, only the differences are used
+		
+		private UpdateDispatcher(ExecutorService executorService, UpdateBuffer updateBuffer)
+		{
+			this.executorService = executorService;
+			this.updateBuffer = updateBuffer;
+		}
+		
+		public Integer getOffset(){return offset;}
+		public int getReceivedUpdates(){return receivedUpdates;}
+		
+		@Override
+		public void onUpdate(final Update update)
+		{
+			Runnable task = new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					try
+					{
+						onUpdateReceived(update);
+					}
+					finally
+					{
+						updateBuffer.remove(update);
+					}
+				}
+			};
+			
+			updateBuffer.add(update);
+			receivedUpdates++;
+			if(executorService instanceof StripedExecutor) ((StripedExecutor) executorService).execute(getChatKey(update), task);
+			else executorService.execute(task);
+			
+			int nextOffset = update.getUpdateId() + 1;
+			if(offset == null || nextOffset > offset) offset = nextOffset;
+		}
+		
+		/**
+		 * @return the id of the chat of the update, or the id of the sender if the update has no chat
+		 */
+		private long getChatKey(Update update)
+		{
+			Message message = update.getMessage() != null ? update.getMessage() : update.getEditedMessage();
+			if(message != null && message.getChat() != null) return message.getChat().getId();
+			
+			User from = null;
+			if(update.getInlineQuery() != null) from = update.getInlineQuery().getFrom();
+			else if(update.getChosenInlineResult() != null) from = update.getChosenInlineResult().getFrom();
+			else if(update.getCallbackQuery() != null) from = update.getCallbackQuery().getFrom();
+			
+			return from != null ? from.getId() : update.getUpdateId();
+		}
 	}
 	
 	/**
@@ -226,16 +619,13 @@ public class JTelegramBot implements TelegramBotApi
 	 */
 	public TelegramResult<String> registerWebhook(String listenUrl, File certificateFile) throws IOException, NegativeResponseException
 	{
-		List<NameValueParameter<String, String>> formFields = new ArrayList<NameValueParameter<String, String>>();
+		RequestParameters formFields = RequestParameters.forCurrentThread();
 		List<NameValueParameter<String, FileField>> files = new ArrayList<NameValueParameter<String, FileField>>();
 		
-		formFields.add(new NameValueParameter<String, String>("url", listenUrl));
+		formFields.add("url", listenUrl);
 		files.add(new NameValueParameter<String, FileField>("certificate", new FileField(certificateFile)));
 		
-		HttpResponse response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/setWebhook", formFields, files);
-		TelegramResult<String> telegramResult = JsonUtils.toJavaObject(response.getResponseBody(), new TypeReference<TelegramResult<String>>(){});
-		
-		if(!telegramResult.isOk()) throw new NegativeResponseException(response.getHttpStatusCode(), telegramResult);
+		TelegramResult<String> telegramResult = sendRequest("setWebhook", formFields, files, new TypeReference<TelegramResult<String>>(){});
 		
 		return telegramResult;
 	}
@@ -250,19 +640,17 @@ public class JTelegramBot implements TelegramBotApi
 	 */
 	public TelegramResult<String> unregisterWebhook() throws IOException, NegativeResponseException
 	{
-		List<NameValueParameter<String, String>> formFields = new ArrayList<NameValueParameter<String, String>>();
+		RequestParameters formFields = RequestParameters.forCurrentThread();
 		List<NameValueParameter<String, FileField>> files = new ArrayList<NameValueParameter<String, FileField>>();
 		
-		HttpResponse response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/setWebhook", formFields, files);
-		TelegramResult<String> telegramResult = JsonUtils.toJavaObject(response.getResponseBody(), new TypeReference<TelegramResult<String>>(){});
-		
-		if(!telegramResult.isOk()) throw new NegativeResponseException(response.getHttpStatusCode(), telegramResult);
+		TelegramResult<String> telegramResult = sendRequest("setWebhook", formFields, files, new TypeReference<TelegramResult<String>>(){});
 		
 		return telegramResult;
 	}
 	
 	/**
-	 * This method is used to receive incoming updates using long polling.
+	 * This method is used to receive incoming updates using long polling. The response is decoded as a stream,
+	 * and every update is passed to the listener as soon as it is decoded.
 	 * 
 	 * @param offset identifier of the first update to be returned. Must be greater by one than the highest among
 	 *               the identifiers of previously received updates. By default, updates starting with the earliest
@@ -270,26 +658,63 @@ public class JTelegramBot implements TelegramBotApi
 	 *               called with an offset higher than its update_id. The negative offset can be specified to
 	 *               retrieve updates starting from -offset update from the end of the updates queue. All previous
 	 *               updates will forgotten.
+	 * @param limit limits the number of updates to be retrieved, between 1 and 100
 	 * @param timeout timeout in seconds for long polling. Defaults to 0, i.e. usual short polling
-	 * 
-	 * @return list of <code>Update</code> objects. If no new update, an empty list is returned 
+	 * @param listener the listener which receives the updates in order
 	 * 
 	 * @throws IOException if an I/O exception occurs
 	 * @throws NegativeResponseException if 4xx-5xx HTTP response is received from Telegram server
 	 */
-	private List<Update> getNewUpdates(Integer offset, int timeout) throws IOException, NegativeResponseException
+	private void getNewUpdates(Integer offset, int limit, int timeout, UpdateStream.Listener listener)
+			throws IOException, NegativeResponseException
 	{
-		List<NameValueParameter<String, String>> formFields = new ArrayList<NameValueParameter<String, String>>();
+		RequestParameters formFields = RequestParameters.forCurrentThread();
+		
+		if(offset != null) formFields.add("offset", offset);
+		formFields.add("limit", limit);
+		formFields.add("timeout", timeout);
+		
+		// the server holds the request for up to "timeout" seconds, so the read timeout and
+		// the deadline are extended by that time
+		RequestTimeouts requestTimeouts = getRequestTimeouts();
+		long longPollingInMillis = TimeUnit.SECONDS.toMillis(timeout);
+		requestTimeouts = requestTimeouts.withReadTimeout((int) (longPollingInMillis + TelegramBotConfig.POLLING_READ_TIMEOUT_MARGIN_IN_MILLIS));
+		if(requestTimeouts.getDeadlineInMillis() > 0)
+		{
+			requestTimeouts = requestTimeouts.withDeadline(requestTimeouts.getDeadlineInMillis() + longPollingInMillis);
+		}
 		
-		if(offset != null) formFields.add(new NameValueParameter<String, String>("offset", String.valueOf(offset)));
-		formFields.add(new NameValueParameter<String, String>("timeout", String.valueOf(timeout)));
+		UpdateStream updateStream = new UpdateStream(listener, telegramBotConfig.isLazyUpdateDecoding(),
+		                                             telegramBotConfig.getStringPool(),
+		                                             telegramBotConfig.getFieldProjection());
+		TelegramResult<UpdateBatch> telegramResult = sendRequest("getUpdates", formFields, requestTimeouts, updateStream);
 		
-		HttpResponse response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/getUpdates", formFields);
-		TelegramResult<Update[]> telegramResult = JsonUtils.toJavaObject(response.getResponseBody(), new TypeReference<TelegramResult<Update[]>>(){});
+		// the updates which the transport did not stream
+		for(Update update : telegramResult.getResult().getUpdates()) listener.onUpdate(update);
+	}
+	
+	/**
+	 * Confirms the updates before the offset to Telegram server, without waiting for new updates.
+	 * 
+	 * @param offset the offset of the next getUpdates request
+	 * @param deadlineInMillis the deadline of the request, or 0 to use the configured one
+	 * 
+	 * @throws IOException if an I/O exception occurs
+	 * @throws NegativeResponseException if 4xx-5xx HTTP response is received from Telegram server
+	 */
+	private void confirmUpdates(int offset, long deadlineInMillis) throws IOException, NegativeResponseException
+	{
+		RequestParameters formFields = RequestParameters.forCurrentThread();
 		
-		if(!telegramResult.isOk()) throw new NegativeResponseException(response.getHttpStatusCode(), telegramResult);
+		// the returned update, if any, is not confirmed by this request
+		formFields.add("offset", offset);
+		formFields.add("limit", 1);
+		formFields.add("timeout", 0);
 		
-		return new ArrayList<Update>(Arrays.asList(telegramResult.getResult()));
+		RequestTimeouts requestTimeouts = getRequestTimeouts();
+		if(deadlineInMillis > 0) requestTimeouts = requestTimeouts.withDeadline(deadlineInMillis);
+		
+		sendRequest("getUpdates", formFields, requestTimeouts, new TypeReference<TelegramResult<Object>>(){});
 	}
 	
 	/*============ API METHODS IMPLEMENTATION ============*/
@@ -297,12 +722,9 @@ public class JTelegramBot implements TelegramBotApi
 	@Override
 	public User getMe() throws IOException, NegativeResponseException
 	{
-		List<NameValueParameter<String, String>> formFields = new ArrayList<NameValueParameter<String, String>>();
-		
-		HttpResponse response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/getMe", formFields);
-		TelegramResult<User> telegramResult = JsonUtils.toJavaObject(response.getResponseBody(), new TypeReference<TelegramResult<User>>(){});
+		RequestParameters formFields = RequestParameters.forCurrentThread();
 		
-		if(!telegramResult.isOk()) throw new NegativeResponseException(response.getHttpStatusCode(), telegramResult);
+		TelegramResult<User> telegramResult = sendRequest("getMe", formFields, new TypeReference<TelegramResult<User>>(){});
 		
 		return telegramResult.getResult();
 	}
@@ -312,25 +734,21 @@ public class JTelegramBot implements TelegramBotApi
 	              Boolean disableLinkPreviews, Boolean silentMessage, Integer replyToMessageId, ReplyMarkup replyMarkup)
 			throws IOException, NegativeResponseException
 	{
-		List<NameValueParameter<String, String>> formFields = new ArrayList<NameValueParameter<String, String>>();
+		RequestParameters formFields = RequestParameters.forCurrentThread();
 		
 		String username = targetChatIdentifier.getUsername();
 		Long id = targetChatIdentifier.getId();
-		if(username != null) formFields.add(new NameValueParameter<String, String>("chat_id", username));
-		else formFields.add(new NameValueParameter<String, String>("chat_id", String.valueOf(id)));
+		if(username != null) formFields.add("chat_id", username);
+		else formFields.add("chat_id", id);
 		
-		formFields.add(new NameValueParameter<String, String>("text", text));
-		if(parseMode != null) formFields.add(new NameValueParameter<String, String>("parse_mode", String.valueOf(parseMode)));
-		if(disableLinkPreviews != null) formFields.add(new NameValueParameter<String, String>("disable_web_page_preview", String.valueOf(disableLinkPreviews)));
-		if(silentMessage != null) formFields.add(new NameValueParameter<String, String>("disable_notification", String.valueOf(silentMessage)));
-		if(replyToMessageId != null) formFields.add(new NameValueParameter<String, String>("reply_to_message_id", String.valueOf(replyToMessageId)));
-		if(replyMarkup != null) formFields.add(new NameValueParameter<String, String>("reply_markup", JsonUtils.toJson(replyMarkup)));
+		formFields.add("text", text);
+		if(parseMode != null) formFields.add("parse_mode", parseMode);
+		if(disableLinkPreviews != null) formFields.add("disable_web_page_preview", disableLinkPreviews);
+		if(silentMessage != null) formFields.add("disable_notification", silentMessage);
+		if(replyToMessageId != null) formFields.add("reply_to_message_id", replyToMessageId);
+		if(replyMarkup != null) formFields.add("reply_markup", replyMarkup);
 		
-		HttpResponse response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/sendMessage", formFields);
-		
-		TelegramResult<Message> telegramResult = JsonUtils.toJavaObject(response.getResponseBody(), new TypeReference<TelegramResult<Message>>(){});
-		
-		if(!telegramResult.isOk()) throw new NegativeResponseException(response.getHttpStatusCode(), telegramResult);
+		TelegramResult<Message> telegramResult = sendRequest("sendMessage", formFields, new TypeReference<TelegramResult<Message>>(){});
 		
 		return telegramResult.getResult();
 	}
@@ -340,25 +758,22 @@ public class JTelegramBot implements TelegramBotApi
 	                              Boolean silentMessage, Integer messageId) throws IOException,
 			NegativeResponseException
 	{
-		List<NameValueParameter<String, String>> formFields = new ArrayList<NameValueParameter<String, String>>();
+		RequestParameters formFields = RequestParameters.forCurrentThread();
 		
 		String username = targetChatIdentifier.getUsername();
 		Long id = targetChatIdentifier.getId();
-		if(username != null) formFields.add(new NameValueParameter<String, String>("chat_id", username));
-		else formFields.add(new NameValueParameter<String, String>("chat_id", String.valueOf(id)));
+		if(username != null) formFields.add("chat_id", username);
+		else formFields.add("chat_id", id);
 		
 		username = sourceChatIdentifier.getUsername();
 		id = sourceChatIdentifier.getId();
-		if(username != null) formFields.add(new NameValueParameter<String, String>("from_chat_id", username));
-		else formFields.add(new NameValueParameter<String, String>("from_chat_id", String.valueOf(id)));
-		
-		if(silentMessage != null) formFields.add(new NameValueParameter<String, String>("disable_notification", String.valueOf(silentMessage)));
-		formFields.add(new NameValueParameter<String, String>("message_id", String.valueOf(messageId)));
+		if(username != null) formFields.add("from_chat_id", username);
+		else formFields.add("from_chat_id", id);
 		
-		HttpResponse response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/forwardMessage", formFields);
-		TelegramResult<Message> telegramResult = JsonUtils.toJavaObject(response.getResponseBody(), new TypeReference<TelegramResult<Message>>(){});
+		if(silentMessage != null) formFields.add("disable_notification", silentMessage);
+		formFields.add("message_id", messageId);
 		
-		if(!telegramResult.isOk()) throw new NegativeResponseException(response.getHttpStatusCode(), telegramResult);
+		TelegramResult<Message> telegramResult = sendRequest("forwardMessage", formFields, new TypeReference<TelegramResult<Message>>(){});
 		
 		return telegramResult.getResult();
 	}
@@ -370,37 +785,33 @@ public class JTelegramBot implements TelegramBotApi
 	{
 		String mediaId = mediaIdentifier.getMediaId();
 		
-		List<NameValueParameter<String, String>> formFields = new ArrayList<NameValueParameter<String, String>>();
+		RequestParameters formFields = RequestParameters.forCurrentThread();
 		
 		String username = targetChatIdentifier.getUsername();
 		Long id = targetChatIdentifier.getId();
-		if(username != null) formFields.add(new NameValueParameter<String, String>("chat_id", username));
-		else formFields.add(new NameValueParameter<String, String>("chat_id", String.valueOf(id)));
+		if(username != null) formFields.add("chat_id", username);
+		else formFields.add("chat_id", id);
 		
-		if(mediaId != null) formFields.add(new NameValueParameter<String, String>("photo", mediaId));
-		if(photoCaption != null) formFields.add(new NameValueParameter<String, String>("caption", photoCaption));
-		if(silentMessage != null) formFields.add(new NameValueParameter<String, String>("disable_notification", String.valueOf(silentMessage)));
-		if(replyToMessageId != null) formFields.add(new NameValueParameter<String, String>("reply_to_message_id", String.valueOf(replyToMessageId)));
-		if(replyMarkup != null) formFields.add(new NameValueParameter<String, String>("reply_markup", JsonUtils.toJson(replyMarkup)));
+		if(mediaId != null) formFields.add("photo", mediaId);
+		if(photoCaption != null) formFields.add("caption", photoCaption);
+		if(silentMessage != null) formFields.add("disable_notification", silentMessage);
+		if(replyToMessageId != null) formFields.add("reply_to_message_id", replyToMessageId);
+		if(replyMarkup != null) formFields.add("reply_markup", replyMarkup);
 		
-		HttpResponse response;
+		TelegramResult<Message> telegramResult;
 		
 		if(mediaId == null)
 		{
 			List<NameValueParameter<String, FileField>> files = new ArrayList<NameValueParameter<String, FileField>>();
 			files.add(new NameValueParameter<String, FileField>("photo", new FileField(mediaIdentifier.getFileName(), mediaIdentifier.getMediaInputStream())));
 			
-			response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/sendPhoto", formFields, files);
+			telegramResult = sendRequest("sendPhoto", formFields, files, new TypeReference<TelegramResult<Message>>(){});
 		}
 		else
 		{
-			response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/sendPhoto", formFields);
+			telegramResult = sendRequest("sendPhoto", formFields, new TypeReference<TelegramResult<Message>>(){});
 		}
 		
-		TelegramResult<Message> telegramResult = JsonUtils.toJavaObject(response.getResponseBody(), new TypeReference<TelegramResult<Message>>(){});
-		
-		if(!telegramResult.isOk()) throw new NegativeResponseException(response.getHttpStatusCode(), telegramResult);
-		
 		return telegramResult.getResult();
 	}
 	
@@ -411,38 +822,34 @@ public class JTelegramBot implements TelegramBotApi
 	{
 		String mediaId = mediaIdentifier.getMediaId();
 		
-		List<NameValueParameter<String, String>> formFields = new ArrayList<NameValueParameter<String, String>>();
+		RequestParameters formFields = RequestParameters.forCurrentThread();
 		
 		String username = targetChatIdentifier.getUsername();
 		Long id = targetChatIdentifier.getId();
-		if(username != null) formFields.add(new NameValueParameter<String, String>("chat_id", username));
-		else formFields.add(new NameValueParameter<String, String>("chat_id", String.valueOf(id)));
+		if(username != null) formFields.add("chat_id", username);
+		else formFields.add("chat_id", id);
 		
-		if(mediaId != null) formFields.add(new NameValueParameter<String, String>("audio", mediaId));
-		if(duration != null) formFields.add(new NameValueParameter<String, String>("duration", String.valueOf(duration)));
-		if(performer != null) formFields.add(new NameValueParameter<String, String>("performer", performer));
-		if(trackTitle != null) formFields.add(new NameValueParameter<String, String>("title", trackTitle));
-		if(silentMessage != null) formFields.add(new NameValueParameter<String, String>("disable_notification", String.valueOf(silentMessage)));
-		if(replyToMessageId != null) formFields.add(new NameValueParameter<String, String>("reply_to_message_id", String.valueOf(replyToMessageId)));
-		if(replyMarkup != null) formFields.add(new NameValueParameter<String, String>("reply_markup", JsonUtils.toJson(replyMarkup)));
+		if(mediaId != null) formFields.add("audio", mediaId);
+		if(duration != null) formFields.add("duration", duration);
+		if(performer != null) formFields.add("performer", performer);
+		if(trackTitle != null) formFields.add("title", trackTitle);
+		if(silentMessage != null) formFields.add("disable_notification", silentMessage);
+		if(replyToMessageId != null) formFields.add("reply_to_message_id", replyToMessageId);
+		if(replyMarkup != null) formFields.add("reply_markup", replyMarkup);
 		
-		HttpResponse response;
+		TelegramResult<Message> telegramResult;
 		
 		if(mediaId == null)
 		{
 			List<NameValueParameter<String, FileField>> files = new ArrayList<NameValueParameter<String, FileField>>();
 			files.add(new NameValueParameter<String, FileField>("audio", new FileField(mediaIdentifier.getFileName(), mediaIdentifier.getMediaInputStream())));
 			
-			response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/sendAudio", formFields, files);
+			telegramResult = sendRequest("sendAudio", formFields, files, new TypeReference<TelegramResult<Message>>(){});
 		}
 		else
 		{
-			response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/sendAudio", formFields);
+			telegramResult = sendRequest("sendAudio", formFields, new TypeReference<TelegramResult<Message>>(){});
 		}
-				
-		TelegramResult<Message> telegramResult = JsonUtils.toJavaObject(response.getResponseBody(), new TypeReference<TelegramResult<Message>>(){});
-		
-		if(!telegramResult.isOk()) throw new NegativeResponseException(response.getHttpStatusCode(), telegramResult);
 		
 		return telegramResult.getResult();
 	}
@@ -454,37 +861,33 @@ public class JTelegramBot implements TelegramBotApi
 	{
 		String mediaId = mediaIdentifier.getMediaId();
 		
-		List<NameValueParameter<String, String>> formFields = new ArrayList<NameValueParameter<String, String>>();
+		RequestParameters formFields = RequestParameters.forCurrentThread();
 		
 		String username = targetChatIdentifier.getUsername();
 		Long id = targetChatIdentifier.getId();
-		if(username != null) formFields.add(new NameValueParameter<String, String>("chat_id", username));
-		else formFields.add(new NameValueParameter<String, String>("chat_id", String.valueOf(id)));
+		if(username != null) formFields.add("chat_id", username);
+		else formFields.add("chat_id", id);
 		
-		if(mediaId != null) formFields.add(new NameValueParameter<String, String>("document", mediaId));
-		if(documentCaption != null) formFields.add(new NameValueParameter<String, String>("caption", String.valueOf(documentCaption)));
-		if(silentMessage != null) formFields.add(new NameValueParameter<String, String>("disable_notification", String.valueOf(silentMessage)));
-		if(replyToMessageId != null) formFields.add(new NameValueParameter<String, String>("reply_to_message_id", String.valueOf(replyToMessageId)));
-		if(replyMarkup != null) formFields.add(new NameValueParameter<String, String>("reply_markup", JsonUtils.toJson(replyMarkup)));
+		if(mediaId != null) formFields.add("document", mediaId);
+		if(documentCaption != null) formFields.add("caption", documentCaption);
+		if(silentMessage != null) formFields.add("disable_notification", silentMessage);
+		if(replyToMessageId != null) formFields.add("reply_to_message_id", replyToMessageId);
+		if(replyMarkup != null) formFields.add("reply_markup", replyMarkup);
 		
-		HttpResponse response;
+		TelegramResult<Message> telegramResult;
 		
 		if(mediaId == null)
 		{
 			List<NameValueParameter<String, FileField>> files = new ArrayList<NameValueParameter<String, FileField>>();
 			files.add(new NameValueParameter<String, FileField>("document", new FileField(mediaIdentifier.getFileName(), mediaIdentifier.getMediaInputStream())));
 			
-			response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/sendDocument", formFields, files);
+			telegramResult = sendRequest("sendDocument", formFields, files, new TypeReference<TelegramResult<Message>>(){});
 		}
 		else
 		{
-			response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/sendDocument", formFields);
+			telegramResult = sendRequest("sendDocument", formFields, new TypeReference<TelegramResult<Message>>(){});
 		}
 		
-		TelegramResult<Message> telegramResult = JsonUtils.toJavaObject(response.getResponseBody(), new TypeReference<TelegramResult<Message>>(){});
-		
-		if(!telegramResult.isOk()) throw new NegativeResponseException(response.getHttpStatusCode(), telegramResult);
-		
 		return telegramResult.getResult();
 	}
 	
@@ -495,35 +898,31 @@ public class JTelegramBot implements TelegramBotApi
 	{
 		String mediaId = mediaIdentifier.getMediaId();
 		
-		List<NameValueParameter<String, String>> formFields = new ArrayList<NameValueParameter<String, String>>();
+		RequestParameters formFields = RequestParameters.forCurrentThread();
 		
 		String username = targetChatIdentifier.getUsername();
 		Long id = targetChatIdentifier.getId();
-		if(username != null) formFields.add(new NameValueParameter<String, String>("chat_id", username));
-		else formFields.add(new NameValueParameter<String, String>("chat_id", String.valueOf(id)));
+		if(username != null) formFields.add("chat_id", username);
+		else formFields.add("chat_id", id);
 		
-		if(mediaId != null) formFields.add(new NameValueParameter<String, String>("sticker", mediaId));
-		if(silentMessage != null) formFields.add(new NameValueParameter<String, String>("disable_notification", String.valueOf(silentMessage)));
-		if(replyToMessageId != null) formFields.add(new NameValueParameter<String, String>("reply_to_message_id", String.valueOf(replyToMessageId)));
-		if(replyMarkup != null) formFields.add(new NameValueParameter<String, String>("reply_markup", JsonUtils.toJson(replyMarkup)));
+		if(mediaId != null) formFields.add("sticker", mediaId);
+		if(silentMessage != null) formFields.add("disable_notification", silentMessage);
+		if(replyToMessageId != null) formFields.add("reply_to_message_id", replyToMessageId);
+		if(replyMarkup != null) formFields.add("reply_markup", replyMarkup);
 		
-		HttpResponse response;
+		TelegramResult<Message> telegramResult;
 		
 		if(mediaId == null)
 		{
 			List<NameValueParameter<String, FileField>> files = new ArrayList<NameValueParameter<String, FileField>>();
 			files.add(new NameValueParameter<String, FileField>("sticker", new FileField(mediaIdentifier.getFileName(), mediaIdentifier.getMediaInputStream())));
 			
-			response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/sendSticker", formFields, files);
+			telegramResult = sendRequest("sendSticker", formFields, files, new TypeReference<TelegramResult<Message>>(){});
 		}
 		else
 		{
-			response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/sendSticker", formFields);
+			telegramResult = sendRequest("sendSticker", formFields, new TypeReference<TelegramResult<Message>>(){});
 		}
-				
-		TelegramResult<Message> telegramResult = JsonUtils.toJavaObject(response.getResponseBody(), new TypeReference<TelegramResult<Message>>(){});
-		
-		if(!telegramResult.isOk()) throw new NegativeResponseException(response.getHttpStatusCode(), telegramResult);
 		
 		return telegramResult.getResult();
 	}
@@ -536,40 +935,36 @@ public class JTelegramBot implements TelegramBotApi
 	{
 		String mediaId = mediaIdentifier.getMediaId();
 		
-		List<NameValueParameter<String, String>> formFields = new ArrayList<NameValueParameter<String, String>>();
+		RequestParameters formFields = RequestParameters.forCurrentThread();
 		
 		String username = targetChatIdentifier.getUsername();
 		Long id = targetChatIdentifier.getId();
-		if(username != null) formFields.add(new NameValueParameter<String, String>("chat_id", username));
-		else formFields.add(new NameValueParameter<String, String>("chat_id", String.valueOf(id)));
+		if(username != null) formFields.add("chat_id", username);
+		else formFields.add("chat_id", id);
 		
-		if(mediaId != null) formFields.add(new NameValueParameter<String, String>("video", mediaId));
-		if(duration != null) formFields.add(new NameValueParameter<String, String>("duration", String.valueOf(duration)));
-		if(width != null) formFields.add(new NameValueParameter<String, String>("width", String.valueOf(width)));
-		if(height != null) formFields.add(new NameValueParameter<String, String>("height", String.valueOf(height)));
-		if(videoCaption != null) formFields.add(new NameValueParameter<String, String>("caption", videoCaption));
-		if(silentMessage != null) formFields.add(new NameValueParameter<String, String>("disable_notification", String.valueOf(silentMessage)));
-		if(replyToMessageId != null) formFields.add(new NameValueParameter<String, String>("reply_to_message_id", String.valueOf(replyToMessageId)));
-		if(replyMarkup != null) formFields.add(new NameValueParameter<String, String>("reply_markup", JsonUtils.toJson(replyMarkup)));
+		if(mediaId != null) formFields.add("video", mediaId);
+		if(duration != null) formFields.add("duration", duration);
+		if(width != null) formFields.add("width", width);
+		if(height != null) formFields.add("height", height);
+		if(videoCaption != null) formFields.add("caption", videoCaption);
+		if(silentMessage != null) formFields.add("disable_notification", silentMessage);
+		if(replyToMessageId != null) formFields.add("reply_to_message_id", replyToMessageId);
+		if(replyMarkup != null) formFields.add("reply_markup", replyMarkup);
 		
-		HttpResponse response;
+		TelegramResult<Message> telegramResult;
 		
 		if(mediaId == null)
 		{
 			List<NameValueParameter<String, FileField>> files = new ArrayList<NameValueParameter<String, FileField>>();
 			files.add(new NameValueParameter<String, FileField>("video", new FileField(mediaIdentifier.getFileName(), mediaIdentifier.getMediaInputStream())));
 			
-			response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/sendVideo", formFields, files);
+			telegramResult = sendRequest("sendVideo", formFields, files, new TypeReference<TelegramResult<Message>>(){});
 		}
 		else
 		{
-			response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/sendVideo", formFields);
+			telegramResult = sendRequest("sendVideo", formFields, new TypeReference<TelegramResult<Message>>(){});
 		}
 		
-		TelegramResult<Message> telegramResult = JsonUtils.toJavaObject(response.getResponseBody(), new TypeReference<TelegramResult<Message>>(){});
-		
-		if(!telegramResult.isOk()) throw new NegativeResponseException(response.getHttpStatusCode(), telegramResult);
-		
 		return telegramResult.getResult();
 	}
 	
@@ -580,36 +975,32 @@ public class JTelegramBot implements TelegramBotApi
 	{
 		String mediaId = mediaIdentifier.getMediaId();
 		
-		List<NameValueParameter<String, String>> formFields = new ArrayList<NameValueParameter<String, String>>();
+		RequestParameters formFields = RequestParameters.forCurrentThread();
 		
 		String username = targetChatIdentifier.getUsername();
 		Long id = targetChatIdentifier.getId();
-		if(username != null) formFields.add(new NameValueParameter<String, String>("chat_id", username));
-		else formFields.add(new NameValueParameter<String, String>("chat_id", String.valueOf(id)));
+		if(username != null) formFields.add("chat_id", username);
+		else formFields.add("chat_id", id);
 		
-		if(mediaId != null) formFields.add(new NameValueParameter<String, String>("voice", mediaId));
-		if(duration != null) formFields.add(new NameValueParameter<String, String>("duration", String.valueOf(duration)));
-		if(silentMessage != null) formFields.add(new NameValueParameter<String, String>("disable_notification", String.valueOf(silentMessage)));
-		if(replyToMessageId != null) formFields.add(new NameValueParameter<String, String>("reply_to_message_id", String.valueOf(replyToMessageId)));
-		if(replyMarkup != null) formFields.add(new NameValueParameter<String, String>("reply_markup", JsonUtils.toJson(replyMarkup)));
+		if(mediaId != null) formFields.add("voice", mediaId);
+		if(duration != null) formFields.add("duration", duration);
+		if(silentMessage != null) formFields.add("disable_notification", silentMessage);
+		if(replyToMessageId != null) formFields.add("reply_to_message_id", replyToMessageId);
+		if(replyMarkup != null) formFields.add("reply_markup", replyMarkup);
 		
-		HttpResponse response;
+		TelegramResult<Message> telegramResult;
 		
 		if(mediaId == null)
 		{
 			List<NameValueParameter<String, FileField>> files = new ArrayList<NameValueParameter<String, FileField>>();
 			files.add(new NameValueParameter<String, FileField>("voice", new FileField(mediaIdentifier.getFileName(), mediaIdentifier.getMediaInputStream())));
 			
-			response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/sendVoice", formFields, files);
+			telegramResult = sendRequest("sendVoice", formFields, files, new TypeReference<TelegramResult<Message>>(){});
 		}
 		else
 		{
-			response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/sendVoice", formFields);
+			telegramResult = sendRequest("sendVoice", formFields, new TypeReference<TelegramResult<Message>>(){});
 		}
-				
-		TelegramResult<Message> telegramResult = JsonUtils.toJavaObject(response.getResponseBody(), new TypeReference<TelegramResult<Message>>(){});
-		
-		if(!telegramResult.isOk()) throw new NegativeResponseException(response.getHttpStatusCode(), telegramResult);
 		
 		return telegramResult.getResult();
 	}
@@ -619,23 +1010,20 @@ public class JTelegramBot implements TelegramBotApi
 	                            Boolean silentMessage, Integer replyToMessageId, ReplyMarkup replyMarkup)
 			throws IOException, NegativeResponseException
 	{
-		List<NameValueParameter<String, String>> formFields = new ArrayList<NameValueParameter<String, String>>();
+		RequestParameters formFields = RequestParameters.forCurrentThread();
 		
 		String username = targetChatIdentifier.getUsername();
 		Long id = targetChatIdentifier.getId();
-		if(username != null) formFields.add(new NameValueParameter<String, String>("chat_id", username));
-		else formFields.add(new NameValueParameter<String, String>("chat_id", String.valueOf(id)));
-		
-		formFields.add(new NameValueParameter<String, String>("latitude", String.valueOf(latitude)));
-		formFields.add(new NameValueParameter<String, String>("longitude", String.valueOf(longitude)));
-		if(silentMessage != null) formFields.add(new NameValueParameter<String, String>("disable_notification", String.valueOf(silentMessage)));
-		if(replyToMessageId != null) formFields.add(new NameValueParameter<String, String>("reply_to_message_id", String.valueOf(replyToMessageId)));
-		if(replyMarkup != null) formFields.add(new NameValueParameter<String, String>("reply_markup", JsonUtils.toJson(replyMarkup)));
+		if(username != null) formFields.add("chat_id", username);
+		else formFields.add("chat_id", id);
 		
-		HttpResponse response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/sendLocation", formFields);
-		TelegramResult<Message> telegramResult = JsonUtils.toJavaObject(response.getResponseBody(), new TypeReference<TelegramResult<Message>>(){});
+		formFields.add("latitude", latitude);
+		formFields.add("longitude", longitude);
+		if(silentMessage != null) formFields.add("disable_notification", silentMessage);
+		if(replyToMessageId != null) formFields.add("reply_to_message_id", replyToMessageId);
+		if(replyMarkup != null) formFields.add("reply_markup", replyMarkup);
 		
-		if(!telegramResult.isOk()) throw new NegativeResponseException(response.getHttpStatusCode(), telegramResult);
+		TelegramResult<Message> telegramResult = sendRequest("sendLocation", formFields, new TypeReference<TelegramResult<Message>>(){});
 		
 		return telegramResult.getResult();
 	}
@@ -660,32 +1048,29 @@ public class JTelegramBot implements TelegramBotApi
 	public void sendChatAction(ChatIdentifier targetChatIdentifier, ChatAction action) throws IOException,
 			NegativeResponseException
 	{
-		List<NameValueParameter<String, String>> formFields = new ArrayList<NameValueParameter<String, String>>();
+		RequestParameters formFields = RequestParameters.forCurrentThread();
 		
 		String username = targetChatIdentifier.getUsername();
 		Long id = targetChatIdentifier.getId();
-		if(username != null) formFields.add(new NameValueParameter<String, String>("chat_id", username));
-		else formFields.add(new NameValueParameter<String, String>("chat_id", String.valueOf(id)));
+		if(username != null) formFields.add("chat_id", username);
+		else formFields.add("chat_id", id);
 		
-		formFields.add(new NameValueParameter<String, String>("action", String.valueOf(action)));
+		formFields.add("action", action);
 		
-		HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/sendChatAction", formFields);
+		sendRequest("sendChatAction", formFields, new TypeReference<TelegramResult<Boolean>>(){});
 	}
 	
 	@Override
 	public UserProfilePhotos getUserProfilePhotos(int userId, Integer offset, Integer limit) throws IOException,
 			NegativeResponseException
 	{
-		List<NameValueParameter<String, String>> formFields = new ArrayList<NameValueParameter<String, String>>();
-		
-		formFields.add(new NameValueParameter<String, String>("user_id", String.valueOf(userId)));
-		if(offset != null) formFields.add(new NameValueParameter<String, String>("offset", String.valueOf(offset)));
-		if(limit != null) formFields.add(new NameValueParameter<String, String>("limit", String.valueOf(limit)));
+		RequestParameters formFields = RequestParameters.forCurrentThread();
 		
-		HttpResponse response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/getUserProfilePhotos", formFields);
-		TelegramResult<UserProfilePhotos> telegramResult = JsonUtils.toJavaObject(response.getResponseBody(), new TypeReference<TelegramResult<UserProfilePhotos>>(){});
+		formFields.add("user_id", userId);
+		if(offset != null) formFields.add("offset", offset);
+		if(limit != null) formFields.add("limit", limit);
 		
-		if(!telegramResult.isOk()) throw new NegativeResponseException(response.getHttpStatusCode(), telegramResult);
+		TelegramResult<UserProfilePhotos> telegramResult = sendRequest("getUserProfilePhotos", formFields, new TypeReference<TelegramResult<UserProfilePhotos>>(){});
 		
 		return telegramResult.getResult();
 	}
@@ -693,14 +1078,11 @@ public class JTelegramBot implements TelegramBotApi
 	@Override
 	public TelegramFile getFile(String fileId) throws IOException, NegativeResponseException
 	{
-		List<NameValueParameter<String, String>> formFields = new ArrayList<NameValueParameter<String, String>>();
+		RequestParameters formFields = RequestParameters.forCurrentThread();
 		
-		formFields.add(new NameValueParameter<String, String>("file_id", fileId));
+		formFields.add("file_id", fileId);
 		
-		HttpResponse response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/getFile", formFields);
-		TelegramResult<TelegramFile> telegramResult = JsonUtils.toJavaObject(response.getResponseBody(), new TypeReference<TelegramResult<TelegramFile>>(){});
-		
-		if(!telegramResult.isOk()) throw new NegativeResponseException(response.getHttpStatusCode(), telegramResult);
+		TelegramResult<TelegramFile> telegramResult = sendRequest("getFile", formFields, new TypeReference<TelegramResult<TelegramFile>>(){});
 		
 		return telegramResult.getResult();
 	}
@@ -709,19 +1091,16 @@ public class JTelegramBot implements TelegramBotApi
 	public boolean kickChatMember(ChatIdentifier targetChatIdentifier, int userId)
 			throws IOException, NegativeResponseException
 	{
-		List<NameValueParameter<String, String>> formFields = new ArrayList<NameValueParameter<String, String>>();
+		RequestParameters formFields = RequestParameters.forCurrentThread();
 		
 		String username = targetChatIdentifier.getUsername();
 		Long id = targetChatIdentifier.getId();
-		if(username != null) formFields.add(new NameValueParameter<String, String>("chat_id", username));
-		else formFields.add(new NameValueParameter<String, String>("chat_id", String.valueOf(id)));
-		
-		formFields.add(new NameValueParameter<String, String>("user_id", String.valueOf(userId)));
+		if(username != null) formFields.add("chat_id", username);
+		else formFields.add("chat_id", id);
 		
-		HttpResponse response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/kickChatMember", formFields);
-		TelegramResult<Boolean> telegramResult = JsonUtils.toJavaObject(response.getResponseBody(), new TypeReference<TelegramResult<Boolean>>(){});
+		formFields.add("user_id", userId);
 		
-		if(!telegramResult.isOk()) throw new NegativeResponseException(response.getHttpStatusCode(), telegramResult);
+		TelegramResult<Boolean> telegramResult = sendRequest("kickChatMember", formFields, new TypeReference<TelegramResult<Boolean>>(){});
 		
 		return telegramResult.getResult();
 	}
@@ -729,17 +1108,14 @@ public class JTelegramBot implements TelegramBotApi
 	@Override
 	public boolean leaveChat(ChatIdentifier targetChatIdentifier) throws IOException, NegativeResponseException
 	{
-		List<NameValueParameter<String, String>> formFields = new ArrayList<NameValueParameter<String, String>>();
+		RequestParameters formFields = RequestParameters.forCurrentThread();
 		
 		String username = targetChatIdentifier.getUsername();
 		Long id = targetChatIdentifier.getId();
-		if(username != null) formFields.add(new NameValueParameter<String, String>("chat_id", username));
-		else formFields.add(new NameValueParameter<String, String>("chat_id", String.valueOf(id)));
+		if(username != null) formFields.add("chat_id", username);
+		else formFields.add("chat_id", id);
 		
-		HttpResponse response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/leaveChat", formFields);
-		TelegramResult<Boolean> telegramResult = JsonUtils.toJavaObject(response.getResponseBody(), new TypeReference<TelegramResult<Boolean>>(){});
-		
-		if(!telegramResult.isOk()) throw new NegativeResponseException(response.getHttpStatusCode(), telegramResult);
+		TelegramResult<Boolean> telegramResult = sendRequest("leaveChat", formFields, new TypeReference<TelegramResult<Boolean>>(){});
 		
 		return telegramResult.getResult();
 	}
@@ -748,19 +1124,16 @@ public class JTelegramBot implements TelegramBotApi
 	public boolean unbanChatMember(ChatIdentifier targetChatIdentifier, int userId)
 			throws IOException, NegativeResponseException
 	{
-		List<NameValueParameter<String, String>> formFields = new ArrayList<NameValueParameter<String, String>>();
+		RequestParameters formFields = RequestParameters.forCurrentThread();
 		
 		String username = targetChatIdentifier.getUsername();
 		Long id = targetChatIdentifier.getId();
-		if(username != null) formFields.add(new NameValueParameter<String, String>("chat_id", username));
-		else formFields.add(new NameValueParameter<String, String>("chat_id", String.valueOf(id)));
-		
-		formFields.add(new NameValueParameter<String, String>("user_id", String.valueOf(userId)));
+		if(username != null) formFields.add("chat_id", username);
+		else formFields.add("chat_id", id);
 		
-		HttpResponse response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/unbanChatMember", formFields);
-		TelegramResult<Boolean> telegramResult = JsonUtils.toJavaObject(response.getResponseBody(), new TypeReference<TelegramResult<Boolean>>(){});
+		formFields.add("user_id", userId);
 		
-		if(!telegramResult.isOk()) throw new NegativeResponseException(response.getHttpStatusCode(), telegramResult);
+		TelegramResult<Boolean> telegramResult = sendRequest("unbanChatMember", formFields, new TypeReference<TelegramResult<Boolean>>(){});
 		
 		return telegramResult.getResult();
 	}
@@ -768,17 +1141,14 @@ public class JTelegramBot implements TelegramBotApi
 	@Override
 	public Chat getChat(ChatIdentifier targetChatIdentifier) throws IOException, NegativeResponseException
 	{
-		List<NameValueParameter<String, String>> formFields = new ArrayList<NameValueParameter<String, String>>();
+		RequestParameters formFields = RequestParameters.forCurrentThread();
 		
 		String username = targetChatIdentifier.getUsername();
 		Long id = targetChatIdentifier.getId();
-		if(username != null) formFields.add(new NameValueParameter<String, String>("chat_id", username));
-		else formFields.add(new NameValueParameter<String, String>("chat_id", String.valueOf(id)));
+		if(username != null) formFields.add("chat_id", username);
+		else formFields.add("chat_id", id);
 		
-		HttpResponse response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/getChat", formFields);
-		TelegramResult<Chat> telegramResult = JsonUtils.toJavaObject(response.getResponseBody(), new TypeReference<TelegramResult<Chat>>(){});
-		
-		if(!telegramResult.isOk()) throw new NegativeResponseException(response.getHttpStatusCode(), telegramResult);
+		TelegramResult<Chat> telegramResult = sendRequest("getChat", formFields, new TypeReference<TelegramResult<Chat>>(){});
 		
 		return telegramResult.getResult();
 	}
@@ -786,17 +1156,14 @@ public class JTelegramBot implements TelegramBotApi
 	@Override
 	public ChatMember[] getChatAdministrators(ChatIdentifier targetChatIdentifier) throws IOException, NegativeResponseException
 	{
-		List<NameValueParameter<String, String>> formFields = new ArrayList<NameValueParameter<String, String>>();
+		RequestParameters formFields = RequestParameters.forCurrentThread();
 		
 		String username = targetChatIdentifier.getUsername();
 		Long id = targetChatIdentifier.getId();
-		if(username != null) formFields.add(new NameValueParameter<String, String>("chat_id", username));
-		else formFields.add(new NameValueParameter<String, String>("chat_id", String.valueOf(id)));
-		
-		HttpResponse response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/getChatAdministrators", formFields);
-		TelegramResult<ChatMember[]> telegramResult = JsonUtils.toJavaObject(response.getResponseBody(), new TypeReference<TelegramResult<ChatMember[]>>(){});
+		if(username != null) formFields.add("chat_id", username);
+		else formFields.add("chat_id", id);
 		
-		if(!telegramResult.isOk()) throw new NegativeResponseException(response.getHttpStatusCode(), telegramResult);
+		TelegramResult<ChatMember[]> telegramResult = sendRequest("getChatAdministrators", formFields, new TypeReference<TelegramResult<ChatMember[]>>(){});
 		
 		return telegramResult.getResult();
 	}
@@ -804,17 +1171,14 @@ public class JTelegramBot implements TelegramBotApi
 	@Override
 	public int getChatMembersCount(ChatIdentifier targetChatIdentifier) throws IOException, NegativeResponseException
 	{
-		List<NameValueParameter<String, String>> formFields = new ArrayList<NameValueParameter<String, String>>();
+		RequestParameters formFields = RequestParameters.forCurrentThread();
 		
 		String username = targetChatIdentifier.getUsername();
 		Long id = targetChatIdentifier.getId();
-		if(username != null) formFields.add(new NameValueParameter<String, String>("chat_id", username));
-		else formFields.add(new NameValueParameter<String, String>("chat_id", String.valueOf(id)));
-		
-		HttpResponse response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/getChatMembersCount", formFields);
-		TelegramResult<Integer> telegramResult = JsonUtils.toJavaObject(response.getResponseBody(), new TypeReference<TelegramResult<Integer>>(){});
+		if(username != null) formFields.add("chat_id", username);
+		else formFields.add("chat_id", id);
 		
-		if(!telegramResult.isOk()) throw new NegativeResponseException(response.getHttpStatusCode(), telegramResult);
+		TelegramResult<Integer> telegramResult = sendRequest("getChatMembersCount", formFields, new TypeReference<TelegramResult<Integer>>(){});
 		
 		return telegramResult.getResult();
 	}
@@ -822,19 +1186,16 @@ public class JTelegramBot implements TelegramBotApi
 	@Override
 	public ChatMember getChatMember(ChatIdentifier targetChatIdentifier, int userId) throws IOException, NegativeResponseException
 	{
-		List<NameValueParameter<String, String>> formFields = new ArrayList<NameValueParameter<String, String>>();
+		RequestParameters formFields = RequestParameters.forCurrentThread();
 		
 		String username = targetChatIdentifier.getUsername();
 		Long id = targetChatIdentifier.getId();
-		if(username != null) formFields.add(new NameValueParameter<String, String>("chat_id", username));
-		else formFields.add(new NameValueParameter<String, String>("chat_id", String.valueOf(id)));
+		if(username != null) formFields.add("chat_id", username);
+		else formFields.add("chat_id", id);
 		
-		formFields.add(new NameValueParameter<String, String>("user_id", String.valueOf(userId)));
+		formFields.add("user_id", userId);
 		
-		HttpResponse response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/getChatMember", formFields);
-		TelegramResult<ChatMember> telegramResult = JsonUtils.toJavaObject(response.getResponseBody(), new TypeReference<TelegramResult<ChatMember>>(){});
-		
-		if(!telegramResult.isOk()) throw new NegativeResponseException(response.getHttpStatusCode(), telegramResult);
+		TelegramResult<ChatMember> telegramResult = sendRequest("getChatMember", formFields, new TypeReference<TelegramResult<ChatMember>>(){});
 		
 		return telegramResult.getResult();
 	}
@@ -843,16 +1204,13 @@ public class JTelegramBot implements TelegramBotApi
 	public boolean answerCallbackQuery(String callbackQueryId, String text, Boolean showAlert)
 			throws IOException, NegativeResponseException
 	{
-		List<NameValueParameter<String, String>> formFields = new ArrayList<NameValueParameter<String, String>>();
-		
-		formFields.add(new NameValueParameter<String, String>("callback_query_id", callbackQueryId));
-		if(text != null) formFields.add(new NameValueParameter<String, String>("text", text));
-		if(showAlert != null) formFields.add(new NameValueParameter<String, String>("show_alert", String.valueOf(showAlert)));
+		RequestParameters formFields = RequestParameters.forCurrentThread();
 		
-		HttpResponse response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/answerCallbackQuery", formFields);
-		TelegramResult<Boolean> telegramResult = JsonUtils.toJavaObject(response.getResponseBody(), new TypeReference<TelegramResult<Boolean>>(){});
+		formFields.add("callback_query_id", callbackQueryId);
+		if(text != null) formFields.add("text", text);
+		if(showAlert != null) formFields.add("show_alert", showAlert);
 		
-		if(!telegramResult.isOk()) throw new NegativeResponseException(response.getHttpStatusCode(), telegramResult);
+		TelegramResult<Boolean> telegramResult = sendRequest("answerCallbackQuery", formFields, new TypeReference<TelegramResult<Boolean>>(){});
 		
 		return telegramResult.getResult();
 	}
@@ -863,27 +1221,24 @@ public class JTelegramBot implements TelegramBotApi
 	                               InlineKeyboardMarkup inlineKeyboardMarkup)
 			throws IOException, NegativeResponseException
 	{
-		List<NameValueParameter<String, String>> formFields = new ArrayList<NameValueParameter<String, String>>();
+		RequestParameters formFields = RequestParameters.forCurrentThread();
 		
 		if(targetChatIdentifier != null)
 		{
 			String username = targetChatIdentifier.getUsername();
 			Long id = targetChatIdentifier.getId();
-			if(username != null) formFields.add(new NameValueParameter<String, String>("chat_id", username));
-			else formFields.add(new NameValueParameter<String, String>("chat_id", String.valueOf(id)));
+			if(username != null) formFields.add("chat_id", username);
+			else formFields.add("chat_id", id);
 		}
 		
-		if(messageId != null) formFields.add(new NameValueParameter<String, String>("message_id", String.valueOf(messageId)));
-		if(inlineMessageId != null) formFields.add(new NameValueParameter<String, String>("inline_message_id", inlineMessageId));
-		formFields.add(new NameValueParameter<String, String>("text", String.valueOf(text)));
-		if(parseMode != null) formFields.add(new NameValueParameter<String, String>("parse_mode", String.valueOf(parseMode)));
-		if(disableLinkPreviews != null) formFields.add(new NameValueParameter<String, String>("disable_web_page_preview", String.valueOf(disableLinkPreviews)));
-		if(inlineKeyboardMarkup != null) formFields.add(new NameValueParameter<String, String>("reply_markup", JsonUtils.toJson(inlineKeyboardMarkup)));
+		if(messageId != null) formFields.add("message_id", messageId);
+		if(inlineMessageId != null) formFields.add("inline_message_id", inlineMessageId);
+		formFields.add("text", String.valueOf(text));
+		if(parseMode != null) formFields.add("parse_mode", parseMode);
+		if(disableLinkPreviews != null) formFields.add("disable_web_page_preview", disableLinkPreviews);
+		if(inlineKeyboardMarkup != null) formFields.add("reply_markup", inlineKeyboardMarkup);
 		
-		HttpResponse response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/editMessageText", formFields);
-		TelegramResult<String> telegramResult = JsonUtils.toJavaObject(response.getResponseBody(), new TypeReference<TelegramResult<String>>(){});
-		
-		if(!telegramResult.isOk()) throw new NegativeResponseException(response.getHttpStatusCode(), telegramResult);
+		TelegramResult<String> telegramResult = sendRequest("editMessageText", formFields, new TypeReference<TelegramResult<String>>(){});
 		
 		return new BooleanOrMessageResult(telegramResult.getResult());
 	}
@@ -893,25 +1248,22 @@ public class JTelegramBot implements TelegramBotApi
 	                                  String caption, InlineKeyboardMarkup inlineKeyboardMarkup)
 			throws IOException, NegativeResponseException
 	{
-		List<NameValueParameter<String, String>> formFields = new ArrayList<NameValueParameter<String, String>>();
+		RequestParameters formFields = RequestParameters.forCurrentThread();
 		
 		if(targetChatIdentifier != null)
 		{
 			String username = targetChatIdentifier.getUsername();
 			Long id = targetChatIdentifier.getId();
-			if(username != null) formFields.add(new NameValueParameter<String, String>("chat_id", username));
-			else formFields.add(new NameValueParameter<String, String>("chat_id", String.valueOf(id)));
+			if(username != null) formFields.add("chat_id", username);
+			else formFields.add("chat_id", id);
 		}
 		
-		if(messageId != null) formFields.add(new NameValueParameter<String, String>("message_id", String.valueOf(messageId)));
-		if(inlineMessageId != null) formFields.add(new NameValueParameter<String, String>("inline_message_id", inlineMessageId));
-		if(caption != null) formFields.add(new NameValueParameter<String, String>("caption", caption));
-		if(inlineKeyboardMarkup != null) formFields.add(new NameValueParameter<String, String>("reply_markup", JsonUtils.toJson(inlineKeyboardMarkup)));
-		
-		HttpResponse response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/editMessageCaption", formFields);
-		TelegramResult<String> telegramResult = JsonUtils.toJavaObject(response.getResponseBody(), new TypeReference<TelegramResult<String>>(){});
+		if(messageId != null) formFields.add("message_id", messageId);
+		if(inlineMessageId != null) formFields.add("inline_message_id", inlineMessageId);
+		if(caption != null) formFields.add("caption", caption);
+		if(inlineKeyboardMarkup != null) formFields.add("reply_markup", inlineKeyboardMarkup);
 		
-		if(!telegramResult.isOk()) throw new NegativeResponseException(response.getHttpStatusCode(), telegramResult);
+		TelegramResult<String> telegramResult = sendRequest("editMessageCaption", formFields, new TypeReference<TelegramResult<String>>(){});
 		
 		return new BooleanOrMessageResult(telegramResult.getResult());
 	}
@@ -921,24 +1273,21 @@ public class JTelegramBot implements TelegramBotApi
 	                                      String inlineMessageId, InlineKeyboardMarkup inlineKeyboardMarkup)
 			throws IOException, NegativeResponseException
 	{
-		List<NameValueParameter<String, String>> formFields = new ArrayList<NameValueParameter<String, String>>();
+		RequestParameters formFields = RequestParameters.forCurrentThread();
 		
 		if(targetChatIdentifier != null)
 		{
 			String username = targetChatIdentifier.getUsername();
 			Long id = targetChatIdentifier.getId();
-			if(username != null) formFields.add(new NameValueParameter<String, String>("chat_id", username));
-			else formFields.add(new NameValueParameter<String, String>("chat_id", String.valueOf(id)));
+			if(username != null) formFields.add("chat_id", username);
+			else formFields.add("chat_id", id);
 		}
 		
-		if(messageId != null) formFields.add(new NameValueParameter<String, String>("message_id", String.valueOf(messageId)));
-		if(inlineMessageId != null) formFields.add(new NameValueParameter<String, String>("inline_message_id", inlineMessageId));
-		if(inlineKeyboardMarkup != null) formFields.add(new NameValueParameter<String, String>("reply_markup", JsonUtils.toJson(inlineKeyboardMarkup)));
+		if(messageId != null) formFields.add("message_id", messageId);
+		if(inlineMessageId != null) formFields.add("inline_message_id", inlineMessageId);
+		if(inlineKeyboardMarkup != null) formFields.add("reply_markup", inlineKeyboardMarkup);
 		
-		HttpResponse response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/editMessageReplyMarkup", formFields);
-		TelegramResult<String> telegramResult = JsonUtils.toJavaObject(response.getResponseBody(), new TypeReference<TelegramResult<String>>(){});
-		
-		if(!telegramResult.isOk()) throw new NegativeResponseException(response.getHttpStatusCode(), telegramResult);
+		TelegramResult<String> telegramResult = sendRequest("editMessageReplyMarkup", formFields, new TypeReference<TelegramResult<String>>(){});
 		
 		return new BooleanOrMessageResult(telegramResult.getResult());
 	}
@@ -948,22 +1297,17 @@ public class JTelegramBot implements TelegramBotApi
 	                                 Boolean isPersonal, String nextOffset, String switchPmText,
 	                                 String switchPmParameter) throws IOException, NegativeResponseException
 	{
-		List<NameValueParameter<String, String>> formFields = new ArrayList<NameValueParameter<String, String>>();
-		
-		formFields.add(new NameValueParameter<String, String>("inline_query_id", String.valueOf(inlineQueryId)));
-		formFields.add(new NameValueParameter<String, String>("results", JsonUtils.toJson(results)));
-		if(cacheTime != null) formFields.add(new NameValueParameter<String, String>("cache_time", String.valueOf(cacheTime)));
-		if(isPersonal != null) formFields.add(new NameValueParameter<String, String>("is_personal", String.valueOf(isPersonal)));
-		if(nextOffset != null) formFields.add(new NameValueParameter<String, String>("next_offset", nextOffset));
-		if(switchPmText != null) formFields.add(new NameValueParameter<String, String>("switch_pm_text", switchPmText));
-		if(switchPmParameter != null) formFields.add(new NameValueParameter<String, String>("switch_pm_parameter", switchPmParameter));
-		
-		System.out.println(formFields);
+		RequestParameters formFields = RequestParameters.forCurrentThread();
 		
-		HttpResponse response = HttpClient.sendHttpPost(API_URL_PREFIX + apiToken + "/answerInlineQuery", formFields);
-		TelegramResult<Boolean> telegramResult = JsonUtils.toJavaObject(response.getResponseBody(), new TypeReference<TelegramResult<Boolean>>(){});
+		formFields.add("inline_query_id", String.valueOf(inlineQueryId));
+		formFields.add("results", results);
+		if(cacheTime != null) formFields.add("cache_time", cacheTime);
+		if(isPersonal != null) formFields.add("is_personal", isPersonal);
+		if(nextOffset != null) formFields.add("next_offset", nextOffset);
+		if(switchPmText != null) formFields.add("switch_pm_text", switchPmText);
+		if(switchPmParameter != null) formFields.add("switch_pm_parameter", switchPmParameter);
 		
-		if(!telegramResult.isOk()) throw new NegativeResponseException(response.getHttpStatusCode(), telegramResult);
+		TelegramResult<Boolean> telegramResult = sendRequest("answerInlineQuery", formFields, new TypeReference<TelegramResult<Boolean>>(){});
 		
 		return telegramResult.getResult();
 	}
@@ -0,0 +1,117 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Fouad Almalki
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.fouad.jtb.core;
+
+/**
+ * A snapshot of the polling loop of a bot, which shows how the getUpdates requests are tuned. The rates and
+ * the batch size are exponentially weighted moving averages, so they follow the recent traffic.
+ */
+public class PollingMetrics
+{
+	private final long polls;
+	private final long catchUpPolls;
+	private final long receivedUpdates;
+	private final double arrivalRate;
+	private final double averageBatchSize;
+	private final int pendingUpdates;
+	private final int nextLimit;
+	private final int nextTimeoutInSeconds;
+	private final boolean catchingUp;
+	
+	PollingMetrics(long polls, long catchUpPolls, long receivedUpdates, double arrivalRate, double averageBatchSize,
+	               int pendingUpdates, int nextLimit, int nextTimeoutInSeconds, boolean catchingUp)
+	{
+		this.polls = polls;
+		this.catchUpPolls = catchUpPolls;
+		this.receivedUpdates = receivedUpdates;
+		this.arrivalRate = arrivalRate;
+		this.averageBatchSize = averageBatchSize;
+		this.pendingUpdates = pendingUpdates;
+		this.nextLimit = nextLimit;
+		this.nextTimeoutInSeconds = nextTimeoutInSeconds;
+		this.catchingUp = catchingUp;
+	}
+	
+	/**
+	 * @return the number of the completed getUpdates requests
+	 */
+	public long getPolls(){return polls;}
+	
+	/**
+	 * @return the number of the getUpdates requests which were sent to catch up with a backlog
+	 */
+	public long getCatchUpPolls(){return catchUpPolls;}
+	
+	/**
+	 * @return the number of the received updates
+	 */
+	public long getReceivedUpdates(){return receivedUpdates;}
+	
+	/**
+	 * @return the rate of the received updates, per second
+	 */
+	public double getArrivalRate(){return arrivalRate;}
+	
+	/**
+	 * @return the number of updates which a getUpdates request returns on average
+	 */
+	public double getAverageBatchSize(){return averageBatchSize;}
+	
+	/**
+	 * @return the number of updates which were received but not handled yet, as of the last getUpdates request
+	 */
+	public int getPendingUpdates(){return pendingUpdates;}
+	
+	/**
+	 * @return the limit of the next getUpdates request, before it is capped by the free capacity of the update buffer
+	 */
+	public int getNextLimit(){return nextLimit;}
+	
+	/**
+	 * @return the timeout of the next getUpdates request
+	 */
+	public int getNextTimeoutInSeconds(){return nextTimeoutInSeconds;}
+	
+	/**
+	 * @return true if the last getUpdates request returned a full batch, so that more updates are likely waiting
+	 */
+	public boolean isCatchingUp(){return catchingUp;}
+	
+	@Override
+	public String toString()
+	{
+		return "PollingMetrics{" +
+				"polls=" + polls +
+				", catchUpPolls=" + catchUpPolls +
+				", receivedUpdates=" + receivedUpdates +
+				", arrivalRate=" + arrivalRate +
+				", averageBatchSize=" + averageBatchSize +
+				", pendingUpdates=" + pendingUpdates +
+				", nextLimit=" + nextLimit +
+				", nextTimeoutInSeconds=" + nextTimeoutInSeconds +
+				", catchingUp=" + catchingUp +
+				'}';
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Fouad Almalki
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.fouad.jtb.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An executor made of serial lanes, each of which runs its tasks one by one in the order they were submitted.
+ * A task is assigned to a lane by the hash of its key, so the tasks of the same key never run concurrently or
+ * out of order, while the tasks of different keys run in parallel on the other lanes. The lanes do not share
+ * any lock. The tasks which are submitted without a key are spread over the lanes in turn.
+ */
+class StripedExecutor extends AbstractExecutorService
+{
+	private final ExecutorService[] lanes;
+	private final AtomicInteger nextLane = new AtomicInteger();
+	
+	StripedExecutor(int laneCount)
+	{
+		if(laneCount <= 0) throw new IllegalArgumentException("\"laneCount\" must be positive.");
+		
+		lanes = new ExecutorService[laneCount];
+		for(int i = 0; i < laneCount; i++) lanes[i] = Executors.newSingleThreadExecutor();
+	}
+	
+	/**
+	 * Runs the task after all the tasks which were submitted before it with the same key.
+	 */
+	void execute(long key, Runnable task)
+	{
+		int hash = (int) (key ^ (key >>> 32));
+		hash ^= hash >>> 16;
+		lanes[(hash & Integer.MAX_VALUE) % lanes.length].execute(task);
+	}
+	
+	@Override
+	public void execute(Runnable task)
+	{
+		lanes[(nextLane.getAndIncrement() & Integer.MAX_VALUE) % lanes.length].execute(task);
+	}
+	
+	@Override
+	public void shutdown()
+	{
+		for(ExecutorService lane : lanes) lane.shutdown();
+	}
+	
+	@Override
+	public List<Runnable> shutdownNow()
+	{
+		List<Runnable> tasks = new ArrayList<Runnable>();
+		for(ExecutorService lane : lanes) tasks.addAll(lane.shutdownNow());
+		return tasks;
+	}
+	
+	@Override
+	public boolean isShutdown()
+	{
+		for(ExecutorService lane : lanes) if(!lane.isShutdown()) return false;
+		return true;
+	}
+	
+	@Override
+	public boolean isTerminated()
+	{
+		for(ExecutorService lane : lanes) if(!lane.isTerminated()) return false;
+		return true;
+	}
+	
+	@Override
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException
+	{
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		
+		for(ExecutorService lane : lanes)
+		{
+			if(!lane.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) return false;
+		}
+		
+		return true;
+	}
+}
@@ -39,14 +39,17 @@ import io.fouad.jtb.core.beans.UserProfilePhotos;
 import io.fouad.jtb.core.enums.ChatAction;
 import io.fouad.jtb.core.enums.ParseMode;
 import io.fouad.jtb.core.exceptions.NegativeResponseException;
+import io.fouad.jtb.core.utils.HttpClient.RequestTimeouts;
 
 import java.io.IOException;
+import java.io.OutputStream;
 
 /**
  * This interface represents Telegram Bot APIs.
  */
 public interface TelegramBotApi
 {
+	// default base urls, see TelegramBotConfig
 	String API_URL_PREFIX = "https://api.telegram.org/bot";
 	String FILE_API_URL_PREFIX = "https://api.telegram.org/file/bot";
 	
@@ -55,6 +58,38 @@ public interface TelegramBotApi
 	 */
 	String getApiToken();
 	
+	/**
+	 * @return the time limits which are applied on the API requests
+	 */
+	RequestTimeouts getRequestTimeouts();
+	
+	/**
+	 * Creates a view of this object which sends the API requests with other time limits. It is useful
+	 * to override the timeouts of a single call, e.g. to give up on a request sooner than usual.
+	 * 
+	 * @param requestTimeouts the time limits to apply on the API requests
+	 * 
+	 * @return a <code>TelegramBotApi</code> object which uses <code>requestTimeouts</code>
+	 */
+	TelegramBotApi withTimeouts(RequestTimeouts requestTimeouts);
+	
+	/**
+	 * @param file the file object retrieved by <code>getFile()</code>
+	 * 
+	 * @return the url which the file can be downloaded from
+	 */
+	String getFileUrl(TelegramFile file);
+	
+	/**
+	 * Downloads a file and writes it into the output stream. Both streams are closed at the end.
+	 * 
+	 * @param file the file object retrieved by <code>getFile()</code>
+	 * @param saveToOutputStream the output stream that the file will be written into
+	 * 
+	 * @throws IOException if an I/O exception occurs
+	 */
+	void downloadFile(TelegramFile file, OutputStream saveToOutputStream) throws IOException;
+	
 	/**
 	 * A simple method for testing the bot's authentication token.
 	 * 
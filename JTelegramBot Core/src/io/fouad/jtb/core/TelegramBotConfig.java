@@ -24,6 +24,14 @@
 
 package io.fouad.jtb.core;
 
+import io.fouad.jtb.core.enums.DispatchMode;
+import io.fouad.jtb.core.enums.RequestEncoding;
+import io.fouad.jtb.core.utils.DefaultHttpTransport;
+import io.fouad.jtb.core.utils.FieldProjection;
+import io.fouad.jtb.core.utils.HttpClient.RequestTimeouts;
+import io.fouad.jtb.core.utils.HttpTransport;
+import io.fouad.jtb.core.utils.StringPool;
+
 /**
  * Several configurations that are applied on <code>JTelegramBot</code> instances.
  */
@@ -32,9 +40,43 @@ public class TelegramBotConfig
 	// default values
 	public static final int WORKER_THREADS = 5;
 	public static final int POLLING_TIMEOUT_IN_SECONDS = 120;
+	public static final String API_URL_PREFIX = TelegramBotApi.API_URL_PREFIX;
+	public static final String FILE_API_URL_PREFIX = TelegramBotApi.FILE_API_URL_PREFIX;
+	public static final RequestEncoding REQUEST_ENCODING = RequestEncoding.FORM;
+	public static final int CONNECT_TIMEOUT_IN_MILLIS = 10000;
+	public static final int READ_TIMEOUT_IN_MILLIS = 60000;
+	public static final long REQUEST_DEADLINE_IN_MILLIS = 0; // no deadline
+	public static final boolean LAZY_UPDATE_DECODING = false;
+	public static final int UPDATE_FETCH_SIZE = 100; // the maximum limit of getUpdates
+	public static final int UPDATE_BUFFER_CAPACITY = 1000;
+	public static final int UPDATE_BUFFER_HIGH_WATERMARK = 1000;
+	public static final int UPDATE_BUFFER_LOW_WATERMARK = 500;
+	public static final DispatchMode DISPATCH_MODE = DispatchMode.UNORDERED;
+	public static final int MAX_CONCURRENT_UPDATES = 10000;
+	public static final boolean ADAPTIVE_POLLING = false;
+	
+	// how long getUpdates may take beyond the long polling timeout before it is considered stuck
+	public static final int POLLING_READ_TIMEOUT_MARGIN_IN_MILLIS = 15000;
 	
 	private int workerThreads = WORKER_THREADS;
 	private int pollingTimeoutInSeconds = POLLING_TIMEOUT_IN_SECONDS;
+	private String apiUrlPrefix = API_URL_PREFIX;
+	private String fileApiUrlPrefix = FILE_API_URL_PREFIX;
+	private HttpTransport httpTransport = new DefaultHttpTransport();
+	private RequestEncoding requestEncoding = REQUEST_ENCODING;
+	private int connectTimeoutInMillis = CONNECT_TIMEOUT_IN_MILLIS;
+	private int readTimeoutInMillis = READ_TIMEOUT_IN_MILLIS;
+	private long requestDeadlineInMillis = REQUEST_DEADLINE_IN_MILLIS;
+	private boolean lazyUpdateDecoding = LAZY_UPDATE_DECODING;
+	private StringPool stringPool; // no deduplication by default
+	private FieldProjection fieldProjection; // all fields by default
+	private int updateFetchSize = UPDATE_FETCH_SIZE;
+	private int updateBufferCapacity = UPDATE_BUFFER_CAPACITY;
+	private int updateBufferHighWatermark = UPDATE_BUFFER_HIGH_WATERMARK;
+	private int updateBufferLowWatermark = UPDATE_BUFFER_LOW_WATERMARK;
+	private DispatchMode dispatchMode = DISPATCH_MODE;
+	private int maxConcurrentUpdates = MAX_CONCURRENT_UPDATES;
+	private boolean adaptivePolling = ADAPTIVE_POLLING;
 	
 	public TelegramBotConfig(int workerThreads, int pollingTimeoutInSeconds)
 	{
@@ -42,12 +84,173 @@ public class TelegramBotConfig
 		this.pollingTimeoutInSeconds = pollingTimeoutInSeconds;
 	}
 	
+	public TelegramBotConfig(int workerThreads, int pollingTimeoutInSeconds, String apiUrlPrefix,
+	                         String fileApiUrlPrefix, HttpTransport httpTransport, RequestEncoding requestEncoding,
+	                         int connectTimeoutInMillis, int readTimeoutInMillis, long requestDeadlineInMillis,
+	                         boolean lazyUpdateDecoding, StringPool stringPool, FieldProjection fieldProjection,
+	                         int updateFetchSize, int updateBufferCapacity, int updateBufferHighWatermark,
+	                         int updateBufferLowWatermark, DispatchMode dispatchMode,
+	                         int maxConcurrentUpdates, boolean adaptivePolling)
+	{
+		if(apiUrlPrefix == null) throw new IllegalArgumentException("\"apiUrlPrefix\" cannot be null.");
+		if(fileApiUrlPrefix == null) throw new IllegalArgumentException("\"fileApiUrlPrefix\" cannot be null.");
+		if(httpTransport == null) throw new IllegalArgumentException("\"httpTransport\" cannot be null.");
+		if(requestEncoding == null) throw new IllegalArgumentException("\"requestEncoding\" cannot be null.");
+		if(connectTimeoutInMillis < 0) throw new IllegalArgumentException("\"connectTimeoutInMillis\" cannot be negative.");
+		if(readTimeoutInMillis < 0) throw new IllegalArgumentException("\"readTimeoutInMillis\" cannot be negative.");
+		if(requestDeadlineInMillis < 0) throw new IllegalArgumentException("\"requestDeadlineInMillis\" cannot be negative.");
+		checkDispatchMode(dispatchMode);
+		checkMaxConcurrentUpdates(maxConcurrentUpdates);
+		checkUpdateFetching(updateFetchSize, updateBufferCapacity, updateBufferHighWatermark, updateBufferLowWatermark);
+		
+		this.workerThreads = workerThreads;
+		this.pollingTimeoutInSeconds = pollingTimeoutInSeconds;
+		this.apiUrlPrefix = apiUrlPrefix;
+		this.fileApiUrlPrefix = fileApiUrlPrefix;
+		this.httpTransport = httpTransport;
+		this.requestEncoding = requestEncoding;
+		this.connectTimeoutInMillis = connectTimeoutInMillis;
+		this.readTimeoutInMillis = readTimeoutInMillis;
+		this.requestDeadlineInMillis = requestDeadlineInMillis;
+		this.lazyUpdateDecoding = lazyUpdateDecoding;
+		this.stringPool = stringPool;
+		this.fieldProjection = fieldProjection;
+		this.updateFetchSize = updateFetchSize;
+		this.updateBufferCapacity = updateBufferCapacity;
+		this.updateBufferHighWatermark = updateBufferHighWatermark;
+		this.updateBufferLowWatermark = updateBufferLowWatermark;
+		this.dispatchMode = dispatchMode;
+		this.maxConcurrentUpdates = maxConcurrentUpdates;
+		this.adaptivePolling = adaptivePolling;
+	}
+	
 	public int getWorkerThreads(){return workerThreads;}
 	public void setWorkerThreads(int workerThreads){this.workerThreads = workerThreads;}
 	
 	public int getPollingTimeoutInSeconds(){return pollingTimeoutInSeconds;}
 	public void setPollingTimeoutInSeconds(int pollingTimeoutInSeconds){this.pollingTimeoutInSeconds = pollingTimeoutInSeconds;}
 	
+	public String getApiUrlPrefix(){return apiUrlPrefix;}
+	public void setApiUrlPrefix(String apiUrlPrefix){this.apiUrlPrefix = apiUrlPrefix;}
+	
+	public String getFileApiUrlPrefix(){return fileApiUrlPrefix;}
+	public void setFileApiUrlPrefix(String fileApiUrlPrefix){this.fileApiUrlPrefix = fileApiUrlPrefix;}
+	
+	public HttpTransport getHttpTransport(){return httpTransport;}
+	public void setHttpTransport(HttpTransport httpTransport){this.httpTransport = httpTransport;}
+	
+	public RequestEncoding getRequestEncoding(){return requestEncoding;}
+	public void setRequestEncoding(RequestEncoding requestEncoding){this.requestEncoding = requestEncoding;}
+	
+	public int getConnectTimeoutInMillis(){return connectTimeoutInMillis;}
+	public void setConnectTimeoutInMillis(int connectTimeoutInMillis){this.connectTimeoutInMillis = connectTimeoutInMillis;}
+	
+	public int getReadTimeoutInMillis(){return readTimeoutInMillis;}
+	public void setReadTimeoutInMillis(int readTimeoutInMillis){this.readTimeoutInMillis = readTimeoutInMillis;}
+	
+	public long getRequestDeadlineInMillis(){return requestDeadlineInMillis;}
+	public void setRequestDeadlineInMillis(long requestDeadlineInMillis){this.requestDeadlineInMillis = requestDeadlineInMillis;}
+	
+	public boolean isLazyUpdateDecoding(){return lazyUpdateDecoding;}
+	public void setLazyUpdateDecoding(boolean lazyUpdateDecoding){this.lazyUpdateDecoding = lazyUpdateDecoding;}
+	
+	public StringPool getStringPool(){return stringPool;}
+	public void setStringPool(StringPool stringPool){this.stringPool = stringPool;}
+	
+	public FieldProjection getFieldProjection(){return fieldProjection;}
+	public void setFieldProjection(FieldProjection fieldProjection){this.fieldProjection = fieldProjection;}
+	
+	public int getUpdateFetchSize(){return updateFetchSize;}
+	public void setUpdateFetchSize(int updateFetchSize)
+	{
+		checkUpdateFetchSize(updateFetchSize);
+		this.updateFetchSize = updateFetchSize;
+	}
+	
+	public int getUpdateBufferCapacity(){return updateBufferCapacity;}
+	public void setUpdateBufferCapacity(int updateBufferCapacity)
+	{
+		checkUpdateBufferCapacity(updateBufferCapacity);
+		this.updateBufferCapacity = updateBufferCapacity;
+	}
+	
+	public int getUpdateBufferHighWatermark(){return updateBufferHighWatermark;}
+	public void setUpdateBufferHighWatermark(int updateBufferHighWatermark){this.updateBufferHighWatermark = updateBufferHighWatermark;}
+	
+	public int getUpdateBufferLowWatermark(){return updateBufferLowWatermark;}
+	public void setUpdateBufferLowWatermark(int updateBufferLowWatermark){this.updateBufferLowWatermark = updateBufferLowWatermark;}
+	
+	/**
+	 * Checks the settings of getUpdates and the update buffer together, since the watermarks depend on the capacity
+	 * and on each other, so that they can be set in any order. The bot checks them before it starts polling.
+	 * 
+	 * @throws IllegalArgumentException if the settings are not consistent
+	 */
+	public void checkUpdateFetching()
+	{
+		checkUpdateFetching(updateFetchSize, updateBufferCapacity, updateBufferHighWatermark, updateBufferLowWatermark);
+	}
+	
+	private static void checkUpdateFetching(int updateFetchSize, int updateBufferCapacity, int updateBufferHighWatermark,
+	                                        int updateBufferLowWatermark)
+	{
+		checkUpdateFetchSize(updateFetchSize);
+		checkUpdateBufferCapacity(updateBufferCapacity);
+		if(updateBufferHighWatermark > updateBufferCapacity)
+			throw new IllegalArgumentException("\"updateBufferHighWatermark\" cannot exceed \"updateBufferCapacity\".");
+		if(updateBufferLowWatermark < 0 || updateBufferLowWatermark >= updateBufferHighWatermark)
+			throw new IllegalArgumentException("\"updateBufferLowWatermark\" must be between 0 and \"updateBufferHighWatermark\" (exclusive).");
+	}
+	
+	private static void checkUpdateFetchSize(int updateFetchSize)
+	{
+		if(updateFetchSize < 1 || updateFetchSize > 100) throw new IllegalArgumentException("\"updateFetchSize\" must be between 1 and 100.");
+	}
+	
+	private static void checkUpdateBufferCapacity(int updateBufferCapacity)
+	{
+		if(updateBufferCapacity < 1) throw new IllegalArgumentException("\"updateBufferCapacity\" must be positive.");
+	}
+	
+	public DispatchMode getDispatchMode(){return dispatchMode;}
+	public void setDispatchMode(DispatchMode dispatchMode)
+	{
+		checkDispatchMode(dispatchMode);
+		this.dispatchMode = dispatchMode;
+	}
+	
+	public int getMaxConcurrentUpdates(){return maxConcurrentUpdates;}
+	public void setMaxConcurrentUpdates(int maxConcurrentUpdates)
+	{
+		checkMaxConcurrentUpdates(maxConcurrentUpdates);
+		this.maxConcurrentUpdates = maxConcurrentUpdates;
+	}
+	
+	private static void checkDispatchMode(DispatchMode dispatchMode)
+	{
+		if(dispatchMode == null) throw new IllegalArgumentException("\"dispatchMode\" cannot be null.");
+		if(dispatchMode == DispatchMode.VIRTUAL_THREADS && !VirtualThreadExecutor.isSupported())
+		{
+			throw new IllegalArgumentException("DispatchMode.VIRTUAL_THREADS requires Java 21 or later.");
+		}
+	}
+	
+	private static void checkMaxConcurrentUpdates(int maxConcurrentUpdates)
+	{
+		if(maxConcurrentUpdates < 1) throw new IllegalArgumentException("\"maxConcurrentUpdates\" must be positive.");
+	}
+	
+	public boolean isAdaptivePolling(){return adaptivePolling;}
+	public void setAdaptivePolling(boolean adaptivePolling){this.adaptivePolling = adaptivePolling;}
+	
+	/**
+	 * @return the time limits of the API requests, except getUpdates
+	 */
+	public RequestTimeouts getRequestTimeouts()
+	{
+		return new RequestTimeouts(connectTimeoutInMillis, readTimeoutInMillis, requestDeadlineInMillis);
+	}
+	
 	@Override
 	public boolean equals(Object o)
 	{
@@ -57,7 +260,24 @@ public class TelegramBotConfig
 		TelegramBotConfig that = (TelegramBotConfig) o;
 		
 		if(workerThreads != that.workerThreads) return false;
-		return pollingTimeoutInSeconds == that.pollingTimeoutInSeconds;
+		if(pollingTimeoutInSeconds != that.pollingTimeoutInSeconds) return false;
+		if(!apiUrlPrefix.equals(that.apiUrlPrefix)) return false;
+		if(!fileApiUrlPrefix.equals(that.fileApiUrlPrefix)) return false;
+		if(!httpTransport.equals(that.httpTransport)) return false;
+		if(requestEncoding != that.requestEncoding) return false;
+		if(connectTimeoutInMillis != that.connectTimeoutInMillis) return false;
+		if(readTimeoutInMillis != that.readTimeoutInMillis) return false;
+		if(requestDeadlineInMillis != that.requestDeadlineInMillis) return false;
+		if(lazyUpdateDecoding != that.lazyUpdateDecoding) return false;
+		if(stringPool != null ? !stringPool.equals(that.stringPool) : that.stringPool != null) return false;
+		if(fieldProjection != null ? !fieldProjection.equals(that.fieldProjection) : that.fieldProjection != null) return false;
+		if(updateFetchSize != that.updateFetchSize) return false;
+		if(updateBufferCapacity != that.updateBufferCapacity) return false;
+		if(updateBufferHighWatermark != that.updateBufferHighWatermark) return false;
+		if(updateBufferLowWatermark != that.updateBufferLowWatermark) return false;
+		if(maxConcurrentUpdates != that.maxConcurrentUpdates) return false;
+		if(adaptivePolling != that.adaptivePolling) return false;
+		return dispatchMode == that.dispatchMode;
 		
 	}
 	
@@ -66,6 +286,23 @@ public class TelegramBotConfig
 	{
 		int result = workerThreads;
 		result = 31 * result + pollingTimeoutInSeconds;
+		result = 31 * result + apiUrlPrefix.hashCode();
+		result = 31 * result + fileApiUrlPrefix.hashCode();
+		result = 31 * result + httpTransport.hashCode();
+		result = 31 * result + requestEncoding.hashCode();
+		result = 31 * result + connectTimeoutInMillis;
+		result = 31 * result + readTimeoutInMillis;
+		result = 31 * result + (int) (requestDeadlineInMillis ^ (requestDeadlineInMillis >>> 32));
+		result = 31 * result + (lazyUpdateDecoding ? 1 : 0);
+		result = 31 * result + (stringPool != null ? stringPool.hashCode() : 0);
+		result = 31 * result + (fieldProjection != null ? fieldProjection.hashCode() : 0);
+		result = 31 * result + updateFetchSize;
+		result = 31 * result + updateBufferCapacity;
+		result = 31 * result + updateBufferHighWatermark;
+		result = 31 * result + updateBufferLowWatermark;
+		result = 31 * result + dispatchMode.hashCode();
+		result = 31 * result + maxConcurrentUpdates;
+		result = 31 * result + (adaptivePolling ? 1 : 0);
 		return result;
 	}
 	
@@ -75,6 +312,23 @@ public class TelegramBotConfig
 		return "TelegramBotConfig{" +
 				"workerThreads=" + workerThreads +
 				", pollingTimeoutInSeconds=" + pollingTimeoutInSeconds +
+				", apiUrlPrefix='" + apiUrlPrefix + '\'' +
+				", fileApiUrlPrefix='" + fileApiUrlPrefix + '\'' +
+				", httpTransport=" + httpTransport +
+				", requestEncoding=" + requestEncoding +
+				", connectTimeoutInMillis=" + connectTimeoutInMillis +
+				", readTimeoutInMillis=" + readTimeoutInMillis +
+				", requestDeadlineInMillis=" + requestDeadlineInMillis +
+				", lazyUpdateDecoding=" + lazyUpdateDecoding +
+				", stringPool=" + stringPool +
+				", fieldProjection=" + fieldProjection +
+				", updateFetchSize=" + updateFetchSize +
+				", updateBufferCapacity=" + updateBufferCapacity +
+				", updateBufferHighWatermark=" + updateBufferHighWatermark +
+				", updateBufferLowWatermark=" + updateBufferLowWatermark +
+				", dispatchMode=" + dispatchMode +
+				", maxConcurrentUpdates=" + maxConcurrentUpdates +
+				", adaptivePolling=" + adaptivePolling +
 				'}';
 	}
 	
@@ -82,6 +336,23 @@ public class TelegramBotConfig
 	{
 		private int workerThreads = WORKER_THREADS;
 		private int pollingTimeoutInSeconds = POLLING_TIMEOUT_IN_SECONDS;
+		private String apiUrlPrefix = API_URL_PREFIX;
+		private String fileApiUrlPrefix = FILE_API_URL_PREFIX;
+		private HttpTransport httpTransport;
+		private RequestEncoding requestEncoding = REQUEST_ENCODING;
+		private int connectTimeoutInMillis = CONNECT_TIMEOUT_IN_MILLIS;
+		private int readTimeoutInMillis = READ_TIMEOUT_IN_MILLIS;
+		private long requestDeadlineInMillis = REQUEST_DEADLINE_IN_MILLIS;
+		private boolean lazyUpdateDecoding = LAZY_UPDATE_DECODING;
+		private StringPool stringPool;
+		private FieldProjection fieldProjection;
+		private int updateFetchSize = UPDATE_FETCH_SIZE;
+		private int updateBufferCapacity = UPDATE_BUFFER_CAPACITY;
+		private int updateBufferHighWatermark = -1; // the capacity, unless set
+		private int updateBufferLowWatermark = -1; // half of the capacity, unless set
+		private DispatchMode dispatchMode = DISPATCH_MODE;
+		private int maxConcurrentUpdates = MAX_CONCURRENT_UPDATES;
+		private boolean adaptivePolling = ADAPTIVE_POLLING;
 		
 		public TelegramBotConfigBuilder(){}
 		
@@ -97,9 +368,221 @@ public class TelegramBotConfig
 			return this;
 		}
 		
+		/**
+		 * Sets the base url of the Bot API server, which the bot token and the method name are appended to.
+		 * It is useful to point the bot at a self-hosted Bot API server or at a local stub.
+		 * 
+		 * @param apiUrlPrefix the base url, e.g. "https://api.telegram.org/bot"
+		 */
+		public TelegramBotConfigBuilder apiUrlPrefix(String apiUrlPrefix)
+		{
+			this.apiUrlPrefix = apiUrlPrefix;
+			return this;
+		}
+		
+		/**
+		 * Sets the base url which files are downloaded from, which the bot token and the file path are appended to.
+		 * 
+		 * @param fileApiUrlPrefix the base url, e.g. "https://api.telegram.org/file/bot"
+		 */
+		public TelegramBotConfigBuilder fileApiUrlPrefix(String fileApiUrlPrefix)
+		{
+			this.fileApiUrlPrefix = fileApiUrlPrefix;
+			return this;
+		}
+		
+		/**
+		 * Sets the transport which sends the requests to the Bot API server. Defaults to <code>DefaultHttpTransport</code>.
+		 * 
+		 * @param httpTransport the transport to use
+		 */
+		public TelegramBotConfigBuilder httpTransport(HttpTransport httpTransport)
+		{
+			this.httpTransport = httpTransport;
+			return this;
+		}
+		
+		/**
+		 * Sets how the parameters of the API requests are encoded. Requests which upload files are always
+		 * sent as multipart/form-data. Defaults to <code>RequestEncoding.FORM</code>.
+		 * 
+		 * @param requestEncoding the encoding to use
+		 */
+		public TelegramBotConfigBuilder requestEncoding(RequestEncoding requestEncoding)
+		{
+			this.requestEncoding = requestEncoding;
+			return this;
+		}
+		
+		/**
+		 * Sets the maximum time to establish a connection to the Bot API server. Zero means no limit.
+		 * 
+		 * @param millis the connect timeout in milliseconds
+		 */
+		public TelegramBotConfigBuilder connectTimeoutInMillis(int millis)
+		{
+			this.connectTimeoutInMillis = millis;
+			return this;
+		}
+		
+		/**
+		 * Sets the maximum time to wait for the next bytes of a response. Zero means no limit. It does not apply
+		 * to getUpdates, whose read timeout is the polling timeout plus <code>POLLING_READ_TIMEOUT_MARGIN_IN_MILLIS</code>.
+		 * 
+		 * @param millis the read timeout in milliseconds
+		 */
+		public TelegramBotConfigBuilder readTimeoutInMillis(int millis)
+		{
+			this.readTimeoutInMillis = millis;
+			return this;
+		}
+		
+		/**
+		 * Sets the maximum time of a whole API request, from sending it until its response is completely read,
+		 * after which the request is aborted. Zero means no deadline. For getUpdates, the polling timeout
+		 * is added to it.
+		 * 
+		 * @param millis the deadline in milliseconds
+		 */
+		public TelegramBotConfigBuilder requestDeadlineInMillis(long millis)
+		{
+			this.requestDeadlineInMillis = millis;
+			return this;
+		}
+		
+		/**
+		 * Sets whether the incoming messages are decoded lazily. If enabled, the heavy parts of a message (the replied
+		 * and pinned messages, the entities, the photos and the other media) are kept as raw JSON and decoded when their
+		 * getters are called for the first time, which saves the work for the updates that the handlers drop.
+		 * See <code>LazyMessage</code>. Defaults to false.
+		 * 
+		 * @param lazyUpdateDecoding true to decode the messages lazily
+		 */
+		public TelegramBotConfigBuilder lazyUpdateDecoding(boolean lazyUpdateDecoding)
+		{
+			this.lazyUpdateDecoding = lazyUpdateDecoding;
+			return this;
+		}
+		
+		/**
+		 * Enables the deduplication of the strings that repeat across the incoming updates, i.e. the names of the
+		 * users and the chats, the titles of the chats and the file ids of the photos. The decoded updates share
+		 * the pooled strings instead of holding their own copies, which reduces the retained heap of the bots that
+		 * keep many messages around. The pool can be shared by several bots. Disabled by default.
+		 * 
+		 * @param stringPool the pool of the strings, or <code>null</code> to disable the deduplication
+		 */
+		public TelegramBotConfigBuilder stringPool(StringPool stringPool)
+		{
+			this.stringPool = stringPool;
+			return this;
+		}
+		
+		/**
+		 * Sets the fields of the incoming updates and messages which are decoded. The other fields are skipped
+		 * without being decoded, which saves the work and the memory for the fields that the handlers never look at,
+		 * e.g. <code>FieldProjection.excluding("photo", "new_chat_photo", "entities", "sticker", "reply_to_message")</code>.
+		 * Defaults to all the fields.
+		 * 
+		 * @param fieldProjection the fields to decode, or <code>null</code> to decode all of them
+		 */
+		public TelegramBotConfigBuilder fieldProjection(FieldProjection fieldProjection)
+		{
+			this.fieldProjection = fieldProjection;
+			return this;
+		}
+		
+		/**
+		 * Sets the maximum number of updates which are fetched by one getUpdates request. Defaults to 100,
+		 * which is the maximum that the Bot API allows.
+		 * 
+		 * @param updateFetchSize the limit of getUpdates, between 1 and 100
+		 */
+		public TelegramBotConfigBuilder updateFetchSize(int updateFetchSize)
+		{
+			this.updateFetchSize = updateFetchSize;
+			return this;
+		}
+		
+		/**
+		 * Sets the maximum number of updates which are received but not handled yet. A getUpdates request never
+		 * asks for more updates than the free capacity, so a spike of updates waits on the Telegram server
+		 * instead of piling up in the heap. Defaults to 1000.
+		 * 
+		 * @param updateBufferCapacity the capacity of the buffer of the pending updates
+		 */
+		public TelegramBotConfigBuilder updateBufferCapacity(int updateBufferCapacity)
+		{
+			this.updateBufferCapacity = updateBufferCapacity;
+			return this;
+		}
+		
+		/**
+		 * Sets the watermarks of the buffer of the pending updates. Once the number of pending updates reaches
+		 * the high watermark, the bot stops fetching updates until the worker threads bring it down to the low
+		 * watermark. Default to the capacity and half of it.
+		 * 
+		 * @param highWatermark the number of pending updates which pauses the polling, up to the capacity
+		 * @param lowWatermark the number of pending updates which resumes the polling, below the high watermark
+		 */
+		public TelegramBotConfigBuilder updateBufferWatermarks(int highWatermark, int lowWatermark)
+		{
+			this.updateBufferHighWatermark = highWatermark;
+			this.updateBufferLowWatermark = lowWatermark;
+			return this;
+		}
+		
+		/**
+		 * Sets how the incoming updates are handed to the worker threads. With <code>DispatchMode.PER_CHAT_ORDERED</code>,
+		 * the updates of the same chat are handled one by one in order, so that the handlers need no locking per chat.
+		 * Defaults to <code>DispatchMode.UNORDERED</code>.
+		 * 
+		 * @param dispatchMode the dispatch mode to use
+		 */
+		public TelegramBotConfigBuilder dispatchMode(DispatchMode dispatchMode)
+		{
+			this.dispatchMode = dispatchMode;
+			return this;
+		}
+		
+		/**
+		 * Sets the maximum number of updates which are handled at the same time in <code>DispatchMode.VIRTUAL_THREADS</code>.
+		 * The other modes are limited by the number of worker threads instead. Note that no more updates than the
+		 * capacity of the update buffer are pending at any time, so the buffer must be as large to reach this limit.
+		 * Defaults to 10000.
+		 * 
+		 * @param maxConcurrentUpdates the maximum number of updates which are handled concurrently
+		 */
+		public TelegramBotConfigBuilder maxConcurrentUpdates(int maxConcurrentUpdates)
+		{
+			this.maxConcurrentUpdates = maxConcurrentUpdates;
+			return this;
+		}
+		
+		/**
+		 * Sets whether the limit and the timeout of getUpdates are tuned from the observed traffic. If enabled, the bot
+		 * fetches the largest batches without waiting while it catches up with a backlog, and small batches with long
+		 * polling while the traffic is low. The update fetch size is the largest limit then. The tuning decisions
+		 * are exposed by <code>JTelegramBot.getPollingMetrics()</code>. Defaults to false.
+		 * 
+		 * @param adaptivePolling true to tune getUpdates from the traffic
+		 */
+		public TelegramBotConfigBuilder adaptivePolling(boolean adaptivePolling)
+		{
+			this.adaptivePolling = adaptivePolling;
+			return this;
+		}
+		
 		public TelegramBotConfig build()
 		{
-			return new TelegramBotConfig(workerThreads, pollingTimeoutInSeconds);
+			return new TelegramBotConfig(workerThreads, pollingTimeoutInSeconds, apiUrlPrefix, fileApiUrlPrefix,
+			                             httpTransport != null ? httpTransport : new DefaultHttpTransport(),
+			                             requestEncoding, connectTimeoutInMillis, readTimeoutInMillis, requestDeadlineInMillis,
+			                             lazyUpdateDecoding, stringPool, fieldProjection, updateFetchSize,
+			                             updateBufferCapacity,
+			                             updateBufferHighWatermark >= 0 ? updateBufferHighWatermark : updateBufferCapacity,
+			                             updateBufferLowWatermark >= 0 ? updateBufferLowWatermark : updateBufferCapacity / 2,
+			                             dispatchMode, maxConcurrentUpdates, adaptivePolling);
 		}
 	}
-}
\ No newline at end of file
+}
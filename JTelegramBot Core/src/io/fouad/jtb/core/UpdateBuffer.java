@@ -0,0 +1,178 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Fouad Almalki
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.fouad.jtb.core;
+
+import io.fouad.jtb.core.beans.Update;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the updates which were received by the poller but are not handled yet, and applies the backpressure on
+ * the poller: once the count reaches the high watermark, the poller stops fetching until the workers bring it down
+ * to the low watermark. In addition, every getUpdates request asks for no more updates than the free capacity,
+ * so the count never exceeds the capacity (as long as the server respects the limit of getUpdates). When the bot
+ * stops, the updates which are left are handed to the caller of <code>JTelegramBot.stop(long, TimeUnit)</code>.
+ * <p>
+ * It uses a <code>ReentrantLock</code> rather than a monitor, so that the virtual threads which call it do not
+ * pin their carrier threads.
+ */
+class UpdateBuffer
+{
+	private final int capacity;
+	private final int highWatermark;
+	private final int lowWatermark;
+	
+	// an identity map does not allocate an entry per update
+	private final Map<Update, Boolean> pendingUpdates = new IdentityHashMap<Update, Boolean>();
+	private boolean paused = false;
+	
+	private final Lock lock = new ReentrantLock();
+	private final Condition resumed = lock.newCondition();
+	
+	UpdateBuffer(int capacity, int highWatermark, int lowWatermark)
+	{
+		this.capacity = capacity;
+		this.highWatermark = highWatermark;
+		this.lowWatermark = lowWatermark;
+	}
+	
+	/**
+	 * Waits until the poller may fetch more updates.
+	 * 
+	 * @return the number of updates which can be fetched, or 0 if the time is up before that
+	 * 
+	 * @throws InterruptedException if the thread is interrupted while waiting
+	 */
+	int awaitFreeCapacity(long timeout, TimeUnit unit) throws InterruptedException
+	{
+		long remainingNanos = unit.toNanos(timeout);
+		
+		lock.lockInterruptibly();
+		try
+		{
+			while(paused)
+			{
+				if(remainingNanos <= 0) return 0;
+				remainingNanos = resumed.awaitNanos(remainingNanos);
+			}
+			
+			return capacity - pendingUpdates.size();
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * Called by the poller for every received update.
+	 */
+	void add(Update update)
+	{
+		lock.lock();
+		try
+		{
+			pendingUpdates.put(update, Boolean.TRUE);
+			if(pendingUpdates.size() >= highWatermark) paused = true;
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * Called by a worker once an update is handled.
+	 */
+	void remove(Update update)
+	{
+		lock.lock();
+		try
+		{
+			pendingUpdates.remove(update);
+			
+			if(paused && pendingUpdates.size() <= lowWatermark)
+			{
+				paused = false;
+				resumed.signalAll();
+			}
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+	
+	int getPendingUpdates()
+	{
+		lock.lock();
+		try
+		{
+			return pendingUpdates.size();
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * @return the updates which are not handled yet, ordered by their ids
+	 */
+	List<Update> getUnhandledUpdates()
+	{
+		List<Update> updates;
+		
+		lock.lock();
+		try
+		{
+			updates = new ArrayList<Update>(pendingUpdates.keySet());
+		}
+		finally
+		{
+			lock.unlock();
+		}
+		
+		Collections.sort(updates, new Comparator<Update>()
+		{
+			@Override
+			public int compare(Update u1, Update u2)
+			{
+				return u1.getUpdateId() < u2.getUpdateId() ? -1 : (u1.getUpdateId() == u2.getUpdateId() ? 0 : 1);
+			}
+		});
+		
+		return updates;
+	}
+}
@@ -0,0 +1,158 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Fouad Almalki
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.fouad.jtb.core;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An executor which runs every task on a new virtual thread, while no more than a fixed number of tasks run at
+ * the same time. A task which exceeds the limit waits for a permit on its own virtual thread, which costs almost
+ * nothing, so submitting never blocks the caller. Such a task is dropped if its thread is interrupted by
+ * <code>shutdownNow()</code> before it gets a permit.
+ * <p>
+ * Virtual threads are available since Java 21. They are looked up reflectively, so that this library still runs
+ * on older versions, where <code>isSupported()</code> returns false.
+ */
+class VirtualThreadExecutor extends AbstractExecutorService
+{
+	private final ExecutorService delegate;
+	private final Semaphore permits;
+	
+	VirtualThreadExecutor(String threadNamePrefix, int maxConcurrentTasks)
+	{
+		this(newVirtualThreadPerTaskExecutor(threadNamePrefix), maxConcurrentTasks);
+	}
+	
+	private VirtualThreadExecutor(ExecutorService delegate, int maxConcurrentTasks)
+	{
+		if(maxConcurrentTasks <= 0) throw new IllegalArgumentException("\"maxConcurrentTasks\" must be positive.");
+		
+		this.delegate = delegate;
+		this.permits = new Semaphore(maxConcurrentTasks, true);
+	}
+	
+	/**
+	 * @return true if the running JVM supports virtual threads
+	 */
+	static boolean isSupported()
+	{
+		try
+		{
+			Thread.class.getMethod("ofVirtual");
+			return true;
+		}
+		catch(NoSuchMethodException e)
+		{
+			return false;
+		}
+	}
+	
+	private static ExecutorService newVirtualThreadPerTaskExecutor(String threadNamePrefix)
+	{
+		try
+		{
+			// Thread.ofVirtual().name(threadNamePrefix, 0).factory()
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, threadNamePrefix, 0L);
+			ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+			
+			Method newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+			return (ExecutorService) newExecutor.invoke(null, threadFactory);
+		}
+		catch(ClassNotFoundException e)
+		{
+			throw new IllegalStateException("Virtual threads require Java 21 or later.", e);
+		}
+		catch(NoSuchMethodException e)
+		{
+			throw new IllegalStateException("Virtual threads require Java 21 or later.", e);
+		}
+		catch(IllegalAccessException e)
+		{
+			throw new IllegalStateException("Failed to create virtual threads.", e);
+		}
+		catch(InvocationTargetException e)
+		{
+			throw new IllegalStateException("Failed to create virtual threads.", e.getCause());
+		}
+	}
+	
+	@Override
+	public void execute(final Runnable task)
+	{
+		delegate.execute(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				try
+				{
+					permits.acquire();
+				}
+				catch(InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+					return;
+				}
+				
+				try
+				{
+					task.run();
+				}
+				finally
+				{
+					permits.release();
+				}
+			}
+		});
+	}
+	
+	@Override
+	public void shutdown(){delegate.shutdown();}
+	
+	@Override
+	public List<Runnable> shutdownNow(){return delegate.shutdownNow();}
+	
+	@Override
+	public boolean isShutdown(){return delegate.isShutdown();}
+	
+	@Override
+	public boolean isTerminated(){return delegate.isTerminated();}
+	
+	@Override
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException
+	{
+		return delegate.awaitTermination(timeout, unit);
+	}
+}
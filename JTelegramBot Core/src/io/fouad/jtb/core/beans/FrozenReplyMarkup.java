@@ -0,0 +1,127 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Fouad Almalki
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.fouad.jtb.core.beans;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import io.fouad.jtb.core.utils.FormBodyWriter;
+import io.fouad.jtb.core.utils.JsonUtils;
+
+import java.io.IOException;
+
+/**
+ * An immutable reply markup which is serialized only once, when it is frozen. It is meant for the markups
+ * which are attached to many messages: the request encoders copy its cached JSON (or its cached form-encoded
+ * JSON) into the request body as is, instead of serializing the markup for every request.
+ */
+public class FrozenReplyMarkup extends ReplyMarkup implements JsonSerializable
+{
+	private final SerializedString json;
+	private final byte[] formEncodedJson;
+	
+	private FrozenReplyMarkup(String json)
+	{
+		this.json = new SerializedString(json);
+		this.formEncodedJson = FormBodyWriter.encode(json);
+	}
+	
+	/**
+	 * Serializes a reply markup. Later changes of the reply markup do not affect the frozen one.
+	 * 
+	 * @param replyMarkup the reply markup to freeze
+	 * 
+	 * @return the frozen reply markup
+	 * 
+	 * @throws IllegalArgumentException if the reply markup cannot be serialized
+	 */
+	public static FrozenReplyMarkup freeze(ReplyMarkup replyMarkup)
+	{
+		if(replyMarkup instanceof FrozenReplyMarkup) return (FrozenReplyMarkup) replyMarkup;
+		
+		try
+		{
+			return new FrozenReplyMarkup(JsonUtils.toJson(replyMarkup));
+		}
+		catch(IOException e)
+		{
+			throw new IllegalArgumentException("Failed to serialize the reply markup.", e);
+		}
+	}
+	
+	/**
+	 * @return the JSON of the reply markup
+	 */
+	public String toJson(){return json.getValue();}
+	
+	/**
+	 * Appends the reply markup to a form body as a parameter, without encoding it again.
+	 * 
+	 * @param writer the writer of the form body
+	 * @param name the name of the parameter
+	 */
+	public void appendTo(FormBodyWriter writer, String name)
+	{
+		writer.appendEncoded(name, formEncodedJson);
+	}
+	
+	@Override
+	public void serialize(JsonGenerator generator, SerializerProvider serializers) throws IOException
+	{
+		generator.writeRawValue(json);
+	}
+	
+	@Override
+	public void serializeWithType(JsonGenerator generator, SerializerProvider serializers, TypeSerializer typeSerializer)
+			throws IOException
+	{
+		serialize(generator, serializers);
+	}
+	
+	@Override
+	public boolean equals(Object o)
+	{
+		if(this == o) return true;
+		if(o == null || getClass() != o.getClass()) return false;
+		
+		FrozenReplyMarkup that = (FrozenReplyMarkup) o;
+		
+		return json.equals(that.json);
+	}
+	
+	@Override
+	public int hashCode()
+	{
+		return json.hashCode();
+	}
+	
+	@Override
+	public String toString()
+	{
+		return "FrozenReplyMarkup{" + "json='" + json + '\'' + '}';
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Fouad Almalki
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.fouad.jtb.core.beans;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import io.fouad.jtb.core.utils.LazyValue;
+
+/**
+ * A message whose heavy parts (the replied and pinned messages, the entities, the photos and the other media)
+ * are kept as raw JSON, and decoded when their getters are called for the first time. The other fields are
+ * decoded up front, so a handler can filter messages by their chat, sender or text without paying for the rest.
+ * It is created instead of <code>Message</code> when <code>TelegramBotConfig.isLazyUpdateDecoding()</code> is
+ * enabled. Since the parts are decoded later, a part which cannot be decoded makes its getter throw
+ * <code>IllegalStateException</code>. It is serialized the same way as <code>Message</code>.
+ */
+@JsonSerialize(as = Message.class)
+public class LazyMessage extends Message
+{
+	private final LazyValue<LazyMessage> replyToMessage;
+	private final LazyValue<MessageEntity[]> entities;
+	private final LazyValue<Audio> audio;
+	private final LazyValue<Document> document;
+	private final LazyValue<PhotoSize[]> photo;
+	private final LazyValue<Sticker> sticker;
+	private final LazyValue<Video> video;
+	private final LazyValue<Voice> voice;
+	private final LazyValue<Contact> contact;
+	private final LazyValue<Location> location;
+	private final LazyValue<Venue> venue;
+	private final LazyValue<PhotoSize[]> newChatPhoto;
+	private final LazyValue<LazyMessage> pinnedMessage;
+	
+	public LazyMessage(int messageId, User from, int date, Chat chat, User forwardFrom, Chat forwardFromChat,
+	                   Integer forwardDate, LazyValue<LazyMessage> replyToMessage, int editDate, String text,
+	                   LazyValue<MessageEntity[]> entities, LazyValue<Audio> audio, LazyValue<Document> document,
+	                   LazyValue<PhotoSize[]> photo, LazyValue<Sticker> sticker, LazyValue<Video> video,
+	                   LazyValue<Voice> voice, String caption, LazyValue<Contact> contact, LazyValue<Location> location,
+	                   LazyValue<Venue> venue, User newChatMember, User leftChatMember, String newChatTitle,
+	                   LazyValue<PhotoSize[]> newChatPhoto, Boolean deleteChatPhoto, Boolean groupChatCreated,
+	                   Boolean superGroupChatCreated, Boolean channelChatCreated, Long migrateToChatId,
+	                   Long migrateFromChatId, LazyValue<LazyMessage> pinnedMessage)
+	{
+		super(messageId, from, date, chat, forwardFrom, forwardFromChat, forwardDate, null, editDate, text, null, null,
+		      null, null, null, null, null, caption, null, null, null, newChatMember, leftChatMember, newChatTitle, null,
+		      deleteChatPhoto, groupChatCreated, superGroupChatCreated, channelChatCreated, migrateToChatId,
+		      migrateFromChatId, null);
+		
+		this.replyToMessage = replyToMessage;
+		this.entities = entities;
+		this.audio = audio;
+		this.document = document;
+		this.photo = photo;
+		this.sticker = sticker;
+		this.video = video;
+		this.voice = voice;
+		this.contact = contact;
+		this.location = location;
+		this.venue = venue;
+		this.newChatPhoto = newChatPhoto;
+		this.pinnedMessage = pinnedMessage;
+	}
+	
+	@Override
+	public Message getReplyToMessage(){return get(replyToMessage);}
+	
+	@Override
+	public MessageEntity[] getEntities(){return get(entities);}
+	
+	@Override
+	public Audio getAudio(){return get(audio);}
+	
+	@Override
+	public Document getDocument(){return get(document);}
+	
+	@Override
+	public PhotoSize[] getPhoto(){return get(photo);}
+	
+	@Override
+	public Sticker getSticker(){return get(sticker);}
+	
+	@Override
+	public Video getVideo(){return get(video);}
+	
+	@Override
+	public Voice getVoice(){return get(voice);}
+	
+	@Override
+	public Contact getContact(){return get(contact);}
+	
+	@Override
+	public Location getLocation(){return get(location);}
+	
+	@Override
+	public Venue getVenue(){return get(venue);}
+	
+	@Override
+	public PhotoSize[] getNewChatPhoto(){return get(newChatPhoto);}
+	
+	@Override
+	public Message getPinnedMessage(){return get(pinnedMessage);}
+	
+	private static <T> T get(LazyValue<T> lazyValue)
+	{
+		return lazyValue != null ? lazyValue.get() : null;
+	}
+}
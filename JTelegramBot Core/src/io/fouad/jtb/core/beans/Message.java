@@ -345,27 +345,31 @@ public class Message
 		if(forwardFromChat != null ? !forwardFromChat.equals(message.forwardFromChat) : message.forwardFromChat != null)
 			return false;
 		if(forwardDate != null ? !forwardDate.equals(message.forwardDate) : message.forwardDate != null) return false;
-		if(replyToMessage != null ? !replyToMessage.equals(message.replyToMessage) : message.replyToMessage != null)
-			return false;
+		if(getReplyToMessage() != null ? !getReplyToMessage().equals(message.getReplyToMessage())
+		                               : message.getReplyToMessage() != null) return false;
 		if(text != null ? !text.equals(message.text) : message.text != null) return false;
-		if(!Arrays.deepEquals(entities, message.entities)) return false;
-		if(audio != null ? !audio.equals(message.audio) : message.audio != null) return false;
-		if(document != null ? !document.equals(message.document) : message.document != null) return false;
-		if(!Arrays.deepEquals(photo, message.photo)) return false;
-		if(sticker != null ? !sticker.equals(message.sticker) : message.sticker != null) return false;
-		if(video != null ? !video.equals(message.video) : message.video != null) return false;
-		if(voice != null ? !voice.equals(message.voice) : message.voice != null) return false;
+		if(!Arrays.deepEquals(getEntities(), message.getEntities())) return false;
+		if(getAudio() != null ? !getAudio().equals(message.getAudio()) : message.getAudio() != null) return false;
+		if(getDocument() != null ? !getDocument().equals(message.getDocument()) : message.getDocument() != null)
+			return false;
+		if(!Arrays.deepEquals(getPhoto(), message.getPhoto())) return false;
+		if(getSticker() != null ? !getSticker().equals(message.getSticker()) : message.getSticker() != null)
+			return false;
+		if(getVideo() != null ? !getVideo().equals(message.getVideo()) : message.getVideo() != null) return false;
+		if(getVoice() != null ? !getVoice().equals(message.getVoice()) : message.getVoice() != null) return false;
 		if(caption != null ? !caption.equals(message.caption) : message.caption != null) return false;
-		if(contact != null ? !contact.equals(message.contact) : message.contact != null) return false;
-		if(location != null ? !location.equals(message.location) : message.location != null) return false;
-		if(venue != null ? !venue.equals(message.venue) : message.venue != null) return false;
+		if(getContact() != null ? !getContact().equals(message.getContact()) : message.getContact() != null)
+			return false;
+		if(getLocation() != null ? !getLocation().equals(message.getLocation()) : message.getLocation() != null)
+			return false;
+		if(getVenue() != null ? !getVenue().equals(message.getVenue()) : message.getVenue() != null) return false;
 		if(newChatMember != null ? !newChatMember.equals(message.newChatMember) : message.newChatMember != null)
 			return false;
 		if(leftChatMember != null ? !leftChatMember.equals(message.leftChatMember) : message.leftChatMember != null)
 			return false;
 		if(newChatTitle != null ? !newChatTitle.equals(message.newChatTitle) : message.newChatTitle != null)
 			return false;
-		if(!Arrays.deepEquals(newChatPhoto, message.newChatPhoto)) return false;
+		if(!Arrays.deepEquals(getNewChatPhoto(), message.getNewChatPhoto())) return false;
 		if(deleteChatPhoto != null ? !deleteChatPhoto.equals(message.deleteChatPhoto) : message.deleteChatPhoto != null)
 			return false;
 		if(groupChatCreated != null ? !groupChatCreated.equals(message.groupChatCreated)
@@ -378,7 +382,8 @@ public class Message
 			return false;
 		if(migrateFromChatId != null ? !migrateFromChatId.equals(message.migrateFromChatId)
 		                             : message.migrateFromChatId != null) return false;
-		return pinnedMessage != null ? pinnedMessage.equals(message.pinnedMessage) : message.pinnedMessage == null;
+		return getPinnedMessage() != null ? getPinnedMessage().equals(message.getPinnedMessage())
+		                                  : message.getPinnedMessage() == null;
 		
 	}
 	
@@ -392,31 +397,31 @@ public class Message
 		result = 31 * result + (forwardFrom != null ? forwardFrom.hashCode() : 0);
 		result = 31 * result + (forwardFromChat != null ? forwardFromChat.hashCode() : 0);
 		result = 31 * result + (forwardDate != null ? forwardDate.hashCode() : 0);
-		result = 31 * result + (replyToMessage != null ? replyToMessage.hashCode() : 0);
+		result = 31 * result + (getReplyToMessage() != null ? getReplyToMessage().hashCode() : 0);
 		result = 31 * result + editDate;
 		result = 31 * result + (text != null ? text.hashCode() : 0);
-		result = 31 * result + Arrays.deepHashCode(entities);
-		result = 31 * result + (audio != null ? audio.hashCode() : 0);
-		result = 31 * result + (document != null ? document.hashCode() : 0);
-		result = 31 * result + Arrays.deepHashCode(photo);
-		result = 31 * result + (sticker != null ? sticker.hashCode() : 0);
-		result = 31 * result + (video != null ? video.hashCode() : 0);
-		result = 31 * result + (voice != null ? voice.hashCode() : 0);
+		result = 31 * result + Arrays.deepHashCode(getEntities());
+		result = 31 * result + (getAudio() != null ? getAudio().hashCode() : 0);
+		result = 31 * result + (getDocument() != null ? getDocument().hashCode() : 0);
+		result = 31 * result + Arrays.deepHashCode(getPhoto());
+		result = 31 * result + (getSticker() != null ? getSticker().hashCode() : 0);
+		result = 31 * result + (getVideo() != null ? getVideo().hashCode() : 0);
+		result = 31 * result + (getVoice() != null ? getVoice().hashCode() : 0);
 		result = 31 * result + (caption != null ? caption.hashCode() : 0);
-		result = 31 * result + (contact != null ? contact.hashCode() : 0);
-		result = 31 * result + (location != null ? location.hashCode() : 0);
-		result = 31 * result + (venue != null ? venue.hashCode() : 0);
+		result = 31 * result + (getContact() != null ? getContact().hashCode() : 0);
+		result = 31 * result + (getLocation() != null ? getLocation().hashCode() : 0);
+		result = 31 * result + (getVenue() != null ? getVenue().hashCode() : 0);
 		result = 31 * result + (newChatMember != null ? newChatMember.hashCode() : 0);
 		result = 31 * result + (leftChatMember != null ? leftChatMember.hashCode() : 0);
 		result = 31 * result + (newChatTitle != null ? newChatTitle.hashCode() : 0);
-		result = 31 * result + Arrays.deepHashCode(newChatPhoto);
+		result = 31 * result + Arrays.deepHashCode(getNewChatPhoto());
 		result = 31 * result + (deleteChatPhoto != null ? deleteChatPhoto.hashCode() : 0);
 		result = 31 * result + (groupChatCreated != null ? groupChatCreated.hashCode() : 0);
 		result = 31 * result + (superGroupChatCreated != null ? superGroupChatCreated.hashCode() : 0);
 		result = 31 * result + (channelChatCreated != null ? channelChatCreated.hashCode() : 0);
 		result = 31 * result + (migrateToChatId != null ? migrateToChatId.hashCode() : 0);
 		result = 31 * result + (migrateFromChatId != null ? migrateFromChatId.hashCode() : 0);
-		result = 31 * result + (pinnedMessage != null ? pinnedMessage.hashCode() : 0);
+		result = 31 * result + (getPinnedMessage() != null ? getPinnedMessage().hashCode() : 0);
 		return result;
 	}
 	
@@ -425,15 +430,16 @@ public class Message
 	{
 		return "Message{" + "messageId=" + messageId + ", from=" + from + ", date=" + date + ", chat=" + chat +
 				", forwardFrom=" + forwardFrom + ", forwardFromChat=" + forwardFromChat + ", forwardDate=" +
-				forwardDate + ", replyToMessage=" + replyToMessage + ", editDate=" + editDate + ", text='" +
-				text + '\'' + ", entities=" + Arrays.deepToString(entities) + ", audio=" + audio + ", document=" +
-				document + ", photo=" + Arrays.deepToString(photo) + ", sticker=" + sticker + ", video=" + video +
-				", voice=" + voice + ", caption='" + caption + '\'' + ", contact=" + contact + ", location=" +
-				location + ", venue=" + venue + ", newChatMember=" + newChatMember + ", leftChatMember=" +
-				leftChatMember + ", newChatTitle='" + newChatTitle + '\'' + ", newChatPhoto=" +
-				Arrays.deepToString(newChatPhoto) + ", deleteChatPhoto=" + deleteChatPhoto + ", groupChatCreated=" +
-				groupChatCreated + ", superGroupChatCreated=" + superGroupChatCreated + ", channelChatCreated=" +
-				channelChatCreated + ", migrateToChatId=" + migrateToChatId + ", migrateFromChatId=" +
-				migrateFromChatId + ", pinnedMessage=" + pinnedMessage + '}';
+				forwardDate + ", replyToMessage=" + getReplyToMessage() + ", editDate=" + editDate + ", text='" +
+				text + '\'' + ", entities=" + Arrays.deepToString(getEntities()) + ", audio=" + getAudio() +
+				", document=" + getDocument() + ", photo=" + Arrays.deepToString(getPhoto()) + ", sticker=" +
+				getSticker() + ", video=" + getVideo() + ", voice=" + getVoice() + ", caption='" + caption + '\'' +
+				", contact=" + getContact() + ", location=" + getLocation() + ", venue=" + getVenue() +
+				", newChatMember=" + newChatMember + ", leftChatMember=" + leftChatMember + ", newChatTitle='" +
+				newChatTitle + '\'' + ", newChatPhoto=" + Arrays.deepToString(getNewChatPhoto()) +
+				", deleteChatPhoto=" + deleteChatPhoto + ", groupChatCreated=" + groupChatCreated +
+				", superGroupChatCreated=" + superGroupChatCreated + ", channelChatCreated=" + channelChatCreated +
+				", migrateToChatId=" + migrateToChatId + ", migrateFromChatId=" + migrateFromChatId +
+				", pinnedMessage=" + getPinnedMessage() + '}';
 	}
 }
\ No newline at end of file
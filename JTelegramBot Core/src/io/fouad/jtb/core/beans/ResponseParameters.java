@@ -0,0 +1,88 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Fouad Almalki
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.fouad.jtb.core.beans;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * This object contains information about why a request was unsuccessful.
+ */
+public class ResponseParameters
+{
+	/**
+	 * Optional. The group has been migrated to a supergroup with the specified identifier.
+	 */
+	@JsonProperty("migrate_to_chat_id")
+	private Long migrateToChatId;
+	
+	/**
+	 * Optional. In case of exceeding flood control, the number of seconds left
+	 * to wait before the request can be repeated.
+	 */
+	@JsonProperty("retry_after")
+	private Integer retryAfter;
+	
+	public ResponseParameters(){}
+	
+	public ResponseParameters(Long migrateToChatId, Integer retryAfter)
+	{
+		this.migrateToChatId = migrateToChatId;
+		this.retryAfter = retryAfter;
+	}
+	
+	public Long getMigrateToChatId(){return migrateToChatId;}
+	public Integer getRetryAfter(){return retryAfter;}
+	
+	@Override
+	public boolean equals(Object o)
+	{
+		if(this == o) return true;
+		if(o == null || getClass() != o.getClass()) return false;
+		
+		ResponseParameters that = (ResponseParameters) o;
+		
+		if(migrateToChatId != null ? !migrateToChatId.equals(that.migrateToChatId) : that.migrateToChatId != null)
+			return false;
+		return retryAfter != null ? retryAfter.equals(that.retryAfter) : that.retryAfter == null;
+		
+	}
+	
+	@Override
+	public int hashCode()
+	{
+		int result = migrateToChatId != null ? migrateToChatId.hashCode() : 0;
+		result = 31 * result + (retryAfter != null ? retryAfter.hashCode() : 0);
+		return result;
+	}
+	
+	@Override
+	public String toString()
+	{
+		return "ResponseParameters{" +
+				"migrateToChatId=" + migrateToChatId +
+				", retryAfter=" + retryAfter +
+				'}';
+	}
+}
@@ -56,20 +56,33 @@ public class TelegramResult<R>
 	@JsonProperty("description")
 	private String description;
 	
+	/**
+	 * optional. information about why the request was unsuccessful, e.g. when to retry it.
+	 */
+	@JsonProperty("parameters")
+	private ResponseParameters parameters;
+	
 	public TelegramResult(){}
 	
 	public TelegramResult(boolean ok, Integer errorCode, R result, String description)
+	{
+		this(ok, errorCode, result, description, null);
+	}
+	
+	public TelegramResult(boolean ok, Integer errorCode, R result, String description, ResponseParameters parameters)
 	{
 		this.ok = ok;
 		this.errorCode = errorCode;
 		this.result = result;
 		this.description = description;
+		this.parameters = parameters;
 	}
 	
 	public boolean isOk(){return ok;}
 	public Integer getErrorCode(){return errorCode;}
 	public R getResult(){return result;}
 	public String getDescription(){return description;}
+	public ResponseParameters getParameters(){return parameters;}
 	
 	@Override
 	public boolean equals(Object o)
@@ -82,7 +95,8 @@ public class TelegramResult<R>
 		if(ok != that.ok) return false;
 		if(errorCode != null ? !errorCode.equals(that.errorCode) : that.errorCode != null) return false;
 		if(result != null ? !result.equals(that.result) : that.result != null) return false;
-		return description != null ? description.equals(that.description) : that.description == null;
+		if(description != null ? !description.equals(that.description) : that.description != null) return false;
+		return parameters != null ? parameters.equals(that.parameters) : that.parameters == null;
 		
 	}
 	
@@ -93,6 +107,7 @@ public class TelegramResult<R>
 		result1 = 31 * result1 + (errorCode != null ? errorCode.hashCode() : 0);
 		result1 = 31 * result1 + (result != null ? result.hashCode() : 0);
 		result1 = 31 * result1 + (description != null ? description.hashCode() : 0);
+		result1 = 31 * result1 + (parameters != null ? parameters.hashCode() : 0);
 		return result1;
 	}
 	
@@ -104,6 +119,7 @@ public class TelegramResult<R>
 				", errorCode=" + errorCode +
 				", result=" + result +
 				", description='" + description + '\'' +
+				", parameters=" + parameters +
 				'}';
 	}
 }
\ No newline at end of file
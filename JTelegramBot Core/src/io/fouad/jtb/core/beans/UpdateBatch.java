@@ -0,0 +1,79 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Fouad Almalki
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.fouad.jtb.core.beans;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The result of getUpdates when it is requested by <code>UpdateStream</code>. The updates are normally passed
+ * to the listener of the stream while the response is being decoded, so this batch only holds the updates
+ * which were not streamed (e.g. if a custom transport decoded the response by its own mapper).
+ */
+public class UpdateBatch
+{
+	private final List<Update> updates;
+	
+	public UpdateBatch(List<Update> updates)
+	{
+		this.updates = updates;
+	}
+	
+	@JsonCreator
+	public UpdateBatch(Update[] updates)
+	{
+		this(Arrays.asList(updates));
+	}
+	
+	/**
+	 * @return the updates which were not passed to the listener yet
+	 */
+	public List<Update> getUpdates(){return updates;}
+	
+	@Override
+	public boolean equals(Object o)
+	{
+		if(this == o) return true;
+		if(o == null || getClass() != o.getClass()) return false;
+		
+		UpdateBatch that = (UpdateBatch) o;
+		
+		return updates.equals(that.updates);
+	}
+	
+	@Override
+	public int hashCode()
+	{
+		return updates.hashCode();
+	}
+	
+	@Override
+	public String toString()
+	{
+		return "UpdateBatch{" + "updates=" + updates + '}';
+	}
+}
@@ -0,0 +1,52 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Fouad Almalki
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.fouad.jtb.core.enums;
+
+/**
+ * Represents how the polling bot hands the incoming updates to its worker threads.
+ */
+public enum DispatchMode
+{
+	/**
+	 * All the updates go to a shared pool of worker threads, so two updates of the same chat
+	 * may be handled concurrently and complete out of order.
+	 */
+	UNORDERED,
+	
+	/**
+	 * Every chat is mapped to one of the worker threads (the sender is used for inline queries and callback
+	 * queries), so the updates of the same chat are handled one by one in the order they were received,
+	 * while different chats are still handled in parallel.
+	 */
+	PER_CHAT_ORDERED,
+	
+	/**
+	 * Every update is handled on its own virtual thread, so a handler which blocks on I/O (e.g. on the API calls)
+	 * does not hold a worker thread, and the number of updates which are handled concurrently is limited only by
+	 * <code>TelegramBotConfig.getMaxConcurrentUpdates()</code>. The order is not kept, as in <code>UNORDERED</code>.
+	 * It requires Java 21 or later.
+	 */
+	VIRTUAL_THREADS
+}
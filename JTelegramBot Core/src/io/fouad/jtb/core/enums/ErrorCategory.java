@@ -0,0 +1,109 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Fouad Almalki
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.fouad.jtb.core.enums;
+
+/**
+ * The category of a negative response, so that the callers can decide whether to retry a request
+ * or how to route it without parsing the description of the error.
+ */
+public enum ErrorCategory
+{
+	/**
+	 * Flood control was exceeded. The request can be repeated after <code>getRetryAfter()</code> seconds.
+	 */
+	TOO_MANY_REQUESTS,
+	
+	/**
+	 * The group has been migrated to a supergroup. The request can be repeated with
+	 * <code>getMigrateToChatId()</code> as the chat id.
+	 */
+	CHAT_MIGRATED,
+	
+	/**
+	 * The request is invalid, e.g. a missing parameter or an unknown chat.
+	 */
+	BAD_REQUEST,
+	
+	/**
+	 * The token of the bot is invalid.
+	 */
+	UNAUTHORIZED,
+	
+	/**
+	 * The bot is not allowed to do the request, e.g. it was blocked by the user or kicked from the group.
+	 */
+	FORBIDDEN,
+	
+	/**
+	 * The method does not exist.
+	 */
+	NOT_FOUND,
+	
+	/**
+	 * The request conflicts with another one, e.g. getUpdates while a webhook is set.
+	 */
+	CONFLICT,
+	
+	/**
+	 * A failure on the server side. The request can be repeated later.
+	 */
+	SERVER_ERROR,
+	
+	/**
+	 * Any other error, including a response which cannot be decoded.
+	 */
+	UNKNOWN;
+	
+	/**
+	 * @param errorCode the error code of the response, or the HTTP status code if the response has none
+	 * @param retryAfter the <code>retry_after</code> parameter of the response, or <code>null</code>
+	 * @param migrateToChatId the <code>migrate_to_chat_id</code> parameter of the response, or <code>null</code>
+	 * 
+	 * @return the category of the error
+	 */
+	public static ErrorCategory of(int errorCode, Integer retryAfter, Long migrateToChatId)
+	{
+		if(retryAfter != null || errorCode == 429) return TOO_MANY_REQUESTS;
+		if(migrateToChatId != null) return CHAT_MIGRATED;
+		
+		switch(errorCode)
+		{
+			case 400: return BAD_REQUEST;
+			case 401: return UNAUTHORIZED;
+			case 403: return FORBIDDEN;
+			case 404: return NOT_FOUND;
+			case 409: return CONFLICT;
+			default: return errorCode >= 500 && errorCode < 600 ? SERVER_ERROR : UNKNOWN;
+		}
+	}
+	
+	/**
+	 * @return whether the same request may succeed if it is repeated later
+	 */
+	public boolean isRetryable()
+	{
+		return this == TOO_MANY_REQUESTS || this == SERVER_ERROR;
+	}
+}
@@ -25,16 +25,26 @@
 package io.fouad.jtb.core.exceptions;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import io.fouad.jtb.core.beans.ResponseParameters;
 import io.fouad.jtb.core.beans.TelegramResult;
+import io.fouad.jtb.core.enums.ErrorCategory;
 import io.fouad.jtb.core.utils.JsonUtils;
 
 import java.io.IOException;
+import java.nio.charset.Charset;
 
 /**
  * This exception represents the negative (non-OK) response of a Telegram API request.
+ * <p>
+ * Besides the error code and the description, it exposes the typed parameters of the response and a category
+ * of the error, so that the callers can decide whether and when to retry a request without parsing the description.
  */
 public class NegativeResponseException extends Exception
 {
+	// a negative response has no result, so it is not bound to any particular type
+	private static final TypeReference<TelegramResult<Object>> ERROR_RESULT_TYPE = new TypeReference<TelegramResult<Object>>(){};
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	
 	private static class Wrapper
 	{
 		private TelegramResult<?> telegramResult;
@@ -50,6 +60,8 @@ public class NegativeResponseException extends Exception
 	private int httpResponseCode;
 	private Integer errorCode;
 	private String description;
+	private ResponseParameters parameters;
+	private ErrorCategory errorCategory;
 	
 	private NegativeResponseException(int httpResponseCode, Wrapper wrapper)
 	{
@@ -58,8 +70,15 @@ public class NegativeResponseException extends Exception
 		this.httpResponseCode = httpResponseCode;
 		
 		TelegramResult<?> telegramResult = wrapper.telegramResult;
-		if(telegramResult != null) this.errorCode = telegramResult.getErrorCode();
-		if(telegramResult != null) this.description = telegramResult.getDescription();
+		if(telegramResult != null)
+		{
+			this.errorCode = telegramResult.getErrorCode();
+			this.description = telegramResult.getDescription();
+			this.parameters = telegramResult.getParameters();
+		}
+		
+		this.errorCategory = ErrorCategory.of(errorCode != null ? errorCode : httpResponseCode, getRetryAfter(),
+		                                      getMigrateToChatId());
 	}
 	
 	public NegativeResponseException(int httpResponseCode, String response)
@@ -67,6 +86,14 @@ public class NegativeResponseException extends Exception
 		this(httpResponseCode, buildWrapper(response));
 	}
 	
+	/**
+	 * Creates the exception from the raw UTF-8 body of the response, which is decoded without turning it into a string first.
+	 */
+	public NegativeResponseException(int httpResponseCode, byte[] response)
+	{
+		this(httpResponseCode, buildWrapper(response));
+	}
+	
 	public NegativeResponseException(int httpResponseCode, TelegramResult<?> telegramResult)
 	{
 		this(httpResponseCode, buildWrapper(telegramResult));
@@ -75,6 +102,20 @@ public class NegativeResponseException extends Exception
 	public int getHttpResponseCode(){return httpResponseCode;}
 	public Integer getErrorCode(){return errorCode;}
 	public String getDescription(){return description;}
+	public ResponseParameters getParameters(){return parameters;}
+	public ErrorCategory getErrorCategory(){return errorCategory;}
+	
+	/**
+	 * @return the number of seconds to wait before repeating the request in case of exceeding
+	 *         flood control, or <code>null</code> if the response does not specify it
+	 */
+	public Integer getRetryAfter(){return parameters != null ? parameters.getRetryAfter() : null;}
+	
+	/**
+	 * @return the id of the supergroup which the group has been migrated to,
+	 *         or <code>null</code> if the response does not specify it
+	 */
+	public Long getMigrateToChatId(){return parameters != null ? parameters.getMigrateToChatId() : null;}
 	
 	@Override
 	public boolean equals(Object o)
@@ -86,7 +127,8 @@ public class NegativeResponseException extends Exception
 		
 		if(httpResponseCode != that.httpResponseCode) return false;
 		if(errorCode != null ? !errorCode.equals(that.errorCode) : that.errorCode != null) return false;
-		return description != null ? description.equals(that.description) : that.description == null;
+		if(description != null ? !description.equals(that.description) : that.description != null) return false;
+		return parameters != null ? parameters.equals(that.parameters) : that.parameters == null;
 		
 	}
 	
@@ -96,6 +138,7 @@ public class NegativeResponseException extends Exception
 		int result = httpResponseCode;
 		result = 31 * result + (errorCode != null ? errorCode.hashCode() : 0);
 		result = 31 * result + (description != null ? description.hashCode() : 0);
+		result = 31 * result + (parameters != null ? parameters.hashCode() : 0);
 		return result;
 	}
 	
@@ -106,28 +149,35 @@ public class NegativeResponseException extends Exception
 				"httpResponseCode=" + httpResponseCode +
 				", errorCode=" + errorCode +
 				", description='" + description + '\'' +
+				", parameters=" + parameters +
+				", errorCategory=" + errorCategory +
 				"} " + super.toString();
 	}
 	
 	private static Wrapper buildWrapper(String response)
 	{
-		String message = null;
-		TelegramResult<Void> telegramResult = null;
-		
 		try
 		{
-			telegramResult = JsonUtils.toJavaObject(response, new TypeReference<TelegramResult<Void>>(){});
-			Integer errorCode = telegramResult.getErrorCode();
-			String description = telegramResult.getDescription();
-			
-			message = "Error Code = " + errorCode + " | Description = " + description;
+			TelegramResult<Object> telegramResult = JsonUtils.toJavaObject(response, ERROR_RESULT_TYPE);
+			return buildWrapper(telegramResult);
 		}
-		catch(IOException e)
+		catch(IOException e) // not a Telegram response, e.g. an error page of a proxy
 		{
-			e.printStackTrace();
+			return new Wrapper(null, "Unrecognized Response = " + response);
+		}
+	}
+	
+	private static Wrapper buildWrapper(byte[] response)
+	{
+		try
+		{
+			TelegramResult<Object> telegramResult = JsonUtils.toJavaObject(response, ERROR_RESULT_TYPE);
+			return buildWrapper(telegramResult);
+		}
+		catch(IOException e) // not a Telegram response, e.g. an error page of a proxy
+		{
+			return new Wrapper(null, "Unrecognized Response = " + new String(response, UTF_8));
 		}
-		
-		return new Wrapper(telegramResult, message);
 	}
 	
 	private static Wrapper buildWrapper(TelegramResult<?> telegramResult)
@@ -139,4 +189,4 @@ public class NegativeResponseException extends Exception
 		
 		return new Wrapper(telegramResult, message);
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,670 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Fouad Almalki
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.fouad.jtb.core.utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import io.fouad.jtb.core.beans.*;
+import io.fouad.jtb.core.enums.ChatType;
+import io.fouad.jtb.core.enums.MessageEntityType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hand-written streaming deserializers for the beans which are decoded for every incoming update:
+ * <code>Update</code>, <code>Message</code>, <code>User</code>, <code>Chat</code>, <code>MessageEntity</code>
+ * and <code>PhotoSize</code>. They read the tokens directly and create the beans by their constructors, so
+ * Jackson neither introspects these classes nor sets their private fields by reflection. Unknown properties
+ * are handled according to the settings of the mapper, and the less frequent nested beans (e.g. audio,
+ * inline queries) are still decoded by the deserializers of Jackson.
+ * <p>
+ * <code>LazyUpdate</code> and <code>LazyMessage</code> are decoded by variants which copy the heavy parts of
+ * the messages as raw JSON instead of decoding them. <code>UpdateBatch</code> is decoded by passing the updates
+ * to the listener of <code>UpdateStream</code> one by one, if the type is being read.
+ * <p>
+ * If the reader has a <code>StringPool</code> attribute, the names of the users and the chats, the titles of the
+ * chats and the file ids of the photos are taken from the pool, so the repeated ones are shared by the beans.
+ * Likewise, the fields of the updates and the messages which a <code>FieldProjection</code> attribute excludes
+ * are skipped without being decoded.
+ */
+public class BeanDeserializers
+{
+	static final String[] MESSAGE_PROPERTIES = {"message_id", "from", "date", "chat", "forward_from",
+		"forward_from_chat", "forward_date", "reply_to_message", "edit_date", "text", "entities", "audio", "document",
+		"photo", "sticker", "video", "voice", "caption", "contact", "location", "venue", "new_chat_member",
+		"left_chat_member", "new_chat_title", "new_chat_photo", "delete_chat_photo", "group_chat_created",
+		"supergroup_chat_created", "channel_chat_created", "migrate_to_chat_id", "migrate_from_chat_id",
+		"pinned_message"};
+	static final String[] UPDATE_PROPERTIES = {"update_id", "message", "edited_message", "inline_query",
+		"chosen_inline_result", "callback_query"};
+	
+	private static final UserDeserializer USER = new UserDeserializer();
+	private static final ChatDeserializer CHAT = new ChatDeserializer();
+	private static final PhotoSizeDeserializer PHOTO_SIZE = new PhotoSizeDeserializer();
+	private static final MessageEntityDeserializer MESSAGE_ENTITY = new MessageEntityDeserializer();
+	private static final MessageDeserializer MESSAGE = new MessageDeserializer();
+	private static final UpdateDeserializer UPDATE = new UpdateDeserializer();
+	private static final LazyMessageDeserializer LAZY_MESSAGE = new LazyMessageDeserializer();
+	private static final LazyUpdateDeserializer LAZY_UPDATE = new LazyUpdateDeserializer();
+	private static final UpdateBatchDeserializer UPDATE_BATCH = new UpdateBatchDeserializer();
+	
+	private static final PhotoSize[] NO_PHOTO_SIZES = new PhotoSize[0];
+	private static final MessageEntity[] NO_MESSAGE_ENTITIES = new MessageEntity[0];
+	
+	/**
+	 * @return a module which registers the deserializers into an <code>ObjectMapper</code>
+	 */
+	public static Module createModule()
+	{
+		SimpleModule module = new SimpleModule("JTelegramBotBeans");
+		module.addDeserializer(User.class, USER);
+		module.addDeserializer(Chat.class, CHAT);
+		module.addDeserializer(PhotoSize.class, PHOTO_SIZE);
+		module.addDeserializer(MessageEntity.class, MESSAGE_ENTITY);
+		module.addDeserializer(Message.class, MESSAGE);
+		module.addDeserializer(Update.class, UPDATE);
+		module.addDeserializer(LazyMessage.class, LAZY_MESSAGE);
+		module.addDeserializer(LazyUpdate.class, LAZY_UPDATE);
+		module.addDeserializer(UpdateBatch.class, UPDATE_BATCH);
+		return module;
+	}
+	
+	/**
+	 * The base of the deserializers, which maps the property names to indexes that the subclasses
+	 * switch on, and walks over the properties of an object.
+	 */
+	private static abstract class BeanDeserializer<T> extends StdDeserializer<T>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		private static final int UNKNOWN_PROPERTY = -1;
+		static final int SKIPPED_PROPERTY = -2;
+		
+		private final Map<String, Integer> propertyIndexes = new HashMap<String, Integer>();
+		
+		BeanDeserializer(Class<T> beanClass, String... propertyNames)
+		{
+			super(beanClass);
+			for(int i = 0; i < propertyNames.length; i++) propertyIndexes.put(propertyNames[i], i);
+		}
+		
+		/**
+		 * Moves to the value of the first property of the object.
+		 * 
+		 * @return the name of the property, or null if the object is empty
+		 */
+		String firstProperty(JsonParser p, DeserializationContext ctxt) throws IOException
+		{
+			JsonToken token = p.getCurrentToken();
+			if(token == JsonToken.START_OBJECT) token = p.nextToken();
+			
+			if(token == JsonToken.END_OBJECT) return null;
+			if(token != JsonToken.FIELD_NAME) throw ctxt.mappingException(handledType(), token);
+			
+			String name = p.getCurrentName();
+			p.nextToken();
+			return name;
+		}
+		
+		/**
+		 * Moves to the value of the next property of the object.
+		 * 
+		 * @return the name of the property, or null if the end of the object is reached
+		 */
+		String nextProperty(JsonParser p) throws IOException
+		{
+			if(p.nextToken() != JsonToken.FIELD_NAME) return null;
+			
+			String name = p.getCurrentName();
+			p.nextToken();
+			return name;
+		}
+		
+		int indexOf(String propertyName)
+		{
+			Integer index = propertyIndexes.get(propertyName);
+			return index != null ? index : UNKNOWN_PROPERTY;
+		}
+		
+		/**
+		 * @param decodedProperties the bit (1 &lt;&lt; i) is set if the property i is decoded
+		 * 
+		 * @return the index of the property, or SKIPPED_PROPERTY if it is not decoded
+		 */
+		int indexOf(String propertyName, long decodedProperties)
+		{
+			int index = indexOf(propertyName);
+			if(index >= 0 && (decodedProperties & (1L << index)) == 0) return SKIPPED_PROPERTY;
+			return index;
+		}
+		
+		static FieldProjection getFieldProjection(DeserializationContext ctxt)
+		{
+			FieldProjection fieldProjection = (FieldProjection) ctxt.getAttribute(FieldProjection.class);
+			return fieldProjection != null ? fieldProjection : FieldProjection.ALL;
+		}
+		
+		void skipUnknownProperty(JsonParser p, DeserializationContext ctxt, String propertyName) throws IOException
+		{
+			handleUnknownProperty(p, ctxt, handledType(), propertyName);
+		}
+		
+		static StringPool getStringPool(DeserializationContext ctxt)
+		{
+			return (StringPool) ctxt.getAttribute(StringPool.class);
+		}
+		
+		/**
+		 * Reads a string which is likely to repeat across the updates, from the pool if there is one.
+		 */
+		String readPooledString(JsonParser p, DeserializationContext ctxt, StringPool stringPool) throws IOException
+		{
+			if(stringPool == null || p.getCurrentToken() != JsonToken.VALUE_STRING) return _parseString(p, ctxt);
+			return stringPool.intern(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+		}
+		
+		static <V> V readObject(JsonParser p, DeserializationContext ctxt, BeanDeserializer<V> deserializer)
+				throws IOException
+		{
+			if(p.getCurrentToken() == JsonToken.VALUE_NULL) return null;
+			return deserializer.deserialize(p, ctxt);
+		}
+		
+		static <V> V readObject(JsonParser p, DeserializationContext ctxt, Class<V> valueClass) throws IOException
+		{
+			if(p.getCurrentToken() == JsonToken.VALUE_NULL) return null;
+			return ctxt.readValue(p, valueClass);
+		}
+		
+		static <V> LazyValue<V> readLazy(JsonParser p, Class<V> valueClass) throws IOException
+		{
+			if(p.getCurrentToken() == JsonToken.VALUE_NULL) return null;
+			return new LazyValue<V>(JsonUtils.copyCurrentValue(p), valueClass);
+		}
+		
+		static <V> V[] readArray(JsonParser p, DeserializationContext ctxt, BeanDeserializer<V> deserializer,
+		                         V[] emptyArray) throws IOException
+		{
+			JsonToken token = p.getCurrentToken();
+			if(token == JsonToken.VALUE_NULL) return null;
+			if(token != JsonToken.START_ARRAY) throw ctxt.mappingException(deserializer.handledType(), token);
+			
+			List<V> elements = new ArrayList<V>();
+			while(p.nextToken() != JsonToken.END_ARRAY) elements.add(readObject(p, ctxt, deserializer));
+			return elements.toArray(emptyArray);
+		}
+	}
+	
+	private static class UserDeserializer extends BeanDeserializer<User>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		UserDeserializer()
+		{
+			super(User.class, "id", "first_name", "last_name", "username");
+		}
+		
+		@Override
+		public User deserialize(JsonParser p, DeserializationContext ctxt) throws IOException
+		{
+			int id = 0;
+			String firstName = null;
+			String lastName = null;
+			String username = null;
+			StringPool stringPool = getStringPool(ctxt);
+			
+			for(String name = firstProperty(p, ctxt); name != null; name = nextProperty(p))
+			{
+				switch(indexOf(name))
+				{
+					case 0: id = _parseIntPrimitive(p, ctxt); break;
+					case 1: firstName = readPooledString(p, ctxt, stringPool); break;
+					case 2: lastName = readPooledString(p, ctxt, stringPool); break;
+					case 3: username = readPooledString(p, ctxt, stringPool); break;
+					default: skipUnknownProperty(p, ctxt, name);
+				}
+			}
+			
+			return new User(id, firstName, lastName, username);
+		}
+	}
+	
+	private static class ChatDeserializer extends BeanDeserializer<Chat>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		ChatDeserializer()
+		{
+			super(Chat.class, "id", "type", "title", "username", "first_name", "last_name");
+		}
+		
+		@Override
+		public Chat deserialize(JsonParser p, DeserializationContext ctxt) throws IOException
+		{
+			long id = 0;
+			ChatType type = null;
+			String title = null;
+			String username = null;
+			String firstName = null;
+			String lastName = null;
+			StringPool stringPool = getStringPool(ctxt);
+			
+			for(String name = firstProperty(p, ctxt); name != null; name = nextProperty(p))
+			{
+				switch(indexOf(name))
+				{
+					case 0: id = _parseLongPrimitive(p, ctxt); break;
+					case 1: type = readObject(p, ctxt, ChatType.class); break;
+					case 2: title = readPooledString(p, ctxt, stringPool); break;
+					case 3: username = readPooledString(p, ctxt, stringPool); break;
+					case 4: firstName = readPooledString(p, ctxt, stringPool); break;
+					case 5: lastName = readPooledString(p, ctxt, stringPool); break;
+					default: skipUnknownProperty(p, ctxt, name);
+				}
+			}
+			
+			return new Chat(id, type, title, username, firstName, lastName);
+		}
+	}
+	
+	private static class PhotoSizeDeserializer extends BeanDeserializer<PhotoSize>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		PhotoSizeDeserializer()
+		{
+			super(PhotoSize.class, "file_id", "width", "height", "file_size", "file_path");
+		}
+		
+		@Override
+		public PhotoSize deserialize(JsonParser p, DeserializationContext ctxt) throws IOException
+		{
+			String fileId = null;
+			int width = 0;
+			int height = 0;
+			Integer fileSize = null;
+			String filePath = null;
+			StringPool stringPool = getStringPool(ctxt);
+			
+			for(String name = firstProperty(p, ctxt); name != null; name = nextProperty(p))
+			{
+				switch(indexOf(name))
+				{
+					case 0: fileId = readPooledString(p, ctxt, stringPool); break;
+					case 1: width = _parseIntPrimitive(p, ctxt); break;
+					case 2: height = _parseIntPrimitive(p, ctxt); break;
+					case 3: fileSize = _parseInteger(p, ctxt); break;
+					case 4: filePath = _parseString(p, ctxt); break;
+					default: skipUnknownProperty(p, ctxt, name);
+				}
+			}
+			
+			return new PhotoSize(fileId, width, height, fileSize, filePath);
+		}
+	}
+	
+	private static class MessageEntityDeserializer extends BeanDeserializer<MessageEntity>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		MessageEntityDeserializer()
+		{
+			super(MessageEntity.class, "type", "offset", "length", "url", "user");
+		}
+		
+		@Override
+		public MessageEntity deserialize(JsonParser p, DeserializationContext ctxt) throws IOException
+		{
+			MessageEntityType type = null;
+			int offset = 0;
+			int length = 0;
+			String url = null;
+			User user = null;
+			
+			for(String name = firstProperty(p, ctxt); name != null; name = nextProperty(p))
+			{
+				switch(indexOf(name))
+				{
+					case 0: type = readObject(p, ctxt, MessageEntityType.class); break;
+					case 1: offset = _parseIntPrimitive(p, ctxt); break;
+					case 2: length = _parseIntPrimitive(p, ctxt); break;
+					case 3: url = _parseString(p, ctxt); break;
+					case 4: user = readObject(p, ctxt, USER); break;
+					default: skipUnknownProperty(p, ctxt, name);
+				}
+			}
+			
+			return new MessageEntity(type, offset, length, url, user);
+		}
+	}
+	
+	private static class MessageDeserializer extends BeanDeserializer<Message>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		MessageDeserializer()
+		{
+			super(Message.class, MESSAGE_PROPERTIES);
+		}
+		
+		@Override
+		public Message deserialize(JsonParser p, DeserializationContext ctxt) throws IOException
+		{
+			int messageId = 0;
+			User from = null;
+			int date = 0;
+			Chat chat = null;
+			User forwardFrom = null;
+			Chat forwardFromChat = null;
+			Integer forwardDate = null;
+			Message replyToMessage = null;
+			int editDate = 0;
+			String text = null;
+			MessageEntity[] entities = null;
+			Audio audio = null;
+			Document document = null;
+			PhotoSize[] photo = null;
+			Sticker sticker = null;
+			Video video = null;
+			Voice voice = null;
+			String caption = null;
+			Contact contact = null;
+			Location location = null;
+			Venue venue = null;
+			User newChatMember = null;
+			User leftChatMember = null;
+			String newChatTitle = null;
+			PhotoSize[] newChatPhoto = null;
+			Boolean deleteChatPhoto = null;
+			Boolean groupChatCreated = null;
+			Boolean superGroupChatCreated = null;
+			Boolean channelChatCreated = null;
+			Long migrateToChatId = null;
+			Long migrateFromChatId = null;
+			Message pinnedMessage = null;
+			long decodedProperties = getFieldProjection(ctxt).messageFields;
+			
+			for(String name = firstProperty(p, ctxt); name != null; name = nextProperty(p))
+			{
+				switch(indexOf(name, decodedProperties))
+				{
+					case SKIPPED_PROPERTY: p.skipChildren(); break;
+					case 0: messageId = _parseIntPrimitive(p, ctxt); break;
+					case 1: from = readObject(p, ctxt, USER); break;
+					case 2: date = _parseIntPrimitive(p, ctxt); break;
+					case 3: chat = readObject(p, ctxt, CHAT); break;
+					case 4: forwardFrom = readObject(p, ctxt, USER); break;
+					case 5: forwardFromChat = readObject(p, ctxt, CHAT); break;
+					case 6: forwardDate = _parseInteger(p, ctxt); break;
+					case 7: replyToMessage = readObject(p, ctxt, this); break;
+					case 8: editDate = _parseIntPrimitive(p, ctxt); break;
+					case 9: text = _parseString(p, ctxt); break;
+					case 10: entities = readArray(p, ctxt, MESSAGE_ENTITY, NO_MESSAGE_ENTITIES); break;
+					case 11: audio = readObject(p, ctxt, Audio.class); break;
+					case 12: document = readObject(p, ctxt, Document.class); break;
+					case 13: photo = readArray(p, ctxt, PHOTO_SIZE, NO_PHOTO_SIZES); break;
+					case 14: sticker = readObject(p, ctxt, Sticker.class); break;
+					case 15: video = readObject(p, ctxt, Video.class); break;
+					case 16: voice = readObject(p, ctxt, Voice.class); break;
+					case 17: caption = _parseString(p, ctxt); break;
+					case 18: contact = readObject(p, ctxt, Contact.class); break;
+					case 19: location = readObject(p, ctxt, Location.class); break;
+					case 20: venue = readObject(p, ctxt, Venue.class); break;
+					case 21: newChatMember = readObject(p, ctxt, USER); break;
+					case 22: leftChatMember = readObject(p, ctxt, USER); break;
+					case 23: newChatTitle = _parseString(p, ctxt); break;
+					case 24: newChatPhoto = readArray(p, ctxt, PHOTO_SIZE, NO_PHOTO_SIZES); break;
+					case 25: deleteChatPhoto = _parseBoolean(p, ctxt); break;
+					case 26: groupChatCreated = _parseBoolean(p, ctxt); break;
+					case 27: superGroupChatCreated = _parseBoolean(p, ctxt); break;
+					case 28: channelChatCreated = _parseBoolean(p, ctxt); break;
+					case 29: migrateToChatId = _parseLong(p, ctxt); break;
+					case 30: migrateFromChatId = _parseLong(p, ctxt); break;
+					case 31: pinnedMessage = readObject(p, ctxt, this); break;
+					default: skipUnknownProperty(p, ctxt, name);
+				}
+			}
+			
+			return new Message(messageId, from, date, chat, forwardFrom, forwardFromChat, forwardDate, replyToMessage,
+			                   editDate, text, entities, audio, document, photo, sticker, video, voice, caption, contact,
+			                   location, venue, newChatMember, leftChatMember, newChatTitle, newChatPhoto, deleteChatPhoto,
+			                   groupChatCreated, superGroupChatCreated, channelChatCreated, migrateToChatId,
+			                   migrateFromChatId, pinnedMessage);
+		}
+	}
+	
+	private static class UpdateDeserializer extends BeanDeserializer<Update>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		UpdateDeserializer()
+		{
+			super(Update.class, UPDATE_PROPERTIES);
+		}
+		
+		@Override
+		public Update deserialize(JsonParser p, DeserializationContext ctxt) throws IOException
+		{
+			int updateId = 0;
+			Message message = null;
+			Message editedMessage = null;
+			InlineQuery inlineQuery = null;
+			ChosenInlineResult chosenInlineResult = null;
+			CallbackQuery callbackQuery = null;
+			long decodedProperties = getFieldProjection(ctxt).updateFields;
+			
+			for(String name = firstProperty(p, ctxt); name != null; name = nextProperty(p))
+			{
+				switch(indexOf(name, decodedProperties))
+				{
+					case SKIPPED_PROPERTY: p.skipChildren(); break;
+					case 0: updateId = _parseIntPrimitive(p, ctxt); break;
+					case 1: message = readObject(p, ctxt, MESSAGE); break;
+					case 2: editedMessage = readObject(p, ctxt, MESSAGE); break;
+					case 3: inlineQuery = readObject(p, ctxt, InlineQuery.class); break;
+					case 4: chosenInlineResult = readObject(p, ctxt, ChosenInlineResult.class); break;
+					case 5: callbackQuery = readObject(p, ctxt, CallbackQuery.class); break;
+					default: skipUnknownProperty(p, ctxt, name);
+				}
+			}
+			
+			return new Update(updateId, message, editedMessage, inlineQuery, chosenInlineResult, callbackQuery);
+		}
+	}
+	
+	private static class LazyMessageDeserializer extends BeanDeserializer<LazyMessage>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		LazyMessageDeserializer()
+		{
+			super(LazyMessage.class, MESSAGE_PROPERTIES);
+		}
+		
+		@Override
+		public LazyMessage deserialize(JsonParser p, DeserializationContext ctxt) throws IOException
+		{
+			int messageId = 0;
+			User from = null;
+			int date = 0;
+			Chat chat = null;
+			User forwardFrom = null;
+			Chat forwardFromChat = null;
+			Integer forwardDate = null;
+			LazyValue<LazyMessage> replyToMessage = null;
+			int editDate = 0;
+			String text = null;
+			LazyValue<MessageEntity[]> entities = null;
+			LazyValue<Audio> audio = null;
+			LazyValue<Document> document = null;
+			LazyValue<PhotoSize[]> photo = null;
+			LazyValue<Sticker> sticker = null;
+			LazyValue<Video> video = null;
+			LazyValue<Voice> voice = null;
+			String caption = null;
+			LazyValue<Contact> contact = null;
+			LazyValue<Location> location = null;
+			LazyValue<Venue> venue = null;
+			User newChatMember = null;
+			User leftChatMember = null;
+			String newChatTitle = null;
+			LazyValue<PhotoSize[]> newChatPhoto = null;
+			Boolean deleteChatPhoto = null;
+			Boolean groupChatCreated = null;
+			Boolean superGroupChatCreated = null;
+			Boolean channelChatCreated = null;
+			Long migrateToChatId = null;
+			Long migrateFromChatId = null;
+			LazyValue<LazyMessage> pinnedMessage = null;
+			long decodedProperties = getFieldProjection(ctxt).messageFields;
+			
+			for(String name = firstProperty(p, ctxt); name != null; name = nextProperty(p))
+			{
+				switch(indexOf(name, decodedProperties))
+				{
+					case SKIPPED_PROPERTY: p.skipChildren(); break;
+					case 0: messageId = _parseIntPrimitive(p, ctxt); break;
+					case 1: from = readObject(p, ctxt, USER); break;
+					case 2: date = _parseIntPrimitive(p, ctxt); break;
+					case 3: chat = readObject(p, ctxt, CHAT); break;
+					case 4: forwardFrom = readObject(p, ctxt, USER); break;
+					case 5: forwardFromChat = readObject(p, ctxt, CHAT); break;
+					case 6: forwardDate = _parseInteger(p, ctxt); break;
+					case 7: replyToMessage = readLazy(p, LazyMessage.class); break;
+					case 8: editDate = _parseIntPrimitive(p, ctxt); break;
+					case 9: text = _parseString(p, ctxt); break;
+					case 10: entities = readLazy(p, MessageEntity[].class); break;
+					case 11: audio = readLazy(p, Audio.class); break;
+					case 12: document = readLazy(p, Document.class); break;
+					case 13: photo = readLazy(p, PhotoSize[].class); break;
+					case 14: sticker = readLazy(p, Sticker.class); break;
+					case 15: video = readLazy(p, Video.class); break;
+					case 16: voice = readLazy(p, Voice.class); break;
+					case 17: caption = _parseString(p, ctxt); break;
+					case 18: contact = readLazy(p, Contact.class); break;
+					case 19: location = readLazy(p, Location.class); break;
+					case 20: venue = readLazy(p, Venue.class); break;
+					case 21: newChatMember = readObject(p, ctxt, USER); break;
+					case 22: leftChatMember = readObject(p, ctxt, USER); break;
+					case 23: newChatTitle = _parseString(p, ctxt); break;
+					case 24: newChatPhoto = readLazy(p, PhotoSize[].class); break;
+					case 25: deleteChatPhoto = _parseBoolean(p, ctxt); break;
+					case 26: groupChatCreated = _parseBoolean(p, ctxt); break;
+					case 27: superGroupChatCreated = _parseBoolean(p, ctxt); break;
+					case 28: channelChatCreated = _parseBoolean(p, ctxt); break;
+					case 29: migrateToChatId = _parseLong(p, ctxt); break;
+					case 30: migrateFromChatId = _parseLong(p, ctxt); break;
+					case 31: pinnedMessage = readLazy(p, LazyMessage.class); break;
+					default: skipUnknownProperty(p, ctxt, name);
+				}
+			}
+			
+			return new LazyMessage(messageId, from, date, chat, forwardFrom, forwardFromChat, forwardDate,
+			                       replyToMessage, editDate, text, entities, audio, document, photo, sticker, video,
+			                       voice, caption, contact, location, venue, newChatMember, leftChatMember,
+			                       newChatTitle, newChatPhoto, deleteChatPhoto, groupChatCreated,
+			                       superGroupChatCreated, channelChatCreated, migrateToChatId, migrateFromChatId,
+			                       pinnedMessage);
+		}
+	}
+	
+	private static class LazyUpdateDeserializer extends BeanDeserializer<LazyUpdate>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		LazyUpdateDeserializer()
+		{
+			super(LazyUpdate.class, UPDATE_PROPERTIES);
+		}
+		
+		@Override
+		public LazyUpdate deserialize(JsonParser p, DeserializationContext ctxt) throws IOException
+		{
+			int updateId = 0;
+			Message message = null;
+			Message editedMessage = null;
+			InlineQuery inlineQuery = null;
+			ChosenInlineResult chosenInlineResult = null;
+			CallbackQuery callbackQuery = null;
+			long decodedProperties = getFieldProjection(ctxt).updateFields;
+			
+			for(String name = firstProperty(p, ctxt); name != null; name = nextProperty(p))
+			{
+				switch(indexOf(name, decodedProperties))
+				{
+					case SKIPPED_PROPERTY: p.skipChildren(); break;
+					case 0: updateId = _parseIntPrimitive(p, ctxt); break;
+					case 1: message = readObject(p, ctxt, LAZY_MESSAGE); break;
+					case 2: editedMessage = readObject(p, ctxt, LAZY_MESSAGE); break;
+					case 3: inlineQuery = readObject(p, ctxt, InlineQuery.class); break;
+					case 4: chosenInlineResult = readObject(p, ctxt, ChosenInlineResult.class); break;
+					case 5: callbackQuery = readObject(p, ctxt, CallbackQuery.class); break;
+					default: skipUnknownProperty(p, ctxt, name);
+				}
+			}
+			
+			return new LazyUpdate(updateId, message, editedMessage, inlineQuery, chosenInlineResult, callbackQuery);
+		}
+	}
+	
+	private static class UpdateBatchDeserializer extends StdDeserializer<UpdateBatch>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		UpdateBatchDeserializer()
+		{
+			super(UpdateBatch.class);
+		}
+		
+		@Override
+		public UpdateBatch deserialize(JsonParser p, DeserializationContext ctxt) throws IOException
+		{
+			JsonToken token = p.getCurrentToken();
+			if(token != JsonToken.START_ARRAY) throw ctxt.mappingException(handledType(), token);
+			
+			UpdateStream updateStream = (UpdateStream) ctxt.getAttribute(UpdateStream.class);
+			BeanDeserializer<? extends Update> deserializer =
+					updateStream != null && updateStream.isLazyDecoding() ? LAZY_UPDATE : UPDATE;
+			List<Update> updates = new ArrayList<Update>();
+			
+			while(p.nextToken() != JsonToken.END_ARRAY)
+			{
+				Update update = BeanDeserializer.readObject(p, ctxt, deserializer);
+				if(updateStream != null) updateStream.getListener().onUpdate(update);
+				else updates.add(update);
+			}
+			
+			return new UpdateBatch(updates);
+		}
+	}
+}
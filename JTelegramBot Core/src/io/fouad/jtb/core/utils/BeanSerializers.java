@@ -0,0 +1,846 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Fouad Almalki
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.fouad.jtb.core.utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.module.SimpleSerializers;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import io.fouad.jtb.core.beans.*;
+
+import java.io.IOException;
+
+/**
+ * Hand-written serializers for the beans which are sent to the Telegram server: the reply markups and their
+ * buttons, the results of inline queries and their message contents. They write the properties by calling the
+ * getters directly, so Jackson neither introspects these classes nor reads their fields by reflection, and the
+ * property names are encoded once. The output is the same as the one of the serializers of Jackson, i.e. the
+ * properties are written in the same order and the null ones are omitted.
+ * <p>
+ * The serializers are only used for these exact classes. A subclass may add properties of its own, so it is still
+ * serialized by Jackson.
+ */
+public class BeanSerializers
+{
+	// the names of the properties, as declared by the @JsonProperty annotations of the beans
+	private static final SerializedString TYPE = new SerializedString("type");
+	private static final SerializedString ID = new SerializedString("id");
+	private static final SerializedString REPLY_MARKUP = new SerializedString("reply_markup");
+	private static final SerializedString INLINE_KEYBOARD = new SerializedString("inline_keyboard");
+	private static final SerializedString KEYBOARD = new SerializedString("keyboard");
+	private static final SerializedString RESIZE_KEYBOARD = new SerializedString("resize_keyboard");
+	private static final SerializedString ONE_TIME_KEYBOARD = new SerializedString("one_time_keyboard");
+	private static final SerializedString SELECTIVE = new SerializedString("selective");
+	private static final SerializedString HIDE_KEYBOARD = new SerializedString("hide_keyboard");
+	private static final SerializedString FORCE_REPLY = new SerializedString("force_reply");
+	private static final SerializedString TEXT = new SerializedString("text");
+	private static final SerializedString URL = new SerializedString("url");
+	private static final SerializedString CALLBACK_DATA = new SerializedString("callback_data");
+	private static final SerializedString SWITCH_INLINE_QUERY = new SerializedString("switch_inline_query");
+	private static final SerializedString REQUEST_CONTACT = new SerializedString("request_contact");
+	private static final SerializedString REQUEST_LOCATION = new SerializedString("request_location");
+	private static final SerializedString MESSAGE_TEXT = new SerializedString("message_text");
+	private static final SerializedString PARSE_MODE = new SerializedString("parse_mode");
+	private static final SerializedString DISABLE_WEB_PAGE_PREVIEW = new SerializedString("disable_web_page_preview");
+	private static final SerializedString LATITUDE = new SerializedString("latitude");
+	private static final SerializedString LONGITUDE = new SerializedString("longitude");
+	private static final SerializedString TITLE = new SerializedString("title");
+	private static final SerializedString ADDRESS = new SerializedString("address");
+	private static final SerializedString FOURSQUARE_ID = new SerializedString("foursquare_id");
+	private static final SerializedString PHONE_NUMBER = new SerializedString("phone_number");
+	private static final SerializedString FIRST_NAME = new SerializedString("first_name");
+	private static final SerializedString LAST_NAME = new SerializedString("last_name");
+	private static final SerializedString INPUT_MESSAGE_CONTENT = new SerializedString("input_message_content");
+	private static final SerializedString HIDE_URL = new SerializedString("hide_url");
+	private static final SerializedString DESCRIPTION = new SerializedString("description");
+	private static final SerializedString THUMB_URL = new SerializedString("thumb_url");
+	private static final SerializedString THUMB_WIDTH = new SerializedString("thumb_width");
+	private static final SerializedString THUMB_HEIGHT = new SerializedString("thumb_height");
+	private static final SerializedString PHOTO_URL = new SerializedString("photo_url");
+	private static final SerializedString PHOTO_WIDTH = new SerializedString("photo_width");
+	private static final SerializedString PHOTO_HEIGHT = new SerializedString("photo_height");
+	private static final SerializedString CAPTION = new SerializedString("caption");
+	private static final SerializedString GIF_URL = new SerializedString("gif_url");
+	private static final SerializedString GIF_WIDTH = new SerializedString("gif_width");
+	private static final SerializedString GIF_HEIGHT = new SerializedString("gif_height");
+	private static final SerializedString MPEG4_URL = new SerializedString("mpeg4_url");
+	private static final SerializedString MPEG4_WIDTH = new SerializedString("mpeg4_width");
+	private static final SerializedString MPEG4_HEIGHT = new SerializedString("mpeg4_height");
+	private static final SerializedString INPUT_MESSAGE_CONTENT_OF_MPEG4_GIF = new SerializedString("inputMessageContent");
+	private static final SerializedString VIDEO_URL = new SerializedString("video_url");
+	private static final SerializedString MIME_TYPE = new SerializedString("mime_type");
+	private static final SerializedString VIDEO_WIDTH = new SerializedString("video_width");
+	private static final SerializedString VIDEO_HEIGHT = new SerializedString("video_height");
+	private static final SerializedString VIDEO_DURATION = new SerializedString("video_duration");
+	private static final SerializedString AUDIO_URL = new SerializedString("audio_url");
+	private static final SerializedString PERFORMER = new SerializedString("performer");
+	private static final SerializedString AUDIO_DURATION = new SerializedString("audio_duration");
+	private static final SerializedString VOICE_URL = new SerializedString("voice_url");
+	private static final SerializedString VOICE_DURATION = new SerializedString("voice_duration");
+	private static final SerializedString DOCUMENT_URL = new SerializedString("document_url");
+	private static final SerializedString PHOTO_FILE_ID = new SerializedString("photo_file_id");
+	private static final SerializedString GIF_FILE_ID = new SerializedString("gif_file_id");
+	private static final SerializedString MPEG4_FILE_ID = new SerializedString("mpeg4_file_id");
+	private static final SerializedString STICKER_FILE_ID = new SerializedString("sticker_file_id");
+	private static final SerializedString DOCUMENT_FILE_ID = new SerializedString("document_file_id");
+	private static final SerializedString VIDEO_FILE_ID = new SerializedString("video_file_id");
+	private static final SerializedString VOICE_FILE_ID = new SerializedString("voice_file_id");
+	private static final SerializedString AUDIO_FILE_ID = new SerializedString("audio_file_id");
+	
+	// the serializers which the others call directly for the nested beans
+	private static final InlineKeyboardMarkupSerializer INLINE_KEYBOARD_MARKUP = new InlineKeyboardMarkupSerializer();
+	private static final InlineKeyboardButtonSerializer INLINE_KEYBOARD_BUTTON = new InlineKeyboardButtonSerializer();
+	private static final KeyboardButtonSerializer KEYBOARD_BUTTON = new KeyboardButtonSerializer();
+	
+	/**
+	 * @return a module which registers the serializers into an <code>ObjectMapper</code>
+	 */
+	public static Module createModule()
+	{
+		SimpleSerializers serializers = new ExactClassSerializers();
+		serializers.addSerializer(InlineKeyboardMarkup.class, INLINE_KEYBOARD_MARKUP);
+		serializers.addSerializer(ReplyKeyboardMarkup.class, new ReplyKeyboardMarkupSerializer());
+		serializers.addSerializer(ReplyKeyboardHide.class, new ReplyKeyboardHideSerializer());
+		serializers.addSerializer(ForceReply.class, new ForceReplySerializer());
+		serializers.addSerializer(InlineKeyboardButton.class, INLINE_KEYBOARD_BUTTON);
+		serializers.addSerializer(KeyboardButton.class, KEYBOARD_BUTTON);
+		serializers.addSerializer(InputTextMessageContent.class, new InputTextMessageContentSerializer());
+		serializers.addSerializer(InputLocationMessageContent.class, new InputLocationMessageContentSerializer());
+		serializers.addSerializer(InputVenueMessageContent.class, new InputVenueMessageContentSerializer());
+		serializers.addSerializer(InputContactMessageContent.class, new InputContactMessageContentSerializer());
+		serializers.addSerializer(InlineQueryResultArticle.class, new InlineQueryResultArticleSerializer());
+		serializers.addSerializer(InlineQueryResultPhoto.class, new InlineQueryResultPhotoSerializer());
+		serializers.addSerializer(InlineQueryResultGif.class, new InlineQueryResultGifSerializer());
+		serializers.addSerializer(InlineQueryResultMpeg4Gif.class, new InlineQueryResultMpeg4GifSerializer());
+		serializers.addSerializer(InlineQueryResultVideo.class, new InlineQueryResultVideoSerializer());
+		serializers.addSerializer(InlineQueryResultAudio.class, new InlineQueryResultAudioSerializer());
+		serializers.addSerializer(InlineQueryResultVoice.class, new InlineQueryResultVoiceSerializer());
+		serializers.addSerializer(InlineQueryResultDocument.class, new InlineQueryResultDocumentSerializer());
+		serializers.addSerializer(InlineQueryResultLocation.class, new InlineQueryResultLocationSerializer());
+		serializers.addSerializer(InlineQueryResultVenue.class, new InlineQueryResultVenueSerializer());
+		serializers.addSerializer(InlineQueryResultContact.class, new InlineQueryResultContactSerializer());
+		serializers.addSerializer(InlineQueryResultCachedPhoto.class, new InlineQueryResultCachedPhotoSerializer());
+		serializers.addSerializer(InlineQueryResultCachedGif.class, new InlineQueryResultCachedGifSerializer());
+		serializers.addSerializer(InlineQueryResultCachedMpeg4Gif.class, new InlineQueryResultCachedMpeg4GifSerializer());
+		serializers.addSerializer(InlineQueryResultCachedSticker.class, new InlineQueryResultCachedStickerSerializer());
+		serializers.addSerializer(InlineQueryResultCachedDocument.class, new InlineQueryResultCachedDocumentSerializer());
+		serializers.addSerializer(InlineQueryResultCachedVideo.class, new InlineQueryResultCachedVideoSerializer());
+		serializers.addSerializer(InlineQueryResultCachedVoice.class, new InlineQueryResultCachedVoiceSerializer());
+		serializers.addSerializer(InlineQueryResultCachedAudio.class, new InlineQueryResultCachedAudioSerializer());
+		
+		SimpleModule module = new SimpleModule("JTelegramBotOutboundBeans");
+		module.setSerializers(serializers);
+		return module;
+	}
+	
+	/**
+	 * Looks up the serializers by the exact class of the value, rather than by its closest registered superclass.
+	 */
+	private static class ExactClassSerializers extends SimpleSerializers
+	{
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		public JsonSerializer<?> findSerializer(SerializationConfig config, JavaType type, BeanDescription beanDesc)
+		{
+			JsonSerializer<?> serializer = super.findSerializer(config, type, beanDesc);
+			if(serializer != null && serializer.handledType() != type.getRawClass()) return null;
+			return serializer;
+		}
+	}
+	
+	/**
+	 * The base of the serializers, which writes the object around the properties and skips the null ones.
+	 */
+	private static abstract class BeanSerializer<T> extends StdSerializer<T>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		BeanSerializer(Class<T> beanClass)
+		{
+			super(beanClass);
+		}
+		
+		@Override
+		public void serialize(T bean, JsonGenerator generator, SerializerProvider provider) throws IOException
+		{
+			generator.writeStartObject();
+			generator.setCurrentValue(bean);
+			writeProperties(bean, generator, provider);
+			generator.writeEndObject();
+		}
+		
+		abstract void writeProperties(T bean, JsonGenerator generator, SerializerProvider provider) throws IOException;
+		
+		static void writeString(JsonGenerator generator, SerializableString name, String value) throws IOException
+		{
+			if(value == null) return;
+			
+			generator.writeFieldName(name);
+			generator.writeString(value);
+		}
+		
+		static void writeNumber(JsonGenerator generator, SerializableString name, Integer value) throws IOException
+		{
+			if(value == null) return;
+			
+			generator.writeFieldName(name);
+			generator.writeNumber(value);
+		}
+		
+		static void writeBoolean(JsonGenerator generator, SerializableString name, Boolean value) throws IOException
+		{
+			if(value == null) return;
+			
+			generator.writeFieldName(name);
+			generator.writeBoolean(value);
+		}
+		
+		/**
+		 * Writes an enum by its <code>toString()</code>, as the mapper enables WRITE_ENUMS_USING_TO_STRING.
+		 */
+		static void writeEnum(JsonGenerator generator, SerializableString name, Enum<?> value) throws IOException
+		{
+			if(value == null) return;
+			
+			generator.writeFieldName(name);
+			generator.writeString(value.toString());
+		}
+		
+		/**
+		 * Writes a nested bean by the serializer of its runtime class, e.g. one of the message contents.
+		 */
+		static void writeObject(JsonGenerator generator, SerializerProvider provider, SerializableString name,
+		                        Object value) throws IOException
+		{
+			if(value == null) return;
+			
+			generator.writeFieldName(name);
+			provider.defaultSerializeValue(value, generator);
+		}
+		
+		static <V> void writeObject(JsonGenerator generator, SerializerProvider provider, SerializableString name,
+		                            V value, BeanSerializer<V> serializer) throws IOException
+		{
+			if(value == null) return;
+			
+			generator.writeFieldName(name);
+			writeValue(generator, provider, value, serializer);
+		}
+		
+		static <V> void writeKeyboard(JsonGenerator generator, SerializerProvider provider, SerializableString name,
+		                              V[][] rows, BeanSerializer<V> serializer) throws IOException
+		{
+			if(rows == null) return;
+			
+			generator.writeFieldName(name);
+			generator.writeStartArray();
+			for(V[] row : rows)
+			{
+				if(row == null)
+				{
+					generator.writeNull();
+					continue;
+				}
+				
+				generator.writeStartArray();
+				for(V button : row) writeValue(generator, provider, button, serializer);
+				generator.writeEndArray();
+			}
+			generator.writeEndArray();
+		}
+		
+		/**
+		 * Writes a value by the given serializer, or by the one of its subclass if it is an instance of a subclass.
+		 */
+		static <V> void writeValue(JsonGenerator generator, SerializerProvider provider, V value,
+		                           BeanSerializer<V> serializer) throws IOException
+		{
+			if(value == null) generator.writeNull();
+			else if(value.getClass() == serializer.handledType()) serializer.serialize(value, generator, provider);
+			else provider.defaultSerializeValue(value, generator);
+		}
+	}
+	
+	/**
+	 * The base of the serializers of the inline query results, which writes the common properties first.
+	 */
+	private static abstract class InlineQueryResultSerializer<T extends InlineQueryResult> extends BeanSerializer<T>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		InlineQueryResultSerializer(Class<T> resultClass)
+		{
+			super(resultClass);
+		}
+		
+		@Override
+		void writeProperties(T result, JsonGenerator generator, SerializerProvider provider) throws IOException
+		{
+			writeString(generator, TYPE, result.getType());
+			writeString(generator, ID, result.getId());
+			writeObject(generator, provider, REPLY_MARKUP, result.getReplyMarkup(), INLINE_KEYBOARD_MARKUP);
+			writeResultProperties(result, generator, provider);
+		}
+		
+		abstract void writeResultProperties(T result, JsonGenerator generator, SerializerProvider provider)
+				throws IOException;
+	}
+	
+	private static class InlineKeyboardMarkupSerializer extends BeanSerializer<InlineKeyboardMarkup>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		InlineKeyboardMarkupSerializer(){super(InlineKeyboardMarkup.class);}
+		
+		@Override
+		void writeProperties(InlineKeyboardMarkup markup, JsonGenerator generator, SerializerProvider provider)
+				throws IOException
+		{
+			writeKeyboard(generator, provider, INLINE_KEYBOARD, markup.getInlineKeyboard(), INLINE_KEYBOARD_BUTTON);
+		}
+	}
+	
+	private static class ReplyKeyboardMarkupSerializer extends BeanSerializer<ReplyKeyboardMarkup>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		ReplyKeyboardMarkupSerializer(){super(ReplyKeyboardMarkup.class);}
+		
+		@Override
+		void writeProperties(ReplyKeyboardMarkup markup, JsonGenerator generator, SerializerProvider provider)
+				throws IOException
+		{
+			writeKeyboard(generator, provider, KEYBOARD, markup.getKeyboard(), KEYBOARD_BUTTON);
+			writeBoolean(generator, RESIZE_KEYBOARD, markup.getResizeKeyboard());
+			writeBoolean(generator, ONE_TIME_KEYBOARD, markup.getOneTimeKeyboard());
+			writeBoolean(generator, SELECTIVE, markup.getSelective());
+		}
+	}
+	
+	private static class ReplyKeyboardHideSerializer extends BeanSerializer<ReplyKeyboardHide>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		ReplyKeyboardHideSerializer(){super(ReplyKeyboardHide.class);}
+		
+		@Override
+		void writeProperties(ReplyKeyboardHide markup, JsonGenerator generator, SerializerProvider provider)
+				throws IOException
+		{
+			generator.writeFieldName(HIDE_KEYBOARD);
+			generator.writeBoolean(markup.isHideKeyboard());
+			writeBoolean(generator, SELECTIVE, markup.getSelective());
+		}
+	}
+	
+	private static class ForceReplySerializer extends BeanSerializer<ForceReply>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		ForceReplySerializer(){super(ForceReply.class);}
+		
+		@Override
+		void writeProperties(ForceReply markup, JsonGenerator generator, SerializerProvider provider)
+				throws IOException
+		{
+			generator.writeFieldName(FORCE_REPLY);
+			generator.writeBoolean(markup.isForceReply());
+			writeBoolean(generator, SELECTIVE, markup.getSelective());
+		}
+	}
+	
+	private static class InlineKeyboardButtonSerializer extends BeanSerializer<InlineKeyboardButton>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		InlineKeyboardButtonSerializer(){super(InlineKeyboardButton.class);}
+		
+		@Override
+		void writeProperties(InlineKeyboardButton button, JsonGenerator generator, SerializerProvider provider)
+				throws IOException
+		{
+			writeString(generator, TEXT, button.getText());
+			writeString(generator, URL, button.getUrl());
+			writeString(generator, CALLBACK_DATA, button.getCallbackData());
+			writeString(generator, SWITCH_INLINE_QUERY, button.getSwitchInlineQuery());
+		}
+	}
+	
+	private static class KeyboardButtonSerializer extends BeanSerializer<KeyboardButton>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		KeyboardButtonSerializer(){super(KeyboardButton.class);}
+		
+		@Override
+		void writeProperties(KeyboardButton button, JsonGenerator generator, SerializerProvider provider)
+				throws IOException
+		{
+			writeString(generator, TEXT, button.getText());
+			writeBoolean(generator, REQUEST_CONTACT, button.getRequestContact());
+			writeBoolean(generator, REQUEST_LOCATION, button.getRequestLocation());
+		}
+	}
+	
+	private static class InputTextMessageContentSerializer extends BeanSerializer<InputTextMessageContent>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		InputTextMessageContentSerializer(){super(InputTextMessageContent.class);}
+		
+		@Override
+		void writeProperties(InputTextMessageContent content, JsonGenerator generator, SerializerProvider provider)
+				throws IOException
+		{
+			writeString(generator, MESSAGE_TEXT, content.getMessageText());
+			writeEnum(generator, PARSE_MODE, content.getParseMode());
+			writeBoolean(generator, DISABLE_WEB_PAGE_PREVIEW, content.getDisableLinkPreviews());
+		}
+	}
+	
+	private static class InputLocationMessageContentSerializer extends BeanSerializer<InputLocationMessageContent>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		InputLocationMessageContentSerializer(){super(InputLocationMessageContent.class);}
+		
+		@Override
+		void writeProperties(InputLocationMessageContent content, JsonGenerator generator, SerializerProvider provider)
+				throws IOException
+		{
+			generator.writeFieldName(LATITUDE);
+			generator.writeNumber(content.getLatitude());
+			generator.writeFieldName(LONGITUDE);
+			generator.writeNumber(content.getLongitude());
+		}
+	}
+	
+	private static class InputVenueMessageContentSerializer extends BeanSerializer<InputVenueMessageContent>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		InputVenueMessageContentSerializer(){super(InputVenueMessageContent.class);}
+		
+		@Override
+		void writeProperties(InputVenueMessageContent content, JsonGenerator generator, SerializerProvider provider)
+				throws IOException
+		{
+			generator.writeFieldName(LATITUDE);
+			generator.writeNumber(content.getLatitude());
+			generator.writeFieldName(LONGITUDE);
+			generator.writeNumber(content.getLongitude());
+			writeString(generator, TITLE, content.getTitle());
+			writeString(generator, ADDRESS, content.getAddress());
+			writeString(generator, FOURSQUARE_ID, content.getFoursquareId());
+		}
+	}
+	
+	private static class InputContactMessageContentSerializer extends BeanSerializer<InputContactMessageContent>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		InputContactMessageContentSerializer(){super(InputContactMessageContent.class);}
+		
+		@Override
+		void writeProperties(InputContactMessageContent content, JsonGenerator generator, SerializerProvider provider)
+				throws IOException
+		{
+			writeString(generator, PHONE_NUMBER, content.getPhoneNumber());
+			writeString(generator, FIRST_NAME, content.getFirstName());
+			writeString(generator, LAST_NAME, content.getLastName());
+		}
+	}
+	
+	private static class InlineQueryResultArticleSerializer extends InlineQueryResultSerializer<InlineQueryResultArticle>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		InlineQueryResultArticleSerializer(){super(InlineQueryResultArticle.class);}
+		
+		@Override
+		void writeResultProperties(InlineQueryResultArticle result, JsonGenerator generator, SerializerProvider provider)
+				throws IOException
+		{
+			writeString(generator, TITLE, result.getTitle());
+			writeObject(generator, provider, INPUT_MESSAGE_CONTENT, result.getInputMessageContent());
+			writeString(generator, URL, result.getUrl());
+			writeBoolean(generator, HIDE_URL, result.getHideUrl());
+			writeString(generator, DESCRIPTION, result.getDescription());
+			writeString(generator, THUMB_URL, result.getThumbUrl());
+			writeNumber(generator, THUMB_WIDTH, result.getThumbWidth());
+			writeNumber(generator, THUMB_HEIGHT, result.getThumbHeight());
+		}
+	}
+	
+	private static class InlineQueryResultPhotoSerializer extends InlineQueryResultSerializer<InlineQueryResultPhoto>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		InlineQueryResultPhotoSerializer(){super(InlineQueryResultPhoto.class);}
+		
+		@Override
+		void writeResultProperties(InlineQueryResultPhoto result, JsonGenerator generator, SerializerProvider provider)
+				throws IOException
+		{
+			writeString(generator, PHOTO_URL, result.getPhotoUrl());
+			writeString(generator, THUMB_URL, result.getThumbUrl());
+			writeNumber(generator, PHOTO_WIDTH, result.getPhotoWidth());
+			writeNumber(generator, PHOTO_HEIGHT, result.getPhotoHeight());
+			writeString(generator, TITLE, result.getTitle());
+			writeString(generator, DESCRIPTION, result.getDescription());
+			writeString(generator, CAPTION, result.getCaption());
+			writeObject(generator, provider, INPUT_MESSAGE_CONTENT, result.getInputMessageContent());
+		}
+	}
+	
+	private static class InlineQueryResultGifSerializer extends InlineQueryResultSerializer<InlineQueryResultGif>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		InlineQueryResultGifSerializer(){super(InlineQueryResultGif.class);}
+		
+		@Override
+		void writeResultProperties(InlineQueryResultGif result, JsonGenerator generator, SerializerProvider provider)
+				throws IOException
+		{
+			writeString(generator, GIF_URL, result.getGifUrl());
+			writeNumber(generator, GIF_WIDTH, result.getGifWidth());
+			writeNumber(generator, GIF_HEIGHT, result.getGifHeight());
+			writeString(generator, THUMB_URL, result.getThumbUrl());
+			writeString(generator, TITLE, result.getTitle());
+			writeString(generator, CAPTION, result.getCaption());
+			writeObject(generator, provider, INPUT_MESSAGE_CONTENT, result.getInputMessageContent());
+		}
+	}
+	
+	private static class InlineQueryResultMpeg4GifSerializer extends InlineQueryResultSerializer<InlineQueryResultMpeg4Gif>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		InlineQueryResultMpeg4GifSerializer(){super(InlineQueryResultMpeg4Gif.class);}
+		
+		@Override
+		void writeResultProperties(InlineQueryResultMpeg4Gif result, JsonGenerator generator, SerializerProvider provider)
+				throws IOException
+		{
+			writeString(generator, MPEG4_URL, result.getMpeg4Url());
+			writeNumber(generator, MPEG4_WIDTH, result.getMpeg4Width());
+			writeNumber(generator, MPEG4_HEIGHT, result.getMpeg4Height());
+			writeString(generator, THUMB_URL, result.getThumbUrl());
+			writeString(generator, TITLE, result.getTitle());
+			writeString(generator, CAPTION, result.getCaption());
+			writeObject(generator, provider, INPUT_MESSAGE_CONTENT_OF_MPEG4_GIF, result.getInputMessageContent());
+		}
+	}
+	
+	private static class InlineQueryResultVideoSerializer extends InlineQueryResultSerializer<InlineQueryResultVideo>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		InlineQueryResultVideoSerializer(){super(InlineQueryResultVideo.class);}
+		
+		@Override
+		void writeResultProperties(InlineQueryResultVideo result, JsonGenerator generator, SerializerProvider provider)
+				throws IOException
+		{
+			writeString(generator, VIDEO_URL, result.getVideoUrl());
+			writeEnum(generator, MIME_TYPE, result.getMimeType());
+			writeString(generator, THUMB_URL, result.getThumbUrl());
+			writeString(generator, TITLE, result.getTitle());
+			writeString(generator, CAPTION, result.getCaption());
+			writeNumber(generator, VIDEO_WIDTH, result.getVideoWidth());
+			writeNumber(generator, VIDEO_HEIGHT, result.getVideoHeight());
+			writeNumber(generator, VIDEO_DURATION, result.getVideoDuration());
+			writeString(generator, DESCRIPTION, result.getDescription());
+			writeObject(generator, provider, INPUT_MESSAGE_CONTENT, result.getInputMessageContent());
+		}
+	}
+	
+	private static class InlineQueryResultAudioSerializer extends InlineQueryResultSerializer<InlineQueryResultAudio>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		InlineQueryResultAudioSerializer(){super(InlineQueryResultAudio.class);}
+		
+		@Override
+		void writeResultProperties(InlineQueryResultAudio result, JsonGenerator generator, SerializerProvider provider)
+				throws IOException
+		{
+			writeString(generator, AUDIO_URL, result.getAudioUrl());
+			writeString(generator, TITLE, result.getTitle());
+			writeString(generator, PERFORMER, result.getPerformer());
+			writeNumber(generator, AUDIO_DURATION, result.getAudioDuration());
+			writeObject(generator, provider, INPUT_MESSAGE_CONTENT, result.getInputMessageContent());
+		}
+	}
+	
+	private static class InlineQueryResultVoiceSerializer extends InlineQueryResultSerializer<InlineQueryResultVoice>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		InlineQueryResultVoiceSerializer(){super(InlineQueryResultVoice.class);}
+		
+		@Override
+		void writeResultProperties(InlineQueryResultVoice result, JsonGenerator generator, SerializerProvider provider)
+				throws IOException
+		{
+			writeString(generator, VOICE_URL, result.getVoiceUrl());
+			writeString(generator, TITLE, result.getTitle());
+			writeNumber(generator, VOICE_DURATION, result.getVoiceDuration());
+			writeObject(generator, provider, INPUT_MESSAGE_CONTENT, result.getInputMessageContent());
+		}
+	}
+	
+	private static class InlineQueryResultDocumentSerializer extends InlineQueryResultSerializer<InlineQueryResultDocument>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		InlineQueryResultDocumentSerializer(){super(InlineQueryResultDocument.class);}
+		
+		@Override
+		void writeResultProperties(InlineQueryResultDocument result, JsonGenerator generator, SerializerProvider provider)
+				throws IOException
+		{
+			writeString(generator, TITLE, result.getTitle());
+			writeString(generator, CAPTION, result.getCaption());
+			writeString(generator, DOCUMENT_URL, result.getDocumentUrl());
+			writeEnum(generator, MIME_TYPE, result.getMimeType());
+			writeString(generator, DESCRIPTION, result.getDescription());
+			writeObject(generator, provider, INPUT_MESSAGE_CONTENT, result.getInputMessageContent());
+			writeString(generator, THUMB_URL, result.getThumbUrl());
+			writeNumber(generator, THUMB_WIDTH, result.getThumbWidth());
+			writeNumber(generator, THUMB_HEIGHT, result.getThumbHeight());
+		}
+	}
+	
+	private static class InlineQueryResultLocationSerializer extends InlineQueryResultSerializer<InlineQueryResultLocation>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		InlineQueryResultLocationSerializer(){super(InlineQueryResultLocation.class);}
+		
+		@Override
+		void writeResultProperties(InlineQueryResultLocation result, JsonGenerator generator, SerializerProvider provider)
+				throws IOException
+		{
+			generator.writeFieldName(LATITUDE);
+			generator.writeNumber(result.getLatitude());
+			generator.writeFieldName(LONGITUDE);
+			generator.writeNumber(result.getLongitude());
+			writeString(generator, TITLE, result.getTitle());
+			writeObject(generator, provider, INPUT_MESSAGE_CONTENT, result.getInputMessageContent());
+			writeString(generator, THUMB_URL, result.getThumbUrl());
+			writeNumber(generator, THUMB_WIDTH, result.getThumbWidth());
+			writeNumber(generator, THUMB_HEIGHT, result.getThumbHeight());
+		}
+	}
+	
+	private static class InlineQueryResultVenueSerializer extends InlineQueryResultSerializer<InlineQueryResultVenue>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		InlineQueryResultVenueSerializer(){super(InlineQueryResultVenue.class);}
+		
+		@Override
+		void writeResultProperties(InlineQueryResultVenue result, JsonGenerator generator, SerializerProvider provider)
+				throws IOException
+		{
+			generator.writeFieldName(LATITUDE);
+			generator.writeNumber(result.getLatitude());
+			generator.writeFieldName(LONGITUDE);
+			generator.writeNumber(result.getLongitude());
+			writeString(generator, TITLE, result.getTitle());
+			writeString(generator, ADDRESS, result.getAddress());
+			writeString(generator, FOURSQUARE_ID, result.getFoursquareId());
+			writeObject(generator, provider, INPUT_MESSAGE_CONTENT, result.getInputMessageContent());
+			writeString(generator, THUMB_URL, result.getThumbUrl());
+			writeNumber(generator, THUMB_WIDTH, result.getThumbWidth());
+			writeNumber(generator, THUMB_HEIGHT, result.getThumbHeight());
+		}
+	}
+	
+	private static class InlineQueryResultContactSerializer extends InlineQueryResultSerializer<InlineQueryResultContact>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		InlineQueryResultContactSerializer(){super(InlineQueryResultContact.class);}
+		
+		@Override
+		void writeResultProperties(InlineQueryResultContact result, JsonGenerator generator, SerializerProvider provider)
+				throws IOException
+		{
+			writeString(generator, PHONE_NUMBER, result.getPhoneNumber());
+			writeString(generator, FIRST_NAME, result.getFirstName());
+			writeString(generator, LAST_NAME, result.getLastName());
+			writeObject(generator, provider, INPUT_MESSAGE_CONTENT, result.getInputMessageContent());
+			writeString(generator, THUMB_URL, result.getThumbUrl());
+			writeNumber(generator, THUMB_WIDTH, result.getThumbWidth());
+			writeNumber(generator, THUMB_HEIGHT, result.getThumbHeight());
+		}
+	}
+	
+	private static class InlineQueryResultCachedPhotoSerializer extends InlineQueryResultSerializer<InlineQueryResultCachedPhoto>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		InlineQueryResultCachedPhotoSerializer(){super(InlineQueryResultCachedPhoto.class);}
+		
+		@Override
+		void writeResultProperties(InlineQueryResultCachedPhoto result, JsonGenerator generator, SerializerProvider provider)
+				throws IOException
+		{
+			writeString(generator, PHOTO_FILE_ID, result.getPhotoFileId());
+			writeString(generator, TITLE, result.getTitle());
+			writeString(generator, DESCRIPTION, result.getDescription());
+			writeString(generator, CAPTION, result.getCaption());
+			writeObject(generator, provider, INPUT_MESSAGE_CONTENT, result.getInputMessageContent());
+		}
+	}
+	
+	private static class InlineQueryResultCachedGifSerializer extends InlineQueryResultSerializer<InlineQueryResultCachedGif>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		InlineQueryResultCachedGifSerializer(){super(InlineQueryResultCachedGif.class);}
+		
+		@Override
+		void writeResultProperties(InlineQueryResultCachedGif result, JsonGenerator generator, SerializerProvider provider)
+				throws IOException
+		{
+			writeString(generator, GIF_FILE_ID, result.getGifFileId());
+			writeString(generator, TITLE, result.getTitle());
+			writeString(generator, CAPTION, result.getCaption());
+			writeObject(generator, provider, INPUT_MESSAGE_CONTENT, result.getInputMessageContent());
+		}
+	}
+	
+	private static class InlineQueryResultCachedMpeg4GifSerializer extends InlineQueryResultSerializer<InlineQueryResultCachedMpeg4Gif>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		InlineQueryResultCachedMpeg4GifSerializer(){super(InlineQueryResultCachedMpeg4Gif.class);}
+		
+		@Override
+		void writeResultProperties(InlineQueryResultCachedMpeg4Gif result, JsonGenerator generator, SerializerProvider provider)
+				throws IOException
+		{
+			writeString(generator, MPEG4_FILE_ID, result.getMpeg4FileId());
+			writeString(generator, TITLE, result.getTitle());
+			writeString(generator, CAPTION, result.getCaption());
+			writeObject(generator, provider, INPUT_MESSAGE_CONTENT, result.getInputMessageContent());
+		}
+	}
+	
+	private static class InlineQueryResultCachedStickerSerializer extends InlineQueryResultSerializer<InlineQueryResultCachedSticker>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		InlineQueryResultCachedStickerSerializer(){super(InlineQueryResultCachedSticker.class);}
+		
+		@Override
+		void writeResultProperties(InlineQueryResultCachedSticker result, JsonGenerator generator, SerializerProvider provider)
+				throws IOException
+		{
+			writeString(generator, STICKER_FILE_ID, result.getStickerFileId());
+			writeObject(generator, provider, INPUT_MESSAGE_CONTENT, result.getInputMessageContent());
+		}
+	}
+	
+	private static class InlineQueryResultCachedDocumentSerializer extends InlineQueryResultSerializer<InlineQueryResultCachedDocument>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		InlineQueryResultCachedDocumentSerializer(){super(InlineQueryResultCachedDocument.class);}
+		
+		@Override
+		void writeResultProperties(InlineQueryResultCachedDocument result, JsonGenerator generator, SerializerProvider provider)
+				throws IOException
+		{
+			writeString(generator, TITLE, result.getTitle());
+			writeString(generator, DOCUMENT_FILE_ID, result.getDocumentFileId());
+			writeString(generator, DESCRIPTION, result.getDescription());
+			writeString(generator, CAPTION, result.getCaption());
+			writeObject(generator, provider, INPUT_MESSAGE_CONTENT, result.getInputMessageContent());
+		}
+	}
+	
+	private static class InlineQueryResultCachedVideoSerializer extends InlineQueryResultSerializer<InlineQueryResultCachedVideo>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		InlineQueryResultCachedVideoSerializer(){super(InlineQueryResultCachedVideo.class);}
+		
+		@Override
+		void writeResultProperties(InlineQueryResultCachedVideo result, JsonGenerator generator, SerializerProvider provider)
+				throws IOException
+		{
+			writeString(generator, VIDEO_FILE_ID, result.getVideoFileId());
+			writeString(generator, TITLE, result.getTitle());
+			writeString(generator, DESCRIPTION, result.getDescription());
+			writeString(generator, CAPTION, result.getCaption());
+			writeObject(generator, provider, INPUT_MESSAGE_CONTENT, result.getInputMessageContent());
+		}
+	}
+	
+	private static class InlineQueryResultCachedVoiceSerializer extends InlineQueryResultSerializer<InlineQueryResultCachedVoice>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		InlineQueryResultCachedVoiceSerializer(){super(InlineQueryResultCachedVoice.class);}
+		
+		@Override
+		void writeResultProperties(InlineQueryResultCachedVoice result, JsonGenerator generator, SerializerProvider provider)
+				throws IOException
+		{
+			writeString(generator, VOICE_FILE_ID, result.getVoiceFileId());
+			writeString(generator, TITLE, result.getTitle());
+			writeObject(generator, provider, INPUT_MESSAGE_CONTENT, result.getInputMessageContent());
+		}
+	}
+	
+	private static class InlineQueryResultCachedAudioSerializer extends InlineQueryResultSerializer<InlineQueryResultCachedAudio>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		InlineQueryResultCachedAudioSerializer(){super(InlineQueryResultCachedAudio.class);}
+		
+		@Override
+		void writeResultProperties(InlineQueryResultCachedAudio result, JsonGenerator generator, SerializerProvider provider)
+				throws IOException
+		{
+			writeString(generator, AUDIO_FILE_ID, result.getAudioFileId());
+			writeObject(generator, provider, INPUT_MESSAGE_CONTENT, result.getInputMessageContent());
+		}
+	}
+}
@@ -0,0 +1,619 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Fouad Almalki
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.fouad.jtb.core.utils;
+
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.base.GeneratorBase;
+import com.fasterxml.jackson.core.json.JsonWriteContext;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes the beans into a compact binary form, to be used when updates are persisted or handed over to
+ * another process (e.g. in a queue or a journal) instead of re-serializing them as JSON.
+ * <p>
+ * The binary form is a tagged encoding of the JSON tokens that <code>JsonUtils</code> produces for the bean.
+ * The serializers of the bean write these tokens straight into the encoder, which is a <code>JsonGenerator</code>
+ * of its own, and decoding replays them through the regular deserializers, so decoding it gives back an object which is equal to the one decoded from the JSON form. The integers are
+ * written as zigzag varints, and the strings go through a table that is shared by the whole value: a field
+ * name or a string that appears again (e.g. the same user in <code>from</code> and <code>chat</code>) is
+ * written as a short reference to its first occurrence. The table starts with the field names and the
+ * common values of the Bot API, so the known fields take a single byte.
+ * <p>
+ * The first byte of the binary form is its version. The content of <code>COMMON_STRINGS</code> is part of
+ * the format, so new strings may only be appended to it along with a new version.
+ */
+public class BinaryCodec
+{
+	private static final int VERSION = 1;
+	
+	private static final int TYPE_NULL = 0;
+	private static final int TYPE_FALSE = 1;
+	private static final int TYPE_TRUE = 2;
+	private static final int TYPE_INT = 3;
+	private static final int TYPE_FLOAT = 4;
+	private static final int TYPE_DOUBLE = 5;
+	private static final int TYPE_BIG_INTEGER = 6;
+	private static final int TYPE_BIG_DECIMAL = 7;
+	private static final int TYPE_STRING = 8;
+	private static final int TYPE_STRING_REFERENCE = 9;
+	private static final int TYPE_OBJECT = 10;
+	private static final int TYPE_ARRAY = 11;
+	private static final int TYPE_END_ARRAY = 12;
+	
+	// each field of an object is prefixed by a varint: END_OBJECT ends the object, NEW_FIELD_NAME is followed
+	// by the name itself, and any other value refers to the entry (value - FIRST_FIELD_REFERENCE) of the table
+	private static final int END_OBJECT = 0;
+	private static final int NEW_FIELD_NAME = 1;
+	private static final int FIRST_FIELD_REFERENCE = 2;
+	
+	private static final String[] COMMON_STRINGS = {
+		// field names
+		"update_id", "message", "edited_message", "inline_query", "chosen_inline_result", "callback_query",
+		"message_id", "from", "date", "chat", "forward_from", "forward_from_chat", "forward_date",
+		"reply_to_message", "edit_date", "text", "entities", "audio", "document", "photo", "sticker", "video",
+		"voice", "caption", "contact", "location", "venue", "new_chat_member", "left_chat_member",
+		"new_chat_title", "new_chat_photo", "delete_chat_photo", "group_chat_created", "supergroup_chat_created",
+		"channel_chat_created", "migrate_to_chat_id", "migrate_from_chat_id", "pinned_message", "id",
+		"first_name", "last_name", "username", "type", "title", "offset", "length", "url", "user", "file_id",
+		"width", "height", "file_size", "file_path", "duration", "performer", "mime_type", "thumb", "file_name",
+		"emoji", "phone_number", "user_id", "longitude", "latitude", "address", "foursquare_id", "query",
+		"result_id", "inline_message_id", "data", "ok", "error_code", "result", "description",
+		// values
+		"private", "group", "supergroup", "channel", "mention", "hashtag", "bot_command", "text_link",
+		"text_mention", "bold", "italic", "code", "pre", "email"
+	};
+	
+	private static final Map<String, Integer> COMMON_STRING_INDEXES = new HashMap<String, Integer>();
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	
+	static
+	{
+		for(int i = 0; i < COMMON_STRINGS.length; i++) COMMON_STRING_INDEXES.put(COMMON_STRINGS[i], i);
+	}
+	
+	/**
+	 * Encodes the object (e.g. an <code>Update</code>) into its binary form.
+	 */
+	public static byte[] encode(Object javaObject) throws IOException
+	{
+		Encoder encoder = new Encoder();
+		encoder.encode(javaObject);
+		return Arrays.copyOf(encoder.buffer, encoder.size);
+	}
+	
+	/**
+	 * Encodes the object (e.g. an <code>Update</code>) into its binary form, and writes it to the stream.
+	 * The stream is not closed.
+	 */
+	public static void encode(Object javaObject, OutputStream outputStream) throws IOException
+	{
+		Encoder encoder = new Encoder();
+		encoder.encode(javaObject);
+		outputStream.write(encoder.buffer, 0, encoder.size);
+	}
+	
+	public static <T> T decode(byte[] data, Class<T> clazz) throws IOException
+	{
+		return decode(data, 0, data.length, clazz);
+	}
+	
+	/**
+	 * Decodes an object from the binary form which occupies the given region of the array.
+	 * 
+	 * @throws IOException if the region is not a valid binary form of an object of the given class
+	 */
+	public static <T> T decode(byte[] data, int offset, int length, Class<T> clazz) throws IOException
+	{
+		TokenBuffer tokens = new Decoder(data, offset, length).decode();
+		JsonParser parser = tokens.asParser();
+		
+		try
+		{
+			return JsonUtils.toJavaObject(parser, clazz);
+		}
+		finally
+		{
+			parser.close();
+		}
+	}
+	
+	/**
+	 * A generator which writes the binary form of the tokens instead of their JSON text.
+	 */
+	private static class Encoder extends GeneratorBase
+	{
+		private final Map<String, Integer> strings = new HashMap<String, Integer>();
+		private byte[] buffer = new byte[256];
+		private int size = 0;
+		
+		Encoder()
+		{
+			super(0, null);
+		}
+		
+		void encode(Object javaObject) throws IOException
+		{
+			put(VERSION);
+			JsonUtils.writeValue(this, javaObject);
+		}
+		
+		@Override
+		public void writeStartObject() throws IOException
+		{
+			_verifyValueWrite("start an object");
+			_writeContext = _writeContext.createChildObjectContext();
+			put(TYPE_OBJECT);
+		}
+		
+		@Override
+		public void writeEndObject() throws IOException
+		{
+			if(!_writeContext.inObject()) _reportError("Current context not an object but " + _writeContext.getTypeDesc());
+			_writeContext = _writeContext.getParent();
+			putVarint(END_OBJECT);
+		}
+		
+		@Override
+		public void writeStartArray() throws IOException
+		{
+			_verifyValueWrite("start an array");
+			_writeContext = _writeContext.createChildArrayContext();
+			put(TYPE_ARRAY);
+		}
+		
+		@Override
+		public void writeEndArray() throws IOException
+		{
+			if(!_writeContext.inArray()) _reportError("Current context not an array but " + _writeContext.getTypeDesc());
+			_writeContext = _writeContext.getParent();
+			put(TYPE_END_ARRAY);
+		}
+		
+		@Override
+		public void writeFieldName(String name) throws IOException
+		{
+			if(_writeContext.writeFieldName(name) == JsonWriteContext.STATUS_EXPECT_VALUE)
+				_reportError("Can not write a field name, expecting a value");
+			
+			int index = indexOf(name);
+			if(index >= 0) putVarint(index + FIRST_FIELD_REFERENCE);
+			else
+			{
+				putVarint(NEW_FIELD_NAME);
+				putText(name);
+			}
+		}
+		
+		@Override
+		public void writeString(String value) throws IOException
+		{
+			if(value == null)
+			{
+				writeNull();
+				return;
+			}
+			
+			_verifyValueWrite("write a string");
+			
+			int index = indexOf(value);
+			if(index >= 0)
+			{
+				put(TYPE_STRING_REFERENCE);
+				putVarint(index);
+			}
+			else
+			{
+				put(TYPE_STRING);
+				putText(value);
+			}
+		}
+		
+		@Override
+		public void writeString(char[] text, int offset, int length) throws IOException
+		{
+			writeString(new String(text, offset, length));
+		}
+		
+		@Override
+		public void writeRawUTF8String(byte[] text, int offset, int length) throws IOException
+		{
+			writeString(new String(text, offset, length, UTF_8));
+		}
+		
+		@Override
+		public void writeUTF8String(byte[] text, int offset, int length) throws IOException
+		{
+			writeString(new String(text, offset, length, UTF_8));
+		}
+		
+		@Override
+		public void writeBinary(Base64Variant variant, byte[] data, int offset, int length) throws IOException
+		{
+			// the same string as in the JSON form, so that it is decoded the same way
+			writeString(variant.encode(Arrays.copyOfRange(data, offset, offset + length)));
+		}
+		
+		@Override
+		public void writeNumber(int value) throws IOException
+		{
+			writeNumber((long) value);
+		}
+		
+		@Override
+		public void writeNumber(long value) throws IOException
+		{
+			_verifyValueWrite("write a number");
+			put(TYPE_INT);
+			putVarint((value << 1) ^ (value >> 63));
+		}
+		
+		@Override
+		public void writeNumber(BigInteger value) throws IOException
+		{
+			if(value == null)
+			{
+				writeNull();
+				return;
+			}
+			
+			_verifyValueWrite("write a number");
+			put(TYPE_BIG_INTEGER);
+			putText(value.toString());
+		}
+		
+		@Override
+		public void writeNumber(double value) throws IOException
+		{
+			_verifyValueWrite("write a number");
+			put(TYPE_DOUBLE);
+			putFixed(Double.doubleToLongBits(value), 8);
+		}
+		
+		@Override
+		public void writeNumber(float value) throws IOException
+		{
+			_verifyValueWrite("write a number");
+			put(TYPE_FLOAT);
+			putFixed(Float.floatToIntBits(value), 4);
+		}
+		
+		@Override
+		public void writeNumber(BigDecimal value) throws IOException
+		{
+			if(value == null)
+			{
+				writeNull();
+				return;
+			}
+			
+			_verifyValueWrite("write a number");
+			put(TYPE_BIG_DECIMAL);
+			putText(value.toString());
+		}
+		
+		@Override
+		public void writeNumber(String encodedValue) throws IOException
+		{
+			if(encodedValue == null) writeNull();
+			else writeNumber(new BigDecimal(encodedValue));
+		}
+		
+		@Override
+		public void writeBoolean(boolean state) throws IOException
+		{
+			_verifyValueWrite("write a boolean value");
+			put(state ? TYPE_TRUE : TYPE_FALSE);
+		}
+		
+		@Override
+		public void writeNull() throws IOException
+		{
+			_verifyValueWrite("write a null");
+			put(TYPE_NULL);
+		}
+		
+		/**
+		 * Encodes the tokens of a pre-serialized value, e.g. of a <code>FrozenReplyMarkup</code>.
+		 */
+		@Override
+		public void writeRawValue(String text) throws IOException
+		{
+			JsonParser parser = JsonUtils.createParser(text);
+			
+			try
+			{
+				parser.nextToken();
+				copyCurrentStructure(parser);
+			}
+			finally
+			{
+				parser.close();
+			}
+		}
+		
+		@Override
+		public void writeRawValue(SerializableString text) throws IOException
+		{
+			writeRawValue(text.getValue());
+		}
+		
+		@Override
+		public void writeRawValue(String text, int offset, int length) throws IOException
+		{
+			writeRawValue(text.substring(offset, offset + length));
+		}
+		
+		@Override
+		public void writeRawValue(char[] text, int offset, int length) throws IOException
+		{
+			writeRawValue(new String(text, offset, length));
+		}
+		
+		@Override
+		public void writeRaw(String text) throws IOException
+		{
+			_reportError("Raw content cannot be encoded into the binary form.");
+		}
+		
+		@Override
+		public void writeRaw(String text, int offset, int length) throws IOException
+		{
+			_reportError("Raw content cannot be encoded into the binary form.");
+		}
+		
+		@Override
+		public void writeRaw(char[] text, int offset, int length) throws IOException
+		{
+			_reportError("Raw content cannot be encoded into the binary form.");
+		}
+		
+		@Override
+		public void writeRaw(char c) throws IOException
+		{
+			_reportError("Raw content cannot be encoded into the binary form.");
+		}
+		
+		@Override
+		public void flush(){}
+		
+		@Override
+		protected void _releaseBuffers(){}
+		
+		@Override
+		protected void _verifyValueWrite(String typeMsg) throws IOException
+		{
+			if(_writeContext.writeValue() == JsonWriteContext.STATUS_EXPECT_NAME)
+				_reportError("Can not " + typeMsg + ", expecting field name");
+		}
+		
+		/**
+		 * @return the index of the string in the table, or -1 after adding it to the table
+		 */
+		private int indexOf(String s)
+		{
+			Integer index = COMMON_STRING_INDEXES.get(s);
+			if(index == null) index = strings.get(s);
+			if(index != null) return index;
+			
+			strings.put(s, COMMON_STRINGS.length + strings.size());
+			return -1;
+		}
+		
+		private void putText(String s)
+		{
+			byte[] bytes = s.getBytes(UTF_8);
+			putVarint(bytes.length);
+			ensureCapacity(bytes.length);
+			System.arraycopy(bytes, 0, buffer, size, bytes.length);
+			size += bytes.length;
+		}
+		
+		private void putVarint(long value)
+		{
+			ensureCapacity(10);
+			while((value & ~0x7FL) != 0)
+			{
+				buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			buffer[size++] = (byte) value;
+		}
+		
+		private void putFixed(long value, int bytes)
+		{
+			ensureCapacity(bytes);
+			for(int i = 0; i < bytes; i++) buffer[size++] = (byte) (value >>> (i * 8));
+		}
+		
+		private void put(int b)
+		{
+			ensureCapacity(1);
+			buffer[size++] = (byte) b;
+		}
+		
+		private void ensureCapacity(int extraBytes)
+		{
+			if(size + extraBytes <= buffer.length) return;
+			
+			int newCapacity = Math.max(buffer.length * 2, size + extraBytes);
+			buffer = Arrays.copyOf(buffer, newCapacity);
+		}
+	}
+	
+	private static class Decoder
+	{
+		private final List<String> strings = new ArrayList<String>();
+		private final TokenBuffer tokens = new TokenBuffer(null, false);
+		private final byte[] data;
+		private final int end;
+		private int position;
+		
+		Decoder(byte[] data, int offset, int length)
+		{
+			if(offset < 0 || length < 0 || offset + length > data.length) throw new IndexOutOfBoundsException();
+			
+			this.data = data;
+			this.position = offset;
+			this.end = offset + length;
+		}
+		
+		TokenBuffer decode() throws IOException
+		{
+			int version = next();
+			if(version != VERSION) throw new IOException("Unsupported version of the binary form: " + version);
+			
+			readValue(next());
+			if(position != end) throw new IOException("Unexpected data after the end of the binary form.");
+			
+			return tokens;
+		}
+		
+		private void readValue(int type) throws IOException
+		{
+			switch(type)
+			{
+				case TYPE_OBJECT:
+					tokens.writeStartObject();
+					int reference;
+					while((reference = (int) nextVarint()) != END_OBJECT)
+					{
+						tokens.writeFieldName(reference == NEW_FIELD_NAME ? nextNewString()
+						                                                  : getString(reference - FIRST_FIELD_REFERENCE));
+						readValue(next());
+					}
+					tokens.writeEndObject();
+					break;
+				case TYPE_ARRAY:
+					tokens.writeStartArray();
+					int elementType;
+					while((elementType = next()) != TYPE_END_ARRAY) readValue(elementType);
+					tokens.writeEndArray();
+					break;
+				case TYPE_STRING:
+					tokens.writeString(nextNewString());
+					break;
+				case TYPE_STRING_REFERENCE:
+					tokens.writeString(getString(nextVarint()));
+					break;
+				case TYPE_INT:
+					long zigzag = nextVarint();
+					long value = (zigzag >>> 1) ^ -(zigzag & 1);
+					if((int) value == value) tokens.writeNumber((int) value);
+					else tokens.writeNumber(value);
+					break;
+				case TYPE_FLOAT:
+					tokens.writeNumber(Float.intBitsToFloat((int) nextFixed(4)));
+					break;
+				case TYPE_DOUBLE:
+					tokens.writeNumber(Double.longBitsToDouble(nextFixed(8)));
+					break;
+				case TYPE_BIG_INTEGER:
+					tokens.writeNumber(new BigInteger(nextText()));
+					break;
+				case TYPE_BIG_DECIMAL:
+					tokens.writeNumber(new BigDecimal(nextText()));
+					break;
+				case TYPE_TRUE:
+					tokens.writeBoolean(true);
+					break;
+				case TYPE_FALSE:
+					tokens.writeBoolean(false);
+					break;
+				case TYPE_NULL:
+					tokens.writeNull();
+					break;
+				default:
+					throw new IOException("Unknown value type in the binary form: " + type);
+			}
+		}
+		
+		private String getString(long index) throws IOException
+		{
+			if(index >= 0 && index < COMMON_STRINGS.length) return COMMON_STRINGS[(int) index];
+			
+			index -= COMMON_STRINGS.length;
+			if(index >= 0 && index < strings.size()) return strings.get((int) index);
+			
+			throw new IOException("Invalid string reference in the binary form: " + (index + COMMON_STRINGS.length));
+		}
+		
+		private String nextNewString() throws IOException
+		{
+			String s = nextText();
+			strings.add(s);
+			return s;
+		}
+		
+		private String nextText() throws IOException
+		{
+			long length = nextVarint();
+			if(length > end - position) throw new EOFException("Unexpected end of the binary form.");
+			
+			String s = new String(data, position, (int) length, UTF_8);
+			position += (int) length;
+			return s;
+		}
+		
+		private long nextVarint() throws IOException
+		{
+			long value = 0;
+			for(int shift = 0; shift < 64; shift += 7)
+			{
+				int b = next();
+				value |= (long) (b & 0x7F) << shift;
+				if((b & 0x80) == 0) return value;
+			}
+			
+			throw new IOException("Malformed varint in the binary form.");
+		}
+		
+		private long nextFixed(int bytes) throws IOException
+		{
+			long value = 0;
+			for(int i = 0; i < bytes; i++) value |= (long) next() << (i * 8);
+			return value;
+		}
+		
+		private int next() throws IOException
+		{
+			if(position == end) throw new EOFException("Unexpected end of the binary form.");
+			return data[position++] & 0xFF;
+		}
+	}
+}
@@ -0,0 +1,92 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Fouad Almalki
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.fouad.jtb.core.utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.fouad.jtb.core.beans.TelegramResult;
+import io.fouad.jtb.core.exceptions.NegativeResponseException;
+import io.fouad.jtb.core.utils.HttpClient.FileField;
+import io.fouad.jtb.core.utils.HttpClient.NameValueParameter;
+import io.fouad.jtb.core.utils.HttpClient.RequestTimeouts;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * The default transport, which sends the requests by <code>HttpClient</code> over pooled keep-alive connections.
+ */
+public class DefaultHttpTransport implements HttpTransport
+{
+	@Override
+	public <R> TelegramResult<R> sendHttpPost(String requestUrl, List<? extends NameValueParameter<String, ?>> formFields,
+	                                          RequestTimeouts timeouts, TypeReference<TelegramResult<R>> resultType)
+			throws IOException, NegativeResponseException
+	{
+		return HttpClient.sendHttpPost(requestUrl, formFields, timeouts, resultType);
+	}
+	
+	@Override
+	public <R> TelegramResult<R> sendHttpPost(String requestUrl, List<? extends NameValueParameter<String, ?>> formFields,
+	                                          List<NameValueParameter<String, FileField>> files,
+	                                          RequestTimeouts timeouts, TypeReference<TelegramResult<R>> resultType)
+			throws IOException, NegativeResponseException
+	{
+		return HttpClient.sendHttpPost(requestUrl, formFields, files, timeouts, resultType);
+	}
+	
+	@Override
+	public <R> TelegramResult<R> sendJsonPost(String requestUrl, List<? extends NameValueParameter<String, ?>> fields,
+	                                          RequestTimeouts timeouts, TypeReference<TelegramResult<R>> resultType)
+			throws IOException, NegativeResponseException
+	{
+		return HttpClient.sendJsonPost(requestUrl, fields, timeouts, resultType);
+	}
+	
+	@Override
+	public void downloadFile(String fileUrl, OutputStream saveToOutputStream, RequestTimeouts timeouts) throws IOException
+	{
+		HttpClient.downloadFile(fileUrl, saveToOutputStream, timeouts);
+	}
+	
+	@Override
+	public boolean equals(Object o)
+	{
+		// stateless, so all instances are interchangeable
+		return this == o || (o != null && getClass() == o.getClass());
+	}
+	
+	@Override
+	public int hashCode()
+	{
+		return getClass().hashCode();
+	}
+	
+	@Override
+	public String toString()
+	{
+		return "DefaultHttpTransport{}";
+	}
+}
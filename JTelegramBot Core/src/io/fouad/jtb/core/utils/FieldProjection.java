@@ -0,0 +1,156 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Fouad Almalki
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.fouad.jtb.core.utils;
+
+import java.util.Arrays;
+
+/**
+ * Selects the fields of the incoming updates and messages which are decoded. The fields that a bot never
+ * looks at (e.g. the photos or the replied message) are skipped token by token by the bean deserializers,
+ * without binding them, and their getters return <code>null</code> (or zero). The projection applies to
+ * the nested messages as well, i.e. the replied and the pinned messages.
+ * <p>
+ * The fields are named as in the Bot API, e.g. "reply_to_message". The <code>update_id</code> is always
+ * decoded, since the polling depends on it.
+ */
+public class FieldProjection
+{
+	private static final long ALL_FIELDS = -1L;
+	
+	/**
+	 * Decodes all the fields.
+	 */
+	public static final FieldProjection ALL = new FieldProjection(ALL_FIELDS, ALL_FIELDS);
+	
+	// the bit (1 << i) is set if the property i of the deserializer of the bean is decoded
+	final long updateFields;
+	final long messageFields;
+	
+	private FieldProjection(long updateFields, long messageFields)
+	{
+		this.updateFields = updateFields | 1L; // update_id
+		this.messageFields = messageFields;
+	}
+	
+	/**
+	 * @param fieldNames the fields of <code>Update</code> and <code>Message</code> to skip
+	 * 
+	 * @return a projection which decodes all the fields except the given ones
+	 * 
+	 * @throws IllegalArgumentException if a field is unknown
+	 */
+	public static FieldProjection excluding(String... fieldNames)
+	{
+		return new FieldProjection(~toMask(BeanDeserializers.UPDATE_PROPERTIES, fieldNames),
+		                           ~toMask(BeanDeserializers.MESSAGE_PROPERTIES, fieldNames));
+	}
+	
+	/**
+	 * @param fieldNames the fields of <code>Update</code> and <code>Message</code> to decode, e.g. "message",
+	 *                   "message_id", "chat" and "text" for a bot which only handles text messages
+	 * 
+	 * @return a projection which decodes only the given fields
+	 * 
+	 * @throws IllegalArgumentException if a field is unknown
+	 */
+	public static FieldProjection including(String... fieldNames)
+	{
+		return new FieldProjection(toMask(BeanDeserializers.UPDATE_PROPERTIES, fieldNames),
+		                           toMask(BeanDeserializers.MESSAGE_PROPERTIES, fieldNames));
+	}
+	
+	private static long toMask(String[] properties, String[] fieldNames)
+	{
+		long mask = 0;
+		
+		for(String fieldName : fieldNames)
+		{
+			int index = Arrays.asList(properties).indexOf(fieldName);
+			if(index >= 0) mask |= 1L << index;
+			else if(!Arrays.asList(BeanDeserializers.UPDATE_PROPERTIES).contains(fieldName) &&
+					!Arrays.asList(BeanDeserializers.MESSAGE_PROPERTIES).contains(fieldName))
+			{
+				throw new IllegalArgumentException("Unknown field of Update or Message: " + fieldName);
+			}
+		}
+		
+		return mask;
+	}
+	
+	public boolean isUpdateFieldDecoded(String fieldName)
+	{
+		int index = Arrays.asList(BeanDeserializers.UPDATE_PROPERTIES).indexOf(fieldName);
+		return index >= 0 && (updateFields & (1L << index)) != 0;
+	}
+	
+	public boolean isMessageFieldDecoded(String fieldName)
+	{
+		int index = Arrays.asList(BeanDeserializers.MESSAGE_PROPERTIES).indexOf(fieldName);
+		return index >= 0 && (messageFields & (1L << index)) != 0;
+	}
+	
+	@Override
+	public boolean equals(Object o)
+	{
+		if(this == o) return true;
+		if(o == null || getClass() != o.getClass()) return false;
+		
+		FieldProjection that = (FieldProjection) o;
+		
+		if(updateFields != that.updateFields) return false;
+		return messageFields == that.messageFields;
+		
+	}
+	
+	@Override
+	public int hashCode()
+	{
+		int result = (int) (updateFields ^ (updateFields >>> 32));
+		result = 31 * result + (int) (messageFields ^ (messageFields >>> 32));
+		return result;
+	}
+	
+	@Override
+	public String toString()
+	{
+		StringBuilder sb = new StringBuilder("FieldProjection{");
+		
+		String separator = "";
+		for(String fieldName : BeanDeserializers.UPDATE_PROPERTIES)
+		{
+			if(!isUpdateFieldDecoded(fieldName)) continue;
+			sb.append(separator).append(fieldName);
+			separator = ", ";
+		}
+		for(String fieldName : BeanDeserializers.MESSAGE_PROPERTIES)
+		{
+			if(!isMessageFieldDecoded(fieldName)) continue;
+			sb.append(separator).append(fieldName);
+			separator = ", ";
+		}
+		
+		return sb.append('}').toString();
+	}
+}
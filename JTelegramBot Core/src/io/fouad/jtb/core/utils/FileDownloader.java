@@ -0,0 +1,601 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Fouad Almalki
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.fouad.jtb.core.utils;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Downloads files directly into the local file system. Large files are split into several segments which are
+ * fetched concurrently using HTTP range requests and written in place through a <code>FileChannel</code>.
+ * <p>
+ * The progress of every segment is recorded next to the target file (in <code>&lt;target&gt;.progress</code>), so
+ * a download that failed or was interrupted is resumed from where it stopped when it is started again with the
+ * same target file. The progress file is deleted once the download completes.
+ */
+public class FileDownloader
+{
+	// default values
+	public static final int SEGMENTS = 4;
+	public static final long MIN_SEGMENT_SIZE_IN_BYTES = 1024 * 1024;
+	public static final int MAX_RETRIES = 3;
+	
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final long PROGRESS_INTERVAL_IN_MILLIS = 1000;
+	private static final String PROGRESS_FILE_SUFFIX = ".progress";
+	private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+	
+	/**
+	 * Receives notifications about the progress of a download.
+	 */
+	public interface ProgressListener
+	{
+		/**
+		 * Invoked periodically while downloading, and once more when the download completes.
+		 * 
+		 * @param downloadedBytes number of bytes of the file which are on disk so far
+		 * @param totalBytes size of the file, or -1 if the server did not report it
+		 * @param bytesPerSecond average throughput of the current download session
+		 */
+		void onProgress(long downloadedBytes, long totalBytes, double bytesPerSecond);
+	}
+	
+	/**
+	 * Represents the outcome of a completed download.
+	 */
+	public static class DownloadReport
+	{
+		private final long fileSize;
+		private final long transferredBytes;
+		private final long elapsedMillis;
+		private final int segments;
+		private final boolean resumed;
+		
+		public DownloadReport(long fileSize, long transferredBytes, long elapsedMillis, int segments, boolean resumed)
+		{
+			this.fileSize = fileSize;
+			this.transferredBytes = transferredBytes;
+			this.elapsedMillis = elapsedMillis;
+			this.segments = segments;
+			this.resumed = resumed;
+		}
+		
+		public long getFileSize(){return fileSize;}
+		public long getTransferredBytes(){return transferredBytes;}
+		public long getElapsedMillis(){return elapsedMillis;}
+		public int getSegments(){return segments;}
+		public boolean isResumed(){return resumed;}
+		
+		/**
+		 * @return the number of bytes transferred during this session per second
+		 */
+		public double getBytesPerSecond()
+		{
+			return elapsedMillis > 0 ? transferredBytes * 1000.0 / elapsedMillis : transferredBytes;
+		}
+		
+		@Override
+		public boolean equals(Object o)
+		{
+			if(this == o) return true;
+			if(o == null || getClass() != o.getClass()) return false;
+			
+			DownloadReport that = (DownloadReport) o;
+			
+			if(fileSize != that.fileSize) return false;
+			if(transferredBytes != that.transferredBytes) return false;
+			if(elapsedMillis != that.elapsedMillis) return false;
+			if(segments != that.segments) return false;
+			return resumed == that.resumed;
+			
+		}
+		
+		@Override
+		public int hashCode()
+		{
+			int result = (int) (fileSize ^ (fileSize >>> 32));
+			result = 31 * result + (int) (transferredBytes ^ (transferredBytes >>> 32));
+			result = 31 * result + (int) (elapsedMillis ^ (elapsedMillis >>> 32));
+			result = 31 * result + segments;
+			result = 31 * result + (resumed ? 1 : 0);
+			return result;
+		}
+		
+		@Override
+		public String toString()
+		{
+			return "DownloadReport{" +
+					"fileSize=" + fileSize +
+					", transferredBytes=" + transferredBytes +
+					", elapsedMillis=" + elapsedMillis +
+					", segments=" + segments +
+					", resumed=" + resumed +
+					'}';
+		}
+	}
+	
+	/**
+	 * The layout of a download: its total size and the byte range of each segment, plus how far
+	 * each segment has got so far. The end of a range is exclusive, and -1 when the size is unknown.
+	 */
+	private static class DownloadState
+	{
+		private final long fileSize;
+		private final boolean rangesSupported;
+		private final long[] starts;
+		private final long[] ends;
+		private final AtomicLongArray positions;
+		
+		private DownloadState(long fileSize, boolean rangesSupported, long[] starts, long[] ends, long[] positions)
+		{
+			this.fileSize = fileSize;
+			this.rangesSupported = rangesSupported;
+			this.starts = starts;
+			this.ends = ends;
+			this.positions = new AtomicLongArray(positions);
+		}
+		
+		private long getDownloadedBytes()
+		{
+			long downloadedBytes = 0;
+			for(int i = 0; i < starts.length; i++) downloadedBytes += positions.get(i) - starts[i];
+			return downloadedBytes;
+		}
+	}
+	
+	private final int segments;
+	private final long minSegmentSizeInBytes;
+	private final int maxRetries;
+	
+	public FileDownloader()
+	{
+		this(SEGMENTS, MIN_SEGMENT_SIZE_IN_BYTES, MAX_RETRIES);
+	}
+	
+	/**
+	 * Creates a file downloader.
+	 * 
+	 * @param segments maximum number of segments (and threads) used to download a single file
+	 * @param minSegmentSizeInBytes a file is only split if each segment would be at least of this size
+	 * @param maxRetries how many times a failed segment is resumed before giving up the download
+	 */
+	public FileDownloader(int segments, long minSegmentSizeInBytes, int maxRetries)
+	{
+		if(segments <= 0) throw new IllegalArgumentException("\"segments\" must be positive.");
+		if(minSegmentSizeInBytes <= 0) throw new IllegalArgumentException("\"minSegmentSizeInBytes\" must be positive.");
+		if(maxRetries < 0) throw new IllegalArgumentException("\"maxRetries\" cannot be negative.");
+		
+		this.segments = segments;
+		this.minSegmentSizeInBytes = minSegmentSizeInBytes;
+		this.maxRetries = maxRetries;
+	}
+	
+	/**
+	 * Downloads a file from the internet into a local file. This is a blocking method.
+	 * 
+	 * @param fileUrl the url where we download the file from
+	 * @param targetFile the file where the downloaded content is saved
+	 * 
+	 * @return statistics about the download
+	 * 
+	 * @throws IOException if an I/O exception occurs. The download can be resumed later by calling this
+	 *                     method again with the same target file
+	 */
+	public DownloadReport download(String fileUrl, File targetFile) throws IOException
+	{
+		return download(fileUrl, targetFile, null);
+	}
+	
+	/**
+	 * Downloads a file from the internet into a local file. This is a blocking method.
+	 * 
+	 * @param fileUrl the url where we download the file from
+	 * @param targetFile the file where the downloaded content is saved
+	 * @param progressListener receives the progress of the download, can be null
+	 * 
+	 * @return statistics about the download
+	 * 
+	 * @throws IOException if an I/O exception occurs. The download can be resumed later by calling this
+	 *                     method again with the same target file
+	 */
+	public DownloadReport download(final String fileUrl, File targetFile, ProgressListener progressListener)
+			throws IOException
+	{
+		long startTime = System.currentTimeMillis();
+		File progressFile = new File(targetFile.getPath() + PROGRESS_FILE_SUFFIX);
+		
+		DownloadState state = targetFile.exists() ? loadProgress(progressFile) : null;
+		boolean resumed = state != null;
+		if(state == null) state = newDownloadState(fileUrl);
+		
+		final int segmentCount = state.starts.length;
+		final AtomicLong transferredBytes = new AtomicLong();
+		
+		RandomAccessFile randomAccessFile = new RandomAccessFile(targetFile, "rw");
+		final FileChannel fileChannel = randomAccessFile.getChannel();
+		ExecutorService executorService = Executors.newFixedThreadPool(segmentCount);
+		
+		try
+		{
+			if(state.fileSize >= 0) randomAccessFile.setLength(state.fileSize);
+			
+			CompletionService<Void> completionService = new ExecutorCompletionService<Void>(executorService);
+			final DownloadState downloadState = state;
+			
+			for(int i = 0; i < segmentCount; i++)
+			{
+				final int segment = i;
+				
+				completionService.submit(new Callable<Void>()
+				{
+					@Override
+					public Void call() throws Exception
+					{
+						downloadSegment(fileUrl, fileChannel, downloadState, segment, transferredBytes);
+						return null;
+					}
+				});
+			}
+			
+			IOException failure = null;
+			int remainingSegments = segmentCount;
+			
+			while(remainingSegments > 0)
+			{
+				Future<Void> future;
+				
+				try
+				{
+					future = completionService.poll(PROGRESS_INTERVAL_IN_MILLIS, TimeUnit.MILLISECONDS);
+				}
+				catch(InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+					failure = new IOException("Interrupted while downloading the file.", e);
+					break;
+				}
+				
+				if(future != null)
+				{
+					remainingSegments--;
+					
+					try
+					{
+						future.get();
+					}
+					catch(InterruptedException e)
+					{
+						Thread.currentThread().interrupt();
+						failure = new IOException("Interrupted while downloading the file.", e);
+						break;
+					}
+					catch(ExecutionException e)
+					{
+						Throwable cause = e.getCause();
+						failure = cause instanceof IOException ? (IOException) cause : new IOException(cause);
+						break;
+					}
+				}
+				
+				saveProgress(progressFile, fileChannel, state);
+				notifyProgress(progressListener, state, transferredBytes.get(), startTime);
+			}
+			
+			if(failure != null)
+			{
+				// stop the other segments, and keep what they have downloaded so far for the next attempt
+				executorService.shutdownNow();
+				awaitTermination(executorService);
+				if(state.rangesSupported) saveProgress(progressFile, fileChannel, state);
+				throw failure;
+			}
+			
+			// the size was unknown, so the file has exactly the size of the single segment
+			if(state.fileSize < 0) fileChannel.truncate(state.positions.get(0));
+		}
+		finally
+		{
+			executorService.shutdownNow();
+			fileChannel.close();
+			randomAccessFile.close();
+		}
+		
+		if(progressFile.exists() && !progressFile.delete()) progressFile.deleteOnExit();
+		
+		long elapsedMillis = System.currentTimeMillis() - startTime;
+		DownloadReport report = new DownloadReport(state.fileSize >= 0 ? state.fileSize : state.positions.get(0),
+		                                           transferredBytes.get(), elapsedMillis, segmentCount, resumed);
+		
+		if(progressListener != null)
+		{
+			progressListener.onProgress(report.getFileSize(), report.getFileSize(), report.getBytesPerSecond());
+		}
+		
+		return report;
+	}
+	
+	/**
+	 * Asks the server about the size of the file and whether it accepts range requests, then splits it into segments.
+	 */
+	private DownloadState newDownloadState(String fileUrl) throws IOException
+	{
+		long fileSize = -1;
+		boolean rangesSupported = false;
+		
+		HttpURLConnection connection = (HttpURLConnection) new URL(fileUrl).openConnection();
+		connection.setRequestProperty("Range", "bytes=0-0");
+		connection.setRequestProperty("User-Agent", "Java Agent");
+		
+		try
+		{
+			int status = connection.getResponseCode();
+			
+			if(status == HttpURLConnection.HTTP_PARTIAL)
+			{
+				// Content-Range: bytes 0-0/<size>
+				String contentRange = connection.getHeaderField("Content-Range");
+				if(contentRange != null && contentRange.lastIndexOf('/') >= 0)
+				{
+					String size = contentRange.substring(contentRange.lastIndexOf('/') + 1).trim();
+					if(!"*".equals(size)) fileSize = Long.parseLong(size);
+				}
+				
+				rangesSupported = fileSize >= 0;
+			}
+			else if(status == HTTP_RANGE_NOT_SATISFIABLE)
+			{
+				fileSize = 0; // the only range which cannot be satisfied for an existing file is the one of an empty file
+			}
+			else if(status == HttpURLConnection.HTTP_OK)
+			{
+				String contentLength = connection.getHeaderField("Content-Length");
+				if(contentLength != null) fileSize = Long.parseLong(contentLength.trim());
+			}
+			else
+			{
+				throw new IOException("Server returned HTTP response code: " + status + " for URL: " + fileUrl);
+			}
+		}
+		catch(NumberFormatException e)
+		{
+			throw new IOException("Invalid file size received from the server.", e);
+		}
+		finally
+		{
+			// the server might have ignored the range and started sending the whole file
+			connection.disconnect();
+		}
+		
+		return newDownloadState(fileSize, rangesSupported);
+	}
+	
+	/**
+	 * Splits a file into segments.
+	 */
+	private DownloadState newDownloadState(long fileSize, boolean rangesSupported)
+	{
+		int segmentCount = 1;
+		if(rangesSupported) segmentCount = (int) Math.max(1, Math.min(segments, fileSize / minSegmentSizeInBytes));
+		
+		long[] starts = new long[segmentCount];
+		long[] ends = new long[segmentCount];
+		
+		if(fileSize < 0)
+		{
+			ends[0] = -1;
+		}
+		else
+		{
+			long segmentSize = fileSize / segmentCount;
+			for(int i = 0; i < segmentCount; i++)
+			{
+				starts[i] = i * segmentSize;
+				ends[i] = i == segmentCount - 1 ? fileSize : starts[i] + segmentSize;
+			}
+		}
+		
+		return new DownloadState(fileSize, rangesSupported, starts, ends, starts.clone());
+	}
+	
+	private void downloadSegment(String fileUrl, FileChannel fileChannel, DownloadState state, int segment,
+	                             AtomicLong transferredBytes) throws IOException
+	{
+		byte[] buffer = new byte[BUFFER_SIZE];
+		int attempt = 0;
+		
+		while(true)
+		{
+			long position = state.positions.get(segment);
+			long end = state.ends[segment];
+			if(end >= 0 && position >= end) return;
+			
+			// without range support, the only way to recover is to start over
+			if(!state.rangesSupported && position != state.starts[segment])
+			{
+				position = state.starts[segment];
+				state.positions.set(segment, position);
+			}
+			
+			HttpURLConnection connection = (HttpURLConnection) new URL(fileUrl).openConnection();
+			connection.setRequestProperty("User-Agent", "Java Agent");
+			if(state.rangesSupported) connection.setRequestProperty("Range", "bytes=" + position + "-" + (end - 1));
+			
+			try
+			{
+				int status = connection.getResponseCode();
+				int expectedStatus = state.rangesSupported ? HttpURLConnection.HTTP_PARTIAL : HttpURLConnection.HTTP_OK;
+				if(status != expectedStatus)
+				{
+					connection.disconnect();
+					throw new IOException("Server returned HTTP response code: " + status + " for URL: " + fileUrl);
+				}
+				
+				InputStream inputStream = connection.getInputStream();
+				
+				try
+				{
+					int count;
+					while((count = inputStream.read(buffer)) != -1)
+					{
+						if(Thread.currentThread().isInterrupted()) throw new IOException("The download was cancelled.");
+						
+						ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, count);
+						while(byteBuffer.hasRemaining()) position += fileChannel.write(byteBuffer, position);
+						
+						state.positions.set(segment, position);
+						transferredBytes.addAndGet(count);
+					}
+				}
+				finally
+				{
+					inputStream.close();
+				}
+				
+				if(end >= 0 && position < end) throw new IOException("The connection was closed before the end of the segment.");
+				
+				return;
+			}
+			catch(IOException e)
+			{
+				if(Thread.currentThread().isInterrupted() || attempt++ >= maxRetries) throw e;
+			}
+		}
+	}
+	
+	/**
+	 * Persists the progress of the segments, after making sure that the downloaded bytes are on disk.
+	 */
+	private static void saveProgress(File progressFile, FileChannel fileChannel, DownloadState state) throws IOException
+	{
+		if(!state.rangesSupported) return;
+		
+		fileChannel.force(false);
+		
+		DataOutputStream out = new DataOutputStream(new FileOutputStream(progressFile));
+		
+		try
+		{
+			out.writeLong(state.fileSize);
+			out.writeInt(state.starts.length);
+			
+			for(int i = 0; i < state.starts.length; i++)
+			{
+				out.writeLong(state.starts[i]);
+				out.writeLong(state.ends[i]);
+				out.writeLong(state.positions.get(i));
+			}
+		}
+		finally
+		{
+			out.close();
+		}
+	}
+	
+	/**
+	 * Loads the progress of a previous download, or returns null if there is no usable one.
+	 */
+	private static DownloadState loadProgress(File progressFile)
+	{
+		if(!progressFile.isFile()) return null;
+		
+		try
+		{
+			DataInputStream in = new DataInputStream(new FileInputStream(progressFile));
+			
+			try
+			{
+				long fileSize = in.readLong();
+				int segmentCount = in.readInt();
+				if(fileSize < 0 || segmentCount <= 0) return null;
+				
+				long[] starts = new long[segmentCount];
+				long[] ends = new long[segmentCount];
+				long[] positions = new long[segmentCount];
+				
+				for(int i = 0; i < segmentCount; i++)
+				{
+					starts[i] = in.readLong();
+					ends[i] = in.readLong();
+					positions[i] = in.readLong();
+					
+					if(positions[i] < starts[i] || positions[i] > ends[i] || ends[i] > fileSize) return null;
+				}
+				
+				return new DownloadState(fileSize, true, starts, ends, positions);
+			}
+			finally
+			{
+				in.close();
+			}
+		}
+		catch(IOException e)
+		{
+			return null; // corrupted progress, start over
+		}
+	}
+	
+	private static void notifyProgress(ProgressListener progressListener, DownloadState state, long transferredBytes,
+	                                   long startTime)
+	{
+		if(progressListener == null) return;
+		
+		long elapsedMillis = System.currentTimeMillis() - startTime;
+		double bytesPerSecond = elapsedMillis > 0 ? transferredBytes * 1000.0 / elapsedMillis : transferredBytes;
+		
+		progressListener.onProgress(state.getDownloadedBytes(), state.fileSize, bytesPerSecond);
+	}
+	
+	private static void awaitTermination(ExecutorService executorService)
+	{
+		try
+		{
+			executorService.awaitTermination(PROGRESS_INTERVAL_IN_MILLIS, TimeUnit.MILLISECONDS);
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,309 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Fouad Almalki
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.fouad.jtb.core.utils;
+
+import io.fouad.jtb.core.beans.FrozenReplyMarkup;
+import io.fouad.jtb.core.utils.HttpClient.NameValueParameter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Writes an application/x-www-form-urlencoded body directly as bytes. Unlike <code>URLEncoder</code>, the
+ * characters are percent-encoded as UTF-8 bytes on the fly and the numbers are written digit by digit, so
+ * encoding a request does not allocate any intermediate strings or arrays. The output is the same as
+ * encoding every name and value by <code>URLEncoder.encode(s, "UTF-8")</code>.
+ * <p>
+ * The buffer is meant to be reused: <code>forCurrentThread()</code> returns an empty writer which is owned
+ * by the calling thread, and which must not be used anymore once the body is sent.
+ */
+public class FormBodyWriter
+{
+	private static final int INITIAL_CAPACITY = 1024;
+	
+	// a buffer which has grown beyond this capacity is not kept for the next request
+	private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+	
+	private static final byte[] HEX_DIGITS = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9',
+	                                          'A', 'B', 'C', 'D', 'E', 'F'};
+	private static final byte[] MIN_LONG = {'-', '9', '2', '2', '3', '3', '7', '2', '0', '3', '6', '8', '5',
+	                                        '4', '7', '7', '5', '8', '0', '8'};
+	
+	private static final ThreadLocal<FormBodyWriter> THREAD_LOCAL = new ThreadLocal<FormBodyWriter>()
+	{
+		@Override
+		protected FormBodyWriter initialValue()
+		{
+			return new FormBodyWriter();
+		}
+	};
+	
+	private byte[] buffer = new byte[INITIAL_CAPACITY];
+	private int size = 0;
+	
+	/**
+	 * @return an empty writer which is reused by all the requests of the calling thread
+	 */
+	public static FormBodyWriter forCurrentThread()
+	{
+		FormBodyWriter writer = THREAD_LOCAL.get();
+		writer.reset();
+		return writer;
+	}
+	
+	/**
+	 * Encodes a single value, e.g. to cache the encoded form of a value which is sent many times.
+	 * 
+	 * @param value the value to encode
+	 * 
+	 * @return the encoded value
+	 */
+	public static byte[] encode(String value)
+	{
+		FormBodyWriter writer = new FormBodyWriter();
+		writer.appendEncoded(value);
+		
+		byte[] encodedValue = new byte[writer.size];
+		System.arraycopy(writer.buffer, 0, encodedValue, 0, writer.size);
+		return encodedValue;
+	}
+	
+	/**
+	 * Discards the written body, so that the writer can be used for another one.
+	 */
+	public void reset()
+	{
+		size = 0;
+		if(buffer.length > MAX_RETAINED_CAPACITY) buffer = new byte[INITIAL_CAPACITY];
+	}
+	
+	public FormBodyWriter append(String name, String value)
+	{
+		appendName(name);
+		appendEncoded(value);
+		return this;
+	}
+	
+	public FormBodyWriter append(String name, long value)
+	{
+		appendName(name);
+		appendNumber(value);
+		return this;
+	}
+	
+	public FormBodyWriter append(String name, boolean value)
+	{
+		appendName(name);
+		appendEncoded(value ? "true" : "false");
+		return this;
+	}
+	
+	/**
+	 * Appends a parameter whose value is already encoded, e.g. by <code>encode()</code>.
+	 * 
+	 * @param name the name of the parameter
+	 * @param encodedValue the encoded value of the parameter
+	 * 
+	 * @return this writer
+	 */
+	public FormBodyWriter appendEncoded(String name, byte[] encodedValue)
+	{
+		appendName(name);
+		ensureCapacity(encodedValue.length);
+		System.arraycopy(encodedValue, 0, buffer, size, encodedValue.length);
+		size += encodedValue.length;
+		return this;
+	}
+	
+	/**
+	 * Appends a parameter whose value is converted by <code>HttpClient.toFormValue()</code>. Strings,
+	 * integral numbers and booleans are appended without converting them first.
+	 * 
+	 * @param name the name of the parameter
+	 * @param value the value of the parameter
+	 * 
+	 * @return this writer
+	 * 
+	 * @throws IOException if the value cannot be converted to JSON
+	 */
+	public FormBodyWriter append(String name, Object value) throws IOException
+	{
+		if(value instanceof String) return append(name, (String) value);
+		if(value instanceof FrozenReplyMarkup)
+		{
+			((FrozenReplyMarkup) value).appendTo(this, name);
+			return this;
+		}
+		if(value instanceof Boolean) return append(name, ((Boolean) value).booleanValue());
+		if(value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)
+		{
+			return append(name, ((Number) value).longValue());
+		}
+		
+		return append(name, HttpClient.toFormValue(value));
+	}
+	
+	/**
+	 * Appends all the parameters of a request.
+	 * 
+	 * @param parameters pairs of Key/Value parameters
+	 * 
+	 * @return this writer
+	 * 
+	 * @throws IOException if a value cannot be converted to JSON
+	 */
+	public FormBodyWriter appendAll(List<? extends NameValueParameter<String, ?>> parameters) throws IOException
+	{
+		if(parameters instanceof RequestParameters) ((RequestParameters) parameters).writeTo(this);
+		else for(NameValueParameter<String, ?> parameter : parameters) append(parameter.getName(), parameter.getValue());
+		return this;
+	}
+	
+	/**
+	 * @return the number of bytes written so far
+	 */
+	public int size(){return size;}
+	
+	/**
+	 * @return the internal buffer, whose first <code>size()</code> bytes are the body. It is valid
+	 *         until the writer is used again
+	 */
+	public byte[] getBuffer(){return buffer;}
+	
+	public void writeTo(OutputStream outputStream) throws IOException
+	{
+		outputStream.write(buffer, 0, size);
+	}
+	
+	private void appendName(String name)
+	{
+		if(size > 0) put((byte) '&');
+		appendEncoded(name);
+		put((byte) '=');
+	}
+	
+	private void appendEncoded(String s)
+	{
+		int length = s.length();
+		ensureCapacity(length);
+		
+		for(int i = 0; i < length; i++)
+		{
+			char c = s.charAt(i);
+			
+			if((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') ||
+				c == '.' || c == '-' || c == '*' || c == '_')
+			{
+				put((byte) c);
+			}
+			else if(c == ' ')
+			{
+				put((byte) '+');
+			}
+			else if(c < 0x80)
+			{
+				putEscaped(c);
+			}
+			else if(c < 0x800)
+			{
+				putEscaped(0xC0 | (c >> 6));
+				putEscaped(0x80 | (c & 0x3F));
+			}
+			else if(Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1)))
+			{
+				int codePoint = Character.toCodePoint(c, s.charAt(++i));
+				putEscaped(0xF0 | (codePoint >> 18));
+				putEscaped(0x80 | ((codePoint >> 12) & 0x3F));
+				putEscaped(0x80 | ((codePoint >> 6) & 0x3F));
+				putEscaped(0x80 | (codePoint & 0x3F));
+			}
+			else if(c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE)
+			{
+				putEscaped('?'); // an unpaired surrogate cannot be encoded, just like in URLEncoder
+			}
+			else
+			{
+				putEscaped(0xE0 | (c >> 12));
+				putEscaped(0x80 | ((c >> 6) & 0x3F));
+				putEscaped(0x80 | (c & 0x3F));
+			}
+		}
+	}
+	
+	private void appendNumber(long value)
+	{
+		if(value == Long.MIN_VALUE)
+		{
+			ensureCapacity(MIN_LONG.length);
+			System.arraycopy(MIN_LONG, 0, buffer, size, MIN_LONG.length);
+			size += MIN_LONG.length;
+			return;
+		}
+		
+		if(value < 0)
+		{
+			put((byte) '-');
+			value = -value;
+		}
+		
+		int digits = 1;
+		for(long n = value / 10; n > 0; n /= 10) digits++;
+		
+		ensureCapacity(digits);
+		int position = size + digits;
+		do
+		{
+			buffer[--position] = (byte) ('0' + (value % 10));
+			value /= 10;
+		}
+		while(value > 0);
+		
+		size += digits;
+	}
+	
+	private void putEscaped(int b)
+	{
+		put((byte) '%');
+		put(HEX_DIGITS[(b >> 4) & 0xF]);
+		put(HEX_DIGITS[b & 0xF]);
+	}
+	
+	private void put(byte b)
+	{
+		if(size == buffer.length) ensureCapacity(1);
+		buffer[size++] = b;
+	}
+	
+	private void ensureCapacity(int extraBytes)
+	{
+		if(size + extraBytes <= buffer.length) return;
+		
+		int newCapacity = Math.max(buffer.length * 2, size + extraBytes);
+		byte[] newBuffer = new byte[newCapacity];
+		System.arraycopy(buffer, 0, newBuffer, 0, size);
+		buffer = newBuffer;
+	}
+}
@@ -24,31 +24,126 @@
 
 package io.fouad.jtb.core.utils;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.fouad.jtb.core.beans.FrozenReplyMarkup;
+import io.fouad.jtb.core.beans.TelegramResult;
 import io.fouad.jtb.core.exceptions.NegativeResponseException;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
+import java.io.SequenceInputStream;
 import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
 import java.net.URL;
 import java.net.URLConnection;
-import java.net.URLEncoder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
 
 /**
  * Utility class to handle HTTP client job. It sends HTTP POST requests and downloads a file from the internet as well.
  */
 public class HttpClient
 {
+	// default values
+	public static final int MAX_CONNECTIONS_PER_HOST = 20;
+	public static final int IDLE_CONNECTION_TIMEOUT_IN_SECONDS = 30;
+	
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int DECODING_BUFFER_SIZE = 8 * 1024;
+	private static final byte[] CRLF = {'\r', '\n'};
+	
+	// the minimum size of a request body to be compressed, or 0 if the requests are not compressed
+	private static volatile int requestCompressionThresholdInBytes = 0;
+	
+	// the system properties which hold the defaults of this class rather than values set by the user
+	private static final Set<String> defaultedProperties = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+	
+	static
+	{
+		// HttpURLConnection keeps the underlying sockets in a per-host keep-alive cache as long as
+		// the response streams are fully read and closed (and disconnect() is not called). Make sure
+		// the cache is enabled and sized for a bot that sends many requests in parallel, unless the
+		// user has already configured it through the JVM system properties.
+		setDefaultProperty("http.keepAlive", "true");
+		setDefaultProperty("http.maxConnections", String.valueOf(MAX_CONNECTIONS_PER_HOST));
+		setDefaultProperty("http.keepAlive.time.server", String.valueOf(IDLE_CONNECTION_TIMEOUT_IN_SECONDS));
+	}
+	
+	/**
+	 * Configures the pool of persistent (keep-alive) connections which is shared by all requests sent to the
+	 * Telegram server. The pool is the keep-alive cache of <code>HttpURLConnection</code>, which is configured
+	 * by JVM-wide system properties and reads them once, so this method must be called before sending the first
+	 * request. A property which the user has already set (e.g. by <code>-Dhttp.maxConnections=50</code>) takes
+	 * precedence and is left unchanged.
+	 * <p>
+	 * The idle timeout is set through <code>http.keepAlive.time.server</code>, which is only honored on JDK 20
+	 * and later. Older JDKs evict a connection which has been idle for 5 seconds, unless the server sends its own
+	 * <code>Keep-Alive: timeout</code> header.
+	 * <p>
+	 * No health checks are done on the pooled connections. A connection which the server has closed while it
+	 * was idle is only detected when a request is sent over it, and that request then fails with an
+	 * <code>IOException</code> (the JDK does not resend streamed POST bodies), so the caller has to retry it.
+	 * Keeping the idle timeout below the one of the server avoids most of these failures.
+	 * 
+	 * @param maxConnectionsPerHost maximum number of idle connections to keep per host
+	 * @param idleTimeoutInSeconds how long an idle connection is kept in the pool on JDK 20 and later
+	 *                             (ignored if the server sends its own <code>Keep-Alive: timeout</code> header)
+	 */
+	public static void configureConnectionPool(int maxConnectionsPerHost, int idleTimeoutInSeconds)
+	{
+		if(maxConnectionsPerHost <= 0) throw new IllegalArgumentException("\"maxConnectionsPerHost\" must be positive.");
+		if(idleTimeoutInSeconds <= 0) throw new IllegalArgumentException("\"idleTimeoutInSeconds\" must be positive.");
+		
+		setDefaultProperty("http.keepAlive", "true");
+		setDefaultProperty("http.maxConnections", String.valueOf(maxConnectionsPerHost));
+		setDefaultProperty("http.keepAlive.time.server", String.valueOf(idleTimeoutInSeconds));
+	}
+	
+	/**
+	 * Sets a system property, unless the user has set it.
+	 */
+	private static void setDefaultProperty(String key, String value)
+	{
+		if(System.getProperty(key) != null && !defaultedProperties.contains(key)) return;
+		
+		System.setProperty(key, value);
+		defaultedProperties.add(key);
+	}
+	
+	/**
+	 * Enables compressing the bodies of form and JSON requests by gzip, when they are at least
+	 * <code>thresholdInBytes</code> long. Only enable it if the server accepts gzip-encoded requests
+	 * (e.g. a self-hosted Bot API server behind a proxy which decodes them). File uploads are never
+	 * compressed, as media files are mostly compressed already.
+	 * 
+	 * @param thresholdInBytes the minimum size of a body to be compressed, or 0 to disable the compression
+	 */
+	public static void configureRequestCompression(int thresholdInBytes)
+	{
+		if(thresholdInBytes < 0) throw new IllegalArgumentException("\"thresholdInBytes\" cannot be negative.");
+		
+		requestCompressionThresholdInBytes = thresholdInBytes;
+	}
+	
 	/**
 	 * Represents a pair of key/value to be sent as normal parameter within HTTP POST body. 
 	 */
@@ -156,17 +251,42 @@ public class HttpClient
 	 */
 	public static class HttpResponse
 	{
+		private static final Charset UTF_8 = Charset.forName("UTF-8");
+		
 		private final int httpStatusCode;
-		private final String responseBody;
+		private final byte[] responseBytes;
+		private String responseBody;
 		
 		public HttpResponse(int httpStatusCode, String responseBody)
 		{
 			this.httpStatusCode = httpStatusCode;
+			this.responseBytes = null;
 			this.responseBody = responseBody;
 		}
 		
+		/**
+		 * Creates a response which holds the raw UTF-8 body, and decodes it into a string only if
+		 * <code>getResponseBody()</code> is called. The array must not be modified afterwards.
+		 */
+		public HttpResponse(int httpStatusCode, byte[] responseBytes)
+		{
+			this.httpStatusCode = httpStatusCode;
+			this.responseBytes = responseBytes;
+		}
+		
 		public int getHttpStatusCode(){return httpStatusCode;}
-		public String getResponseBody(){return responseBody;}
+		
+		public String getResponseBody()
+		{
+			if(responseBody == null && responseBytes != null) responseBody = new String(responseBytes, UTF_8);
+			return responseBody;
+		}
+		
+		/**
+		 * @return the raw UTF-8 body, which can be handed to <code>JsonUtils</code> without decoding it into a string
+		 *         first, or <code>null</code> if the response was created from a string body
+		 */
+		public byte[] getResponseBytes(){return responseBytes;}
 		
 		@Override
 		public boolean equals(Object o)
@@ -177,13 +297,15 @@ public class HttpClient
 			HttpResponse that = (HttpResponse) o;
 			
 			if(httpStatusCode != that.httpStatusCode) return false;
-			return responseBody != null ? responseBody.equals(that.responseBody) : that.responseBody == null;
+			String responseBody = getResponseBody();
+			return responseBody != null ? responseBody.equals(that.getResponseBody()) : that.getResponseBody() == null;
 			
 		}
 		
 		@Override
 		public int hashCode()
 		{
+			String responseBody = getResponseBody();
 			int result = httpStatusCode;
 			result = 31 * result + (responseBody != null ? responseBody.hashCode() : 0);
 			return result;
@@ -194,11 +316,199 @@ public class HttpClient
 		{
 			return "HttpResponse{" +
 					"httpStatusCode=" + httpStatusCode +
-					", responseBody='" + responseBody + '\'' +
+					", responseBody='" + getResponseBody() + '\'' +
 					'}';
 		}
 	}
 	
+	/**
+	 * Represents the time limits of an HTTP request. A value of zero means no limit.
+	 */
+	public static class RequestTimeouts
+	{
+		public static final RequestTimeouts NONE = new RequestTimeouts(0, 0, 0);
+		
+		private final int connectTimeoutInMillis;
+		private final int readTimeoutInMillis;
+		private final long deadlineInMillis;
+		
+		/**
+		 * @param connectTimeoutInMillis the maximum time to establish the connection
+		 * @param readTimeoutInMillis the maximum time to wait for the next bytes of the response
+		 * @param deadlineInMillis the maximum time of the whole request, from sending it until
+		 *                         the response is completely read
+		 */
+		public RequestTimeouts(int connectTimeoutInMillis, int readTimeoutInMillis, long deadlineInMillis)
+		{
+			if(connectTimeoutInMillis < 0) throw new IllegalArgumentException("\"connectTimeoutInMillis\" cannot be negative.");
+			if(readTimeoutInMillis < 0) throw new IllegalArgumentException("\"readTimeoutInMillis\" cannot be negative.");
+			if(deadlineInMillis < 0) throw new IllegalArgumentException("\"deadlineInMillis\" cannot be negative.");
+			
+			this.connectTimeoutInMillis = connectTimeoutInMillis;
+			this.readTimeoutInMillis = readTimeoutInMillis;
+			this.deadlineInMillis = deadlineInMillis;
+		}
+		
+		public int getConnectTimeoutInMillis(){return connectTimeoutInMillis;}
+		public int getReadTimeoutInMillis(){return readTimeoutInMillis;}
+		public long getDeadlineInMillis(){return deadlineInMillis;}
+		
+		public RequestTimeouts withReadTimeout(int readTimeoutInMillis)
+		{
+			return new RequestTimeouts(connectTimeoutInMillis, readTimeoutInMillis, deadlineInMillis);
+		}
+		
+		public RequestTimeouts withDeadline(long deadlineInMillis)
+		{
+			return new RequestTimeouts(connectTimeoutInMillis, readTimeoutInMillis, deadlineInMillis);
+		}
+		
+		@Override
+		public boolean equals(Object o)
+		{
+			if(this == o) return true;
+			if(o == null || getClass() != o.getClass()) return false;
+			
+			RequestTimeouts that = (RequestTimeouts) o;
+			
+			if(connectTimeoutInMillis != that.connectTimeoutInMillis) return false;
+			if(readTimeoutInMillis != that.readTimeoutInMillis) return false;
+			return deadlineInMillis == that.deadlineInMillis;
+			
+		}
+		
+		@Override
+		public int hashCode()
+		{
+			int result = connectTimeoutInMillis;
+			result = 31 * result + readTimeoutInMillis;
+			result = 31 * result + (int) (deadlineInMillis ^ (deadlineInMillis >>> 32));
+			return result;
+		}
+		
+		@Override
+		public String toString()
+		{
+			return "RequestTimeouts{" +
+					"connectTimeoutInMillis=" + connectTimeoutInMillis +
+					", readTimeoutInMillis=" + readTimeoutInMillis +
+					", deadlineInMillis=" + deadlineInMillis +
+					'}';
+		}
+	}
+	
+	/**
+	 * Aborts the requests which exceed their deadlines, or whose threads are interrupted. A single daemon thread
+	 * checks the in-flight requests periodically and disconnects the expired ones, which makes the blocked reads
+	 * and writes fail immediately. Otherwise, a blocked socket operation would ignore the interrupt.
+	 */
+	private static class DeadlineWatchdog implements Runnable
+	{
+		private static final long CHECK_INTERVAL_IN_MILLIS = 100;
+		private static final DeadlineWatchdog INSTANCE = new DeadlineWatchdog();
+		
+		private final Set<Deadline> deadlines = Collections.newSetFromMap(new ConcurrentHashMap<Deadline, Boolean>());
+		
+		private DeadlineWatchdog()
+		{
+			Thread thread = new Thread(this, "JTelegramBot-DeadlineWatchdog");
+			thread.setDaemon(true);
+			thread.start();
+		}
+		
+		@Override
+		public void run()
+		{
+			while(true)
+			{
+				try
+				{
+					Thread.sleep(CHECK_INTERVAL_IN_MILLIS);
+				}
+				catch(InterruptedException e)
+				{
+					return;
+				}
+				
+				long now = System.nanoTime();
+				for(Deadline deadline : deadlines)
+				{
+					if(deadline.thread.isInterrupted())
+					{
+						if(deadlines.remove(deadline)) deadline.expire(true);
+					}
+					else if(deadline.deadlineInMillis > 0 && now - deadline.expiresAtNanos >= 0)
+					{
+						if(deadlines.remove(deadline)) deadline.expire(false);
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Represents the deadline of an in-flight request, if it has one, and the thread which waits for it.
+	 */
+	private static class Deadline
+	{
+		private final HttpURLConnection connection;
+		private final Thread thread;
+		private final long deadlineInMillis;
+		private final long expiresAtNanos;
+		private volatile boolean expired = false;
+		private volatile boolean interrupted = false;
+		
+		private Deadline(HttpURLConnection connection, long deadlineInMillis)
+		{
+			this.connection = connection;
+			this.thread = Thread.currentThread();
+			this.deadlineInMillis = deadlineInMillis;
+			this.expiresAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineInMillis);
+		}
+		
+		/**
+		 * Starts tracking a request of the calling thread. Every request is tracked, even if it has no deadline,
+		 * so that it can be aborted by interrupting the thread.
+		 */
+		private static Deadline start(HttpURLConnection connection, RequestTimeouts timeouts)
+		{
+			Deadline deadline = new Deadline(connection, timeouts.getDeadlineInMillis());
+			DeadlineWatchdog.INSTANCE.deadlines.add(deadline);
+			return deadline;
+		}
+		
+		private void expire(boolean interrupted)
+		{
+			this.interrupted = interrupted;
+			expired = true;
+			connection.disconnect();
+		}
+		
+		private void cancel()
+		{
+			DeadlineWatchdog.INSTANCE.deadlines.remove(this);
+		}
+		
+		/**
+		 * Replaces the exception caused by aborting the request with a meaningful one.
+		 */
+		private IOException translate(IOException e)
+		{
+			if(!expired) return e;
+			
+			if(interrupted)
+			{
+				InterruptedIOException interruptedException = new InterruptedIOException("The request was aborted because its thread was interrupted.");
+				interruptedException.initCause(e);
+				return interruptedException;
+			}
+			
+			SocketTimeoutException timeoutException = new SocketTimeoutException("The request has exceeded its deadline (" + deadlineInMillis + " ms).");
+			timeoutException.initCause(e);
+			return timeoutException;
+		}
+	}
+	
 	/**
 	 * Send HTTP POST request using multipart/form-data content type.
 	 * 
@@ -211,71 +521,241 @@ public class HttpClient
 	 * @throws IOException if an I/O exception occurs
 	 * @throws NegativeResponseException if 4xx-5xx HTTP responseBody is received from Telegram server
 	 */
-	public static HttpResponse sendHttpPost(String requestUrl, List<NameValueParameter<String, String>> formFields, List<NameValueParameter<String, FileField>> files)
+	public static HttpResponse sendHttpPost(String requestUrl, List<? extends NameValueParameter<String, ?>> formFields, List<NameValueParameter<String, FileField>> files)
 			throws IOException, NegativeResponseException
 	{
-		String boundary = String.valueOf(System.currentTimeMillis());
+		HttpURLConnection connection = openConnection(requestUrl, RequestTimeouts.NONE);
+		postMultipart(connection, formFields, files);
+		return readResponse(connection);
+	}
+	
+	/**
+	 * Send HTTP POST request using multipart/form-data content type, and decode the response body
+	 * as it is being received.
+	 * 
+	 * @param requestUrl url to send the request to
+	 * @param formFields pairs of Key/Value HTTP POST parameters
+	 * @param files list of files
+	 * @param resultType the type of the expected result
+	 * 
+	 * @return the decoded response for the request
+	 * 
+	 * @throws IOException if an I/O exception occurs
+	 * @throws NegativeResponseException if 4xx-5xx HTTP response is received from Telegram server,
+	 *                                   or if the response indicates a failure
+	 */
+	public static <R> TelegramResult<R> sendHttpPost(String requestUrl, List<? extends NameValueParameter<String, ?>> formFields,
+	                                                 List<NameValueParameter<String, FileField>> files,
+	                                                 TypeReference<TelegramResult<R>> resultType)
+			throws IOException, NegativeResponseException
+	{
+		return sendHttpPost(requestUrl, formFields, files, RequestTimeouts.NONE, resultType);
+	}
+	
+	/**
+	 * Send HTTP POST request using multipart/form-data content type, and decode the response body
+	 * as it is being received.
+	 * 
+	 * @param requestUrl url to send the request to
+	 * @param formFields pairs of Key/Value HTTP POST parameters
+	 * @param files list of files
+	 * @param timeouts the time limits of the request
+	 * @param resultType the type of the expected result
+	 * 
+	 * @return the decoded response for the request
+	 * 
+	 * @throws IOException if an I/O exception occurs, e.g. <code>SocketTimeoutException</code> if the request times out
+	 * @throws NegativeResponseException if 4xx-5xx HTTP response is received from Telegram server,
+	 *                                   or if the response indicates a failure
+	 */
+	public static <R> TelegramResult<R> sendHttpPost(String requestUrl, List<? extends NameValueParameter<String, ?>> formFields,
+	                                                 List<NameValueParameter<String, FileField>> files,
+	                                                 RequestTimeouts timeouts, TypeReference<TelegramResult<R>> resultType)
+			throws IOException, NegativeResponseException
+	{
+		HttpURLConnection connection = openConnection(requestUrl, timeouts);
+		Deadline deadline = Deadline.start(connection, timeouts);
 		
-		URL url = new URL(requestUrl);
-		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-		connection.setRequestMethod("POST");
-		connection.setDoOutput(true);
-		connection.setUseCaches(false);
-		connection.setChunkedStreamingMode(1024);
-		connection.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
-		connection.setRequestProperty("User-Agent", "Java Agent");
-		OutputStream outputStream = connection.getOutputStream();
-		PrintWriter writer = new PrintWriter(new OutputStreamWriter(outputStream, "UTF-8"), true);
+		try
+		{
+			postMultipart(connection, formFields, files);
+			return readResponse(connection, resultType);
+		}
+		catch(IOException e)
+		{
+			throw deadline.translate(e);
+		}
+		finally
+		{
+			deadline.cancel();
+		}
+	}
+	
+	/**
+	 * Writes HTTP POST request using multipart/form-data content type.
+	 */
+	private static void postMultipart(HttpURLConnection connection, List<? extends NameValueParameter<String, ?>> formFields,
+	                                  List<NameValueParameter<String, FileField>> files) throws IOException
+	{
+		MultipartBody body = new MultipartBody(formFields, files);
 		
-		writer.append("--")
-		      .append(boundary)
-		      .append("\r\n");
+		long contentLength = body.getContentLength();
+		if(contentLength >= 0 && contentLength <= Integer.MAX_VALUE) connection.setFixedLengthStreamingMode((int) contentLength);
+		else connection.setChunkedStreamingMode(BUFFER_SIZE);
+		connection.setRequestProperty("Content-Type", body.getContentType());
+		OutputStream outputStream = connection.getOutputStream();
 		
-		for(NameValueParameter<String, String> parameter : formFields)
+		try
+		{
+			body.writeTo(outputStream);
+		}
+		finally
 		{
-			writer.append("Content-Disposition: form-data; name=\"")
-			      .append(parameter.getName())
-			      .append("\"\r\nContent-Type: text/plain; charset=UTF-8\r\n\r\n")
-			      .append(parameter.getValue())
-			      .append("\r\n");
+			outputStream.close();
 		}
+	}
+	
+	/**
+	 * A body of multipart/form-data content type. Every part, either a field or a file, starts with the boundary
+	 * and ends with a single CRLF, and the body ends with the closing boundary. Everything except the content of
+	 * the files is encoded up front, so that the exact length of the body is known before sending it, whenever
+	 * the files sizes are known. It is shared by the HTTP transports, so that they all send the same body.
+	 */
+	public static class MultipartBody
+	{
+		private final String boundary = String.valueOf(System.currentTimeMillis());
+		private final List<byte[]> fieldParts = new ArrayList<byte[]>();
+		private final List<byte[]> fileHeaders = new ArrayList<byte[]>();
+		private final List<NameValueParameter<String, FileField>> files;
+		private final byte[] closingBoundary;
+		private final long contentLength;
 		
-		for(NameValueParameter<String, FileField> parameter : files)
+		/**
+		 * @param formFields pairs of Key/Value HTTP POST parameters
+		 * @param files list of files
+		 * 
+		 * @throws IOException if an I/O exception occurs while checking the sizes of the files
+		 */
+		public MultipartBody(List<? extends NameValueParameter<String, ?>> formFields,
+		                     List<NameValueParameter<String, FileField>> files) throws IOException
 		{
-			FileField fileField = parameter.getValue();
-			String fileName = fileField.getFileName();
-			String contentType = URLConnection.guessContentTypeFromName(fileName);
-			if(contentType == null) contentType = "";
+			this.files = files;
+			long contentLength = 0;
 			
-			writer.append("--")
-			      .append(boundary)
-			      .append("\r\nContent-Disposition: form-data; name=\"")
-			      .append(parameter.getName())
-			      .append("\"; filename=\"")
-			      .append(fileName)
-			      .append("\"\r\nContent-Type: ")
-			      .append(contentType)
-			      .append("\r\nContent-Transfer-Encoding: binary\r\n\r\n")
-				  .flush();
+			for(NameValueParameter<String, ?> parameter : formFields)
+			{
+				byte[] part = ("--" + boundary + "\r\nContent-Disposition: form-data; name=\"" + parameter.getName() +
+				               "\"\r\nContent-Type: text/plain; charset=UTF-8\r\n\r\n" + toFormValue(parameter.getValue()) + "\r\n")
+				               .getBytes("UTF-8");
+				fieldParts.add(part);
+				contentLength += part.length;
+			}
 			
-			BufferedInputStream bis = new BufferedInputStream(fileField.getInputStream());
-			BufferedOutputStream bos = new BufferedOutputStream(outputStream);
+			for(NameValueParameter<String, FileField> parameter : files)
+			{
+				FileField fileField = parameter.getValue();
+				String fileName = fileField.getFileName();
+				String contentType = URLConnection.guessContentTypeFromName(fileName);
+				if(contentType == null) contentType = "";
+				
+				byte[] header = ("--" + boundary + "\r\nContent-Disposition: form-data; name=\"" + parameter.getName() +
+				                 "\"; filename=\"" + fileName + "\"\r\nContent-Type: " + contentType +
+				                 "\r\nContent-Transfer-Encoding: binary\r\n\r\n").getBytes("UTF-8");
+				fileHeaders.add(header);
+				
+				long fileSize = getRemainingSize(fileField.getInputStream());
+				if(fileSize < 0 || contentLength < 0) contentLength = -1;
+				else contentLength += header.length + fileSize + CRLF.length;
+			}
 			
+			closingBoundary = ("--" + boundary + "--\r\n").getBytes("UTF-8");
+			if(contentLength >= 0) contentLength += closingBoundary.length;
+			this.contentLength = contentLength;
+		}
+		
+		/**
+		 * @return the value of the Content-Type header of the body
+		 */
+		public String getContentType(){return "multipart/form-data; boundary=" + boundary;}
+		
+		/**
+		 * @return the exact length of the body in bytes, or -1 if the size of any file is not known in advance
+		 */
+		public long getContentLength(){return contentLength;}
+		
+		/**
+		 * Writes the body and closes the streams of the files. The output stream is left open.
+		 * 
+		 * @param outputStream the stream to write the body to
+		 * 
+		 * @throws IOException if an I/O exception occurs
+		 */
+		public void writeTo(OutputStream outputStream) throws IOException
+		{
+			for(byte[] part : fieldParts) outputStream.write(part);
 			
-			int theByte;
-			while((theByte = bis.read()) != -1) bos.write(theByte);
-			bos.flush();
-			bis.close();
+			byte[] buffer = new byte[BUFFER_SIZE];
 			
-			writer.append("\r\n");
+			for(int i = 0; i < files.size(); i++)
+			{
+				outputStream.write(fileHeaders.get(i));
+				
+				InputStream inputStream = files.get(i).getValue().getInputStream();
+				
+				try
+				{
+					int count;
+					while((count = inputStream.read(buffer)) != -1) outputStream.write(buffer, 0, count);
+				}
+				finally
+				{
+					inputStream.close();
+				}
+				
+				outputStream.write(CRLF);
+			}
+			
+			outputStream.write(closingBoundary);
 		}
 		
-		writer.append("\r\n--")
-		      .append(boundary)
-		      .append("--\r\n")
-		      .close();
+		/**
+		 * Opens the body as a stream that reads the files as it goes, for transports that pull the body
+		 * instead of writing it. Closing the returned stream closes the streams of the files.
+		 * 
+		 * @return the stream of the body
+		 */
+		public InputStream openStream()
+		{
+			List<InputStream> streams = new ArrayList<InputStream>();
+			for(byte[] part : fieldParts) streams.add(new ByteArrayInputStream(part));
+			
+			for(int i = 0; i < files.size(); i++)
+			{
+				streams.add(new ByteArrayInputStream(fileHeaders.get(i)));
+				streams.add(files.get(i).getValue().getInputStream());
+				streams.add(new ByteArrayInputStream(CRLF));
+			}
+			
+			streams.add(new ByteArrayInputStream(closingBoundary));
+			return new SequenceInputStream(Collections.enumeration(streams));
+		}
+	}
+	
+	/**
+	 * Gets the number of bytes that are left to be read from a stream, if it is backed by a file.
+	 * 
+	 * @param inputStream the stream to check
+	 * 
+	 * @return the remaining number of bytes, or -1 if it cannot be determined without reading the stream
+	 * 
+	 * @throws IOException if an I/O exception occurs
+	 */
+	private static long getRemainingSize(InputStream inputStream) throws IOException
+	{
+		if(!(inputStream instanceof FileInputStream)) return -1;
 		
-		return readResponse(connection);
+		FileChannel fileChannel = ((FileInputStream) inputStream).getChannel();
+		return fileChannel.size() - fileChannel.position();
 	}
 	
 	/**
@@ -289,33 +769,277 @@ public class HttpClient
 	 * @throws IOException if an I/O exception occurs
 	 * @throws NegativeResponseException if 4xx-5xx HTTP responseBody is received from Telegram server
 	 */
-	public static HttpResponse sendHttpPost(String requestUrl, List<NameValueParameter<String, String>> formFields)
+	public static HttpResponse sendHttpPost(String requestUrl, List<? extends NameValueParameter<String, ?>> formFields)
 			throws IOException, NegativeResponseException
 	{
-		URL url = new URL(requestUrl);
-		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-		connection.setRequestMethod("POST");
-		connection.setDoOutput(true);
-		connection.setUseCaches(false);
+		HttpURLConnection connection = openConnection(requestUrl, RequestTimeouts.NONE);
+		postForm(connection, formFields);
+		return readResponse(connection);
+	}
+	
+	/**
+	 * Send HTTP POST request using application/x-www-form-urlencoded content type, and decode the response body
+	 * as it is being received.
+	 * 
+	 * @param requestUrl url to send the request to
+	 * @param formFields pairs of Key/Value HTTP POST parameters
+	 * @param resultType the type of the expected result
+	 * 
+	 * @return the decoded response for the request
+	 * 
+	 * @throws IOException if an I/O exception occurs
+	 * @throws NegativeResponseException if 4xx-5xx HTTP response is received from Telegram server,
+	 *                                   or if the response indicates a failure
+	 */
+	public static <R> TelegramResult<R> sendHttpPost(String requestUrl, List<? extends NameValueParameter<String, ?>> formFields,
+	                                                 TypeReference<TelegramResult<R>> resultType)
+			throws IOException, NegativeResponseException
+	{
+		return sendHttpPost(requestUrl, formFields, RequestTimeouts.NONE, resultType);
+	}
+	
+	/**
+	 * Send HTTP POST request using application/x-www-form-urlencoded content type, and decode the response body
+	 * as it is being received.
+	 * 
+	 * @param requestUrl url to send the request to
+	 * @param formFields pairs of Key/Value HTTP POST parameters
+	 * @param timeouts the time limits of the request
+	 * @param resultType the type of the expected result
+	 * 
+	 * @return the decoded response for the request
+	 * 
+	 * @throws IOException if an I/O exception occurs, e.g. <code>SocketTimeoutException</code> if the request times out
+	 * @throws NegativeResponseException if 4xx-5xx HTTP response is received from Telegram server,
+	 *                                   or if the response indicates a failure
+	 */
+	public static <R> TelegramResult<R> sendHttpPost(String requestUrl, List<? extends NameValueParameter<String, ?>> formFields,
+	                                                 RequestTimeouts timeouts, TypeReference<TelegramResult<R>> resultType)
+			throws IOException, NegativeResponseException
+	{
+		HttpURLConnection connection = openConnection(requestUrl, timeouts);
+		Deadline deadline = Deadline.start(connection, timeouts);
+		
+		try
+		{
+			postForm(connection, formFields);
+			return readResponse(connection, resultType);
+		}
+		catch(IOException e)
+		{
+			throw deadline.translate(e);
+		}
+		finally
+		{
+			deadline.cancel();
+		}
+	}
+	
+	/**
+	 * Writes HTTP POST request using application/x-www-form-urlencoded content type.
+	 */
+	private static void postForm(HttpURLConnection connection, List<? extends NameValueParameter<String, ?>> formFields)
+			throws IOException
+	{
+		FormBodyWriter body = FormBodyWriter.forCurrentThread().appendAll(formFields);
+		
 		connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded;charset=UTF-8");
-		connection.setRequestProperty("User-Agent", "Java Agent");
-		OutputStream outputStream = connection.getOutputStream();
-		PrintWriter writer = new PrintWriter(new OutputStreamWriter(outputStream, "UTF-8"), true);
+		writeBody(connection, body.getBuffer(), body.size());
+	}
+	
+	/**
+	 * Send HTTP POST request using application/json content type. The parameters are written as the fields
+	 * of a single JSON object, so values like reply markups are embedded as nested objects.
+	 * 
+	 * @param requestUrl url to send the request to
+	 * @param fields pairs of Key/Value parameters
+	 * 
+	 * @return responseBody for the request
+	 * 
+	 * @throws IOException if an I/O exception occurs
+	 * @throws NegativeResponseException if 4xx-5xx HTTP responseBody is received from Telegram server
+	 */
+	public static HttpResponse sendJsonPost(String requestUrl, List<? extends NameValueParameter<String, ?>> fields)
+			throws IOException, NegativeResponseException
+	{
+		HttpURLConnection connection = openConnection(requestUrl, RequestTimeouts.NONE);
+		postJson(connection, fields);
+		return readResponse(connection);
+	}
+	
+	/**
+	 * Send HTTP POST request using application/json content type, and decode the response body
+	 * as it is being received.
+	 * 
+	 * @param requestUrl url to send the request to
+	 * @param fields pairs of Key/Value parameters
+	 * @param resultType the type of the expected result
+	 * 
+	 * @return the decoded response for the request
+	 * 
+	 * @throws IOException if an I/O exception occurs
+	 * @throws NegativeResponseException if 4xx-5xx HTTP response is received from Telegram server,
+	 *                                   or if the response indicates a failure
+	 */
+	public static <R> TelegramResult<R> sendJsonPost(String requestUrl, List<? extends NameValueParameter<String, ?>> fields,
+	                                                 TypeReference<TelegramResult<R>> resultType)
+			throws IOException, NegativeResponseException
+	{
+		return sendJsonPost(requestUrl, fields, RequestTimeouts.NONE, resultType);
+	}
+	
+	/**
+	 * Send HTTP POST request using application/json content type, and decode the response body
+	 * as it is being received.
+	 * 
+	 * @param requestUrl url to send the request to
+	 * @param fields pairs of Key/Value parameters
+	 * @param timeouts the time limits of the request
+	 * @param resultType the type of the expected result
+	 * 
+	 * @return the decoded response for the request
+	 * 
+	 * @throws IOException if an I/O exception occurs, e.g. <code>SocketTimeoutException</code> if the request times out
+	 * @throws NegativeResponseException if 4xx-5xx HTTP response is received from Telegram server,
+	 *                                   or if the response indicates a failure
+	 */
+	public static <R> TelegramResult<R> sendJsonPost(String requestUrl, List<? extends NameValueParameter<String, ?>> fields,
+	                                                 RequestTimeouts timeouts, TypeReference<TelegramResult<R>> resultType)
+			throws IOException, NegativeResponseException
+	{
+		HttpURLConnection connection = openConnection(requestUrl, timeouts);
+		Deadline deadline = Deadline.start(connection, timeouts);
 		
-		boolean prefixAnd = false;
-		for(NameValueParameter<String, String> parameter : formFields)
+		try
 		{
-			if(prefixAnd) writer.append("&");
-			else prefixAnd = true;
+			postJson(connection, fields);
+			return readResponse(connection, resultType);
+		}
+		catch(IOException e)
+		{
+			throw deadline.translate(e);
+		}
+		finally
+		{
+			deadline.cancel();
+		}
+	}
+	
+	/**
+	 * Writes HTTP POST request using application/json content type.
+	 */
+	private static void postJson(HttpURLConnection connection, List<? extends NameValueParameter<String, ?>> fields)
+			throws IOException
+	{
+		ByteArrayOutputStream body = new ByteArrayOutputStream(512);
+		writeJsonBody(body, fields);
+		
+		connection.setRequestProperty("Content-Type", "application/json;charset=UTF-8");
+		writeBody(connection, body.toByteArray(), body.size());
+	}
+	
+	/**
+	 * Writes a request body which is encoded up front (it is usually small), so that it is sent with its exact
+	 * length. The body is compressed by gzip if the request compression is enabled and the body is large enough.
+	 * 
+	 * @param connection the connection to write the body into
+	 * @param body the buffer that holds the encoded body
+	 * @param length the length of the encoded body
+	 * 
+	 * @throws IOException if an I/O exception occurs
+	 */
+	private static void writeBody(HttpURLConnection connection, byte[] body, int length) throws IOException
+	{
+		int threshold = requestCompressionThresholdInBytes;
+		if(threshold > 0 && length >= threshold)
+		{
+			ByteArrayOutputStream compressedBody = new ByteArrayOutputStream(length / 2);
+			GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressedBody);
+			gzipOutputStream.write(body, 0, length);
+			gzipOutputStream.close();
 			
-			writer.append(URLEncoder.encode(parameter.getName(), "UTF-8"))
-			      .append("=")
-			      .append(URLEncoder.encode(parameter.getValue(), "UTF-8"));
+			if(compressedBody.size() < length)
+			{
+				body = compressedBody.toByteArray();
+				length = body.length;
+				connection.setRequestProperty("Content-Encoding", "gzip");
+			}
 		}
 		
-		writer.close();
+		connection.setFixedLengthStreamingMode(length);
+		OutputStream outputStream = connection.getOutputStream();
 		
-		return readResponse(connection);
+		try
+		{
+			outputStream.write(body, 0, length);
+		}
+		finally
+		{
+			outputStream.close();
+		}
+	}
+	
+	/**
+	 * Opens a connection for an HTTP POST request, without connecting it yet.
+	 * 
+	 * @param requestUrl url to send the request to
+	 * @param timeouts the time limits of the request
+	 * 
+	 * @return the connection which the request can be written into
+	 * 
+	 * @throws IOException if an I/O exception occurs
+	 */
+	private static HttpURLConnection openConnection(String requestUrl, RequestTimeouts timeouts) throws IOException
+	{
+		URL url = new URL(requestUrl);
+		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+		connection.setRequestMethod("POST");
+		connection.setDoOutput(true);
+		connection.setUseCaches(false);
+		connection.setConnectTimeout(timeouts.getConnectTimeoutInMillis());
+		connection.setReadTimeout(timeouts.getReadTimeoutInMillis());
+		connection.setRequestProperty("User-Agent", "Java Agent");
+		connection.setRequestProperty("Accept-Encoding", "gzip, deflate");
+		return connection;
+	}
+	
+	/**
+	 * Writes the parameters as the fields of a single JSON object in one pass. Strings, numbers and booleans
+	 * are written as JSON primitives, and any other value (e.g. a reply markup) is written as a nested object.
+	 * 
+	 * @param outputStream the stream to write the JSON object into (it is not closed)
+	 * @param fields pairs of Key/Value parameters
+	 * 
+	 * @throws IOException if an I/O exception occurs
+	 */
+	public static void writeJsonBody(OutputStream outputStream, List<? extends NameValueParameter<String, ?>> fields)
+			throws IOException
+	{
+		JsonGenerator generator = JsonUtils.createGenerator(outputStream);
+		generator.writeStartObject();
+		if(fields instanceof RequestParameters) ((RequestParameters) fields).writeTo(generator);
+		else for(NameValueParameter<String, ?> parameter : fields) generator.writeObjectField(parameter.getName(), parameter.getValue());
+		generator.writeEndObject();
+		generator.flush();
+	}
+	
+	/**
+	 * Converts a parameter value to the string which is sent in a form body. Strings, numbers, booleans and
+	 * enums are converted by <code>String.valueOf()</code>, and any other value is converted to JSON (a frozen
+	 * reply markup gives its cached JSON).
+	 * 
+	 * @param value the parameter value
+	 * 
+	 * @return the string representation of the value
+	 * 
+	 * @throws IOException if the value cannot be converted to JSON
+	 */
+	public static String toFormValue(Object value) throws IOException
+	{
+		if(value instanceof String) return (String) value;
+		if(value instanceof FrozenReplyMarkup) return ((FrozenReplyMarkup) value).toJson();
+		if(value == null || value instanceof Number || value instanceof Boolean || value instanceof Enum) return String.valueOf(value);
+		return JsonUtils.toJson(value);
 	}
 	
 	/**
@@ -330,35 +1054,170 @@ public class HttpClient
 	 */
 	private static HttpResponse readResponse(HttpURLConnection connection) throws IOException, NegativeResponseException
 	{
-		int status = connection.getResponseCode();
-		if(status >= HttpURLConnection.HTTP_OK && status < HttpURLConnection.HTTP_BAD_REQUEST)
+		int status;
+		String response;
+		
+		try
 		{
-			StringBuilder sb = new StringBuilder();
-			BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
+			status = connection.getResponseCode();
 			
-			String line;
-			while((line = reader.readLine()) != null) sb.append(line).append("\r\n");
+			InputStream inputStream;
+			if(status >= HttpURLConnection.HTTP_OK && status < HttpURLConnection.HTTP_BAD_REQUEST)
+			{
+				inputStream = connection.getInputStream();
+			}
+			else
+			{
+				inputStream = connection.getErrorStream();
+			}
 			
-			reader.close();
+			// the whole body must be consumed and the stream closed, so that the connection
+			// is returned to the keep-alive pool instead of being thrown away
+			response = readFully(decodeContent(connection, inputStream));
+		}
+		catch(IOException e)
+		{
+			// the connection is in an unknown state, so make sure it won't be reused
 			connection.disconnect();
-			
-			return new HttpResponse(status, sb.toString());
+			throw e;
+		}
+		
+		if(status >= HttpURLConnection.HTTP_OK && status < HttpURLConnection.HTTP_BAD_REQUEST)
+		{
+			return new HttpResponse(status, response);
 		}
 		else
 		{
-			StringBuilder sb = new StringBuilder();
-			BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getErrorStream()));
+			throw new NegativeResponseException(status, response);
+		}
+	}
+	
+	/**
+	 * Read HTTP response, by decoding the JSON body directly from the connection stream. In case of a negative
+	 * response, the body is buffered as raw bytes and decoded once by the thrown exception.
+	 * 
+	 * @param connection the HTTP connection which we read the response from
+	 * @param resultType the type of the expected result
+	 * 
+	 * @return the decoded response
+	 * 
+	 * @throws IOException if an I/O exception occurs
+	 * @throws NegativeResponseException if 4xx-5xx HTTP response is received from Telegram server,
+	 *                                   or if the response indicates a failure
+	 */
+	private static <R> TelegramResult<R> readResponse(HttpURLConnection connection, TypeReference<TelegramResult<R>> resultType)
+			throws IOException, NegativeResponseException
+	{
+		int status;
+		TelegramResult<R> telegramResult;
+		
+		try
+		{
+			status = connection.getResponseCode();
+			
+			if(status < HttpURLConnection.HTTP_OK || status >= HttpURLConnection.HTTP_BAD_REQUEST)
+			{
+				throw new NegativeResponseException(status, readBytes(decodeContent(connection, connection.getErrorStream())));
+			}
 			
+			// the parser reads the stream until its end and closes it, which returns the connection to the pool
+			telegramResult = JsonUtils.toJavaObject(decodeContent(connection, connection.getInputStream()), resultType);
+		}
+		catch(IOException e)
+		{
+			// the connection is in an unknown state, so make sure it won't be reused
+			connection.disconnect();
+			throw e;
+		}
+		
+		if(!telegramResult.isOk()) throw new NegativeResponseException(status, telegramResult);
+		
+		return telegramResult;
+	}
+	
+	/**
+	 * Wraps the response stream by a decoder according to its content encoding, so that the response
+	 * is decompressed while it is being read.
+	 * 
+	 * @param connection the HTTP connection which the response is read from
+	 * @param inputStream the response stream, can be null in case of an empty body
+	 * 
+	 * @return the decoded stream
+	 * 
+	 * @throws IOException if an I/O exception occurs
+	 */
+	private static InputStream decodeContent(HttpURLConnection connection, InputStream inputStream) throws IOException
+	{
+		String contentEncoding = connection.getContentEncoding();
+		if(inputStream == null || contentEncoding == null) return inputStream;
+		
+		contentEncoding = contentEncoding.trim();
+		if(contentEncoding.equalsIgnoreCase("gzip") || contentEncoding.equalsIgnoreCase("x-gzip"))
+		{
+			return new GZIPInputStream(inputStream, DECODING_BUFFER_SIZE);
+		}
+		else if(contentEncoding.equalsIgnoreCase("deflate"))
+		{
+			return new InflaterInputStream(inputStream);
+		}
+		else return inputStream;
+	}
+	
+	/**
+	 * Reads the stream until its end and then closes it.
+	 * 
+	 * @param inputStream the stream to read, can be null in case of an empty body
+	 * 
+	 * @return the content of the stream
+	 * 
+	 * @throws IOException if an I/O exception occurs
+	 */
+	private static byte[] readBytes(InputStream inputStream) throws IOException
+	{
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream(256);
+		if(inputStream == null) return outputStream.toByteArray();
+		
+		try
+		{
+			byte[] buffer = new byte[4096];
+			int n;
+			while((n = inputStream.read(buffer)) != -1) outputStream.write(buffer, 0, n);
+		}
+		finally
+		{
+			inputStream.close();
+		}
+		
+		return outputStream.toByteArray();
+	}
+	
+	/**
+	 * Reads the stream as UTF-8 text until its end and then closes it.
+	 * 
+	 * @param inputStream the stream to read, can be null in case of an empty body
+	 * 
+	 * @return the content of the stream
+	 * 
+	 * @throws IOException if an I/O exception occurs
+	 */
+	private static String readFully(InputStream inputStream) throws IOException
+	{
+		StringBuilder sb = new StringBuilder();
+		if(inputStream == null) return sb.toString();
+		
+		BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, "UTF-8"));
+		
+		try
+		{
 			String line;
 			while((line = reader.readLine()) != null) sb.append(line).append("\r\n");
-			
+		}
+		finally
+		{
 			reader.close();
-			connection.disconnect();
-			
-			String response = sb.toString();
-			
-			throw new NegativeResponseException(status, response);
 		}
+		
+		return sb.toString();
 	}
 	
 	/**
@@ -371,12 +1230,48 @@ public class HttpClient
 	 */
 	public static void downloadFile(String fileUrl, OutputStream saveToOutputStream) throws IOException
 	{
-		BufferedInputStream bis = new BufferedInputStream(new URL(fileUrl).openStream());
-		BufferedOutputStream bos = new BufferedOutputStream(saveToOutputStream);
+		downloadFile(fileUrl, saveToOutputStream, RequestTimeouts.NONE);
+	}
+	
+	/**
+	 * Download a file from the internet.
+	 * 
+	 * @param fileUrl the url where we download the file from
+	 * @param saveToOutputStream the output stream where the file will be saved/streamed
+	 * @param timeouts the time limits of the download
+	 * 
+	 * @throws IOException if an I/O exception occurs, e.g. <code>SocketTimeoutException</code> if the download times out
+	 */
+	public static void downloadFile(String fileUrl, OutputStream saveToOutputStream, RequestTimeouts timeouts) throws IOException
+	{
+		HttpURLConnection connection = (HttpURLConnection) new URL(fileUrl).openConnection();
+		connection.setConnectTimeout(timeouts.getConnectTimeoutInMillis());
+		connection.setReadTimeout(timeouts.getReadTimeoutInMillis());
+		Deadline deadline = Deadline.start(connection, timeouts);
+		byte[] buffer = new byte[BUFFER_SIZE];
 		
-		int theByte;
-		while((theByte = bis.read()) != -1) bos.write(theByte);
-		bis.close();
-		bos.close();
+		try
+		{
+			InputStream inputStream = connection.getInputStream();
+			
+			try
+			{
+				int count;
+				while((count = inputStream.read(buffer)) != -1) saveToOutputStream.write(buffer, 0, count);
+			}
+			finally
+			{
+				inputStream.close();
+			}
+		}
+		catch(IOException e)
+		{
+			throw deadline.translate(e);
+		}
+		finally
+		{
+			deadline.cancel();
+			saveToOutputStream.close();
+		}
 	}
 }
\ No newline at end of file
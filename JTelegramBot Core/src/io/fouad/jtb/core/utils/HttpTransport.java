@@ -0,0 +1,116 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Fouad Almalki
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.fouad.jtb.core.utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.fouad.jtb.core.beans.TelegramResult;
+import io.fouad.jtb.core.exceptions.NegativeResponseException;
+import io.fouad.jtb.core.utils.HttpClient.FileField;
+import io.fouad.jtb.core.utils.HttpClient.NameValueParameter;
+import io.fouad.jtb.core.utils.HttpClient.RequestTimeouts;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * The transport which is used by <code>JTelegramBot</code> to talk to the Bot API server. The default
+ * implementation is <code>DefaultHttpTransport</code>. A custom implementation can be set through
+ * <code>TelegramBotConfig</code>, e.g. to use another HTTP client or to run the bot against an in-process fake.
+ * Implementations must be thread-safe, as they are shared by all worker threads of the bot.
+ * <p>
+ * The parameters lists are usually <code>RequestParameters</code> instances which are reused by the calling
+ * thread, so an implementation must encode them before returning and must not keep a reference to them.
+ */
+public interface HttpTransport
+{
+	/**
+	 * Sends HTTP POST request using application/x-www-form-urlencoded content type.
+	 * 
+	 * @param requestUrl url to send the request to
+	 * @param formFields pairs of Key/Value HTTP POST parameters
+	 * @param timeouts the time limits of the request
+	 * @param resultType the type of the expected result
+	 * 
+	 * @return the decoded response for the request
+	 * 
+	 * @throws IOException if an I/O exception occurs, e.g. <code>SocketTimeoutException</code> if the request times out
+	 * @throws NegativeResponseException if 4xx-5xx HTTP response is received from Telegram server,
+	 *                                   or if the response indicates a failure
+	 */
+	<R> TelegramResult<R> sendHttpPost(String requestUrl, List<? extends NameValueParameter<String, ?>> formFields,
+	                                   RequestTimeouts timeouts, TypeReference<TelegramResult<R>> resultType)
+			throws IOException, NegativeResponseException;
+	
+	/**
+	 * Sends HTTP POST request using multipart/form-data content type.
+	 * 
+	 * @param requestUrl url to send the request to
+	 * @param formFields pairs of Key/Value HTTP POST parameters
+	 * @param files list of files
+	 * @param timeouts the time limits of the request
+	 * @param resultType the type of the expected result
+	 * 
+	 * @return the decoded response for the request
+	 * 
+	 * @throws IOException if an I/O exception occurs, e.g. <code>SocketTimeoutException</code> if the request times out
+	 * @throws NegativeResponseException if 4xx-5xx HTTP response is received from Telegram server,
+	 *                                   or if the response indicates a failure
+	 */
+	<R> TelegramResult<R> sendHttpPost(String requestUrl, List<? extends NameValueParameter<String, ?>> formFields,
+	                                   List<NameValueParameter<String, FileField>> files,
+	                                   RequestTimeouts timeouts, TypeReference<TelegramResult<R>> resultType)
+			throws IOException, NegativeResponseException;
+	
+	/**
+	 * Sends HTTP POST request using application/json content type, where the parameters are the fields
+	 * of a single JSON object. See <code>HttpClient.writeJsonBody()</code>.
+	 * 
+	 * @param requestUrl url to send the request to
+	 * @param fields pairs of Key/Value parameters
+	 * @param timeouts the time limits of the request
+	 * @param resultType the type of the expected result
+	 * 
+	 * @return the decoded response for the request
+	 * 
+	 * @throws IOException if an I/O exception occurs, e.g. <code>SocketTimeoutException</code> if the request times out
+	 * @throws NegativeResponseException if 4xx-5xx HTTP response is received from Telegram server,
+	 *                                   or if the response indicates a failure
+	 */
+	<R> TelegramResult<R> sendJsonPost(String requestUrl, List<? extends NameValueParameter<String, ?>> fields,
+	                                   RequestTimeouts timeouts, TypeReference<TelegramResult<R>> resultType)
+			throws IOException, NegativeResponseException;
+	
+	/**
+	 * Downloads a file and writes it into the output stream. Both streams are closed at the end.
+	 * 
+	 * @param fileUrl the url of the file
+	 * @param saveToOutputStream the output stream that the file will be written into
+	 * @param timeouts the time limits of the download
+	 * 
+	 * @throws IOException if an I/O exception occurs, e.g. <code>SocketTimeoutException</code> if the request times out
+	 */
+	void downloadFile(String fileUrl, OutputStream saveToOutputStream, RequestTimeouts timeouts) throws IOException;
+}
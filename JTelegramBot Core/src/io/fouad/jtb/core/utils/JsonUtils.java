@@ -25,37 +25,259 @@
 package io.fouad.jtb.core.utils;
 
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Utility class to handle conversions between JSON and Java object and vice versa.
+ * <p>
+ * All conversions share one pre-configured <code>ObjectMapper</code>, so that Jackson introspects every bean
+ * only once and reuses its serializers and deserializers. The readers and writers are immutable and are cached
+ * per target type, which makes this class thread-safe and shared by all bots in the JVM.
  */
 public class JsonUtils
 {
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	private static final ConcurrentMap<Type, ObjectReader> READERS = new ConcurrentHashMap<Type, ObjectReader>();
+	private static final ConcurrentMap<Class<?>, ObjectWriter> WRITERS = new ConcurrentHashMap<Class<?>, ObjectWriter>();
+	
+	static
+	{
+		MAPPER.enable(DeserializationFeature.READ_ENUMS_USING_TO_STRING);
+		MAPPER.setSerializationInclusion(Include.NON_NULL);
+		MAPPER.enable(SerializationFeature.WRITE_ENUMS_USING_TO_STRING);
+		MAPPER.registerModule(BeanDeserializers.createModule());
+		MAPPER.registerModule(BeanSerializers.createModule());
+	}
+	
 	public static <T> T toJavaObject(String json, Class<T> clazz) throws IOException
 	{
-		ObjectMapper mapper = new ObjectMapper();
-		mapper.enable(DeserializationFeature.READ_ENUMS_USING_TO_STRING);
-		return mapper.readValue(json, clazz);
+		return getReader(clazz).readValue(json);
 	}
 	
 	public static <T, R> T toJavaObject(String json, TypeReference typeReference) throws IOException
 	{
-		ObjectMapper mapper = new ObjectMapper();
-		mapper.enable(DeserializationFeature.READ_ENUMS_USING_TO_STRING);
-		return mapper.readValue(json, typeReference);
+		return getReader(typeReference).readValue(json);
+	}
+	
+	public static <T> T toJavaObject(byte[] json, Class<T> clazz) throws IOException
+	{
+		return getReader(clazz).readValue(json);
+	}
+	
+	public static <T> T toJavaObject(byte[] json, TypeReference<T> typeReference) throws IOException
+	{
+		return getReader(typeReference).readValue(json);
+	}
+	
+	/**
+	 * Decodes UTF-8 JSON from a region of a byte array, without copying the region or decoding it into a string.
+	 */
+	public static <T> T toJavaObject(byte[] json, int offset, int length, Class<T> clazz) throws IOException
+	{
+		return getReader(clazz).readValue(json, offset, length);
+	}
+	
+	/**
+	 * Decodes UTF-8 JSON from a region of a byte array, without copying the region or decoding it into a string.
+	 */
+	public static <T> T toJavaObject(byte[] json, int offset, int length, TypeReference<T> typeReference) throws IOException
+	{
+		return getReader(typeReference).readValue(json, offset, length);
+	}
+	
+	/**
+	 * Decodes UTF-8 JSON from the remaining bytes of a buffer. A heap buffer is parsed in place, while a direct
+	 * buffer is streamed through the parser. The position of the buffer is not changed.
+	 */
+	public static <T> T toJavaObject(ByteBuffer json, Class<T> clazz) throws IOException
+	{
+		return toJavaObject(json, clazz, null, null);
+	}
+	
+	/**
+	 * Same as <code>toJavaObject(ByteBuffer, Class)</code>, but takes the repeated strings of the beans from the pool,
+	 * and decodes only the fields of the updates and the messages which the projection selects.
+	 * 
+	 * @param stringPool the pool of the repeated strings, or <code>null</code> to not pool them
+	 * @param fieldProjection the fields to decode, or <code>null</code> to decode all of them
+	 */
+	public static <T> T toJavaObject(ByteBuffer json, Class<T> clazz, StringPool stringPool,
+	                                 FieldProjection fieldProjection) throws IOException
+	{
+		ObjectReader reader = withDecodingOptions(getReader(clazz), stringPool, fieldProjection);
+		
+		if(json.hasArray()) return reader.readValue(json.array(), json.arrayOffset() + json.position(), json.remaining());
+		return reader.readValue(new ByteBufferBackedInputStream(json.duplicate()));
+	}
+	
+	/**
+	 * Decodes UTF-8 JSON from the remaining bytes of a buffer. A heap buffer is parsed in place, while a direct
+	 * buffer is streamed through the parser. The position of the buffer is not changed.
+	 */
+	public static <T> T toJavaObject(ByteBuffer json, TypeReference<T> typeReference) throws IOException
+	{
+		ObjectReader reader = getReader(typeReference);
+		if(json.hasArray()) return reader.readValue(json.array(), json.arrayOffset() + json.position(), json.remaining());
+		return reader.readValue(new ByteBufferBackedInputStream(json.duplicate()));
+	}
+	
+	public static <T> T toJavaObject(InputStream inputStream, Class<T> clazz) throws IOException
+	{
+		return getReader(clazz).readValue(inputStream);
+	}
+	
+	public static <T> T toJavaObject(InputStream inputStream, TypeReference<T> typeReference) throws IOException
+	{
+		return getReader(typeReference).readValue(inputStream);
+	}
+	
+	/**
+	 * Creates a JSON generator which writes objects with the same settings as <code>toJson()</code>.
+	 */
+	public static JsonGenerator createGenerator(OutputStream outputStream) throws IOException
+	{
+		return MAPPER.getFactory().createGenerator(outputStream, JsonEncoding.UTF8);
+	}
+	
+	/**
+	 * Copies the current value of the parser (e.g. a whole object) as raw JSON, and moves the parser to its end.
+	 */
+	static byte[] copyCurrentValue(JsonParser parser) throws IOException
+	{
+		ByteArrayBuilder builder = new ByteArrayBuilder();
+		JsonGenerator generator = MAPPER.getFactory().createGenerator(builder, JsonEncoding.UTF8);
+		generator.copyCurrentStructure(parser);
+		generator.close();
+		return builder.toByteArray();
+	}
+	
+	/**
+	 * Serializes the object with the same settings as <code>toJson()</code> into a custom generator,
+	 * e.g. one that encodes the tokens into another format. The generator is not closed.
+	 */
+	static void writeValue(JsonGenerator generator, Object javaObject) throws IOException
+	{
+		generator.setCodec(MAPPER);
+		
+		if(javaObject == null) MAPPER.writeValue(generator, null);
+		else getWriter(javaObject.getClass()).writeValue(generator, javaObject);
+	}
+	
+	/**
+	 * Creates a parser over a JSON text, e.g. a pre-serialized value.
+	 */
+	static JsonParser createParser(String json) throws IOException
+	{
+		return MAPPER.getFactory().createParser(json);
+	}
+	
+	/**
+	 * Deserializes the next value of the parser, e.g. the tokens of a <code>TokenBuffer</code>.
+	 */
+	static <T> T toJavaObject(JsonParser parser, Class<T> clazz) throws IOException
+	{
+		return getReader(clazz).readValue(parser);
 	}
 	
 	public static String toJson(Object javaObject) throws IOException
 	{
-		ObjectMapper mapper = new ObjectMapper();
-		mapper.setSerializationInclusion(Include.NON_NULL);
-		mapper.enable(SerializationFeature.WRITE_ENUMS_USING_TO_STRING);
-		return mapper.writeValueAsString(javaObject);
+		if(javaObject == null) return MAPPER.writeValueAsString(null);
+		return getWriter(javaObject.getClass()).writeValueAsString(javaObject);
+	}
+	
+	/**
+	 * Same as <code>toJson()</code>, but encodes the object directly into UTF-8 bytes.
+	 */
+	public static byte[] toJsonBytes(Object javaObject) throws IOException
+	{
+		if(javaObject == null) return MAPPER.writeValueAsBytes(null);
+		return getWriter(javaObject.getClass()).writeValueAsBytes(javaObject);
+	}
+	
+	/**
+	 * Same as <code>toJson()</code>, but encodes the object as UTF-8 into a caller-supplied stream
+	 * (e.g. a reusable buffer). The stream is flushed but not closed.
+	 */
+	public static void writeJson(Object javaObject, OutputStream outputStream) throws IOException
+	{
+		JsonGenerator generator = createGenerator(outputStream);
+		generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		
+		if(javaObject == null) MAPPER.writeValue(generator, null);
+		else getWriter(javaObject.getClass()).writeValue(generator, javaObject);
+		
+		generator.close();
+	}
+	
+	private static ObjectReader getReader(TypeReference<?> typeReference)
+	{
+		ObjectReader reader = getReader(typeReference.getType());
+		
+		// the deserializer of UpdateBatch streams the updates to the listener of the type
+		if(typeReference instanceof UpdateStream)
+		{
+			UpdateStream updateStream = (UpdateStream) typeReference;
+			reader = reader.withAttribute(UpdateStream.class, updateStream);
+			reader = withDecodingOptions(reader, updateStream.getStringPool(), updateStream.getFieldProjection());
+		}
+		
+		return reader;
+	}
+	
+	/**
+	 * Passes the options to the bean deserializers as attributes of the reader.
+	 */
+	private static ObjectReader withDecodingOptions(ObjectReader reader, StringPool stringPool,
+	                                                FieldProjection fieldProjection)
+	{
+		if(stringPool != null) reader = reader.withAttribute(StringPool.class, stringPool);
+		if(fieldProjection != null) reader = reader.withAttribute(FieldProjection.class, fieldProjection);
+		return reader;
+	}
+	
+	private static ObjectReader getReader(Type type)
+	{
+		ObjectReader reader = READERS.get(type);
+		
+		if(reader == null)
+		{
+			reader = MAPPER.readerFor(MAPPER.getTypeFactory().constructType(type));
+			ObjectReader existingReader = READERS.putIfAbsent(type, reader);
+			if(existingReader != null) reader = existingReader;
+		}
+		
+		return reader;
+	}
+	
+	private static ObjectWriter getWriter(Class<?> clazz)
+	{
+		ObjectWriter writer = WRITERS.get(clazz);
+		
+		if(writer == null)
+		{
+			writer = MAPPER.writerFor(clazz);
+			ObjectWriter existingWriter = WRITERS.putIfAbsent(clazz, writer);
+			if(existingWriter != null) writer = existingWriter;
+		}
+		
+		return writer;
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,82 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Fouad Almalki
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.fouad.jtb.core.utils;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * A value which is kept as raw JSON and decoded when it is needed for the first time. The decoded value is
+ * cached and the raw JSON is dropped then. It is thread-safe without locking: if several threads decode the value
+ * at the same time, they all get the one which is cached first.
+ */
+public class LazyValue<T>
+{
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<LazyValue, Object> VALUE_UPDATER =
+			AtomicReferenceFieldUpdater.newUpdater(LazyValue.class, Object.class, "value");
+	
+	private final Class<T> valueClass;
+	private volatile byte[] json;
+	private volatile T value;
+	
+	public LazyValue(byte[] json, Class<T> valueClass)
+	{
+		this.json = json;
+		this.valueClass = valueClass;
+	}
+	
+	/**
+	 * @return the decoded value
+	 * 
+	 * @throws IllegalStateException if the raw JSON cannot be decoded
+	 */
+	public T get()
+	{
+		T decodedValue = value;
+		if(decodedValue != null) return decodedValue;
+		
+		// the value is set before the raw JSON is dropped
+		byte[] rawJson = json;
+		if(rawJson == null) return value;
+		
+		try
+		{
+			VALUE_UPDATER.compareAndSet(this, null, JsonUtils.toJavaObject(rawJson, valueClass));
+			json = null;
+			return value;
+		}
+		catch(IOException e)
+		{
+			throw new IllegalStateException("Failed to decode " + valueClass.getSimpleName() + ".", e);
+		}
+	}
+	
+	@Override
+	public String toString()
+	{
+		return "LazyValue{" + "valueClass=" + valueClass.getSimpleName() + ", decoded=" + (value != null) + '}';
+	}
+}
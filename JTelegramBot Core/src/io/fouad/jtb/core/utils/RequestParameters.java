@@ -0,0 +1,194 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Fouad Almalki
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.fouad.jtb.core.utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.fouad.jtb.core.utils.HttpClient.NameValueParameter;
+
+import java.io.IOException;
+import java.util.AbstractList;
+
+/**
+ * The parameters of an API request, in the order they are added. Integral numbers are kept unboxed and no
+ * <code>NameValueParameter</code> is created for them, so that the encoders (<code>FormBodyWriter</code> and
+ * <code>HttpClient.writeJsonBody()</code>) can write a request without allocating per parameter. It is still a
+ * regular list of parameters for any other code, where the elements are created when they are accessed.
+ * <p>
+ * <code>forCurrentThread()</code> returns an empty instance which is reused by all the requests of the calling
+ * thread. Such an instance is valid only until the request it is passed to returns, so a transport must not
+ * keep a reference to it.
+ */
+public class RequestParameters extends AbstractList<NameValueParameter<String, Object>>
+{
+	private static final int INITIAL_CAPACITY = 8;
+	
+	// marks a value which is stored in the numbers array
+	private static final Object NUMBER = new Object();
+	
+	private static final ThreadLocal<RequestParameters> THREAD_LOCAL = new ThreadLocal<RequestParameters>()
+	{
+		@Override
+		protected RequestParameters initialValue()
+		{
+			return new RequestParameters();
+		}
+	};
+	
+	private String[] names = new String[INITIAL_CAPACITY];
+	private Object[] values = new Object[INITIAL_CAPACITY];
+	private long[] numbers = new long[INITIAL_CAPACITY];
+	private int size = 0;
+	
+	/**
+	 * @return an empty instance which is reused by all the requests of the calling thread
+	 */
+	public static RequestParameters forCurrentThread()
+	{
+		RequestParameters parameters = THREAD_LOCAL.get();
+		parameters.clear();
+		return parameters;
+	}
+	
+	public RequestParameters add(String name, long value)
+	{
+		int index = nextIndex();
+		names[index] = name;
+		values[index] = NUMBER;
+		numbers[index] = value;
+		return this;
+	}
+	
+	public RequestParameters add(String name, boolean value)
+	{
+		return add(name, (Object) (value ? Boolean.TRUE : Boolean.FALSE));
+	}
+	
+	/**
+	 * Adds a parameter. Strings, numbers, booleans and enums are sent as they are, and any other
+	 * value (e.g. a reply markup) is sent as JSON.
+	 * 
+	 * @param name the name of the parameter
+	 * @param value the value of the parameter
+	 * 
+	 * @return this instance
+	 */
+	public RequestParameters add(String name, Object value)
+	{
+		if(value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)
+		{
+			return add(name, ((Number) value).longValue());
+		}
+		
+		int index = nextIndex();
+		names[index] = name;
+		values[index] = value;
+		return this;
+	}
+	
+	@Override
+	public boolean add(NameValueParameter<String, Object> parameter)
+	{
+		add(parameter.getName(), parameter.getValue());
+		return true;
+	}
+	
+	@Override
+	public NameValueParameter<String, Object> get(int index)
+	{
+		if(index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		
+		Object value = values[index] == NUMBER ? Long.valueOf(numbers[index]) : values[index];
+		return new NameValueParameter<String, Object>(names[index], value);
+	}
+	
+	@Override
+	public int size(){return size;}
+	
+	@Override
+	public void clear()
+	{
+		for(int i = 0; i < size; i++)
+		{
+			names[i] = null;
+			values[i] = null;
+		}
+		
+		size = 0;
+		modCount++;
+	}
+	
+	/**
+	 * Writes the parameters into a form body.
+	 * 
+	 * @param writer the writer of the form body
+	 * 
+	 * @throws IOException if a value cannot be converted to JSON
+	 */
+	public void writeTo(FormBodyWriter writer) throws IOException
+	{
+		for(int i = 0; i < size; i++)
+		{
+			if(values[i] == NUMBER) writer.append(names[i], numbers[i]);
+			else writer.append(names[i], values[i]);
+		}
+	}
+	
+	/**
+	 * Writes the parameters as fields of the current JSON object.
+	 * 
+	 * @param generator the generator of the JSON body
+	 * 
+	 * @throws IOException if an I/O exception occurs
+	 */
+	public void writeTo(JsonGenerator generator) throws IOException
+	{
+		for(int i = 0; i < size; i++)
+		{
+			if(values[i] == NUMBER) generator.writeNumberField(names[i], numbers[i]);
+			else generator.writeObjectField(names[i], values[i]);
+		}
+	}
+	
+	private int nextIndex()
+	{
+		if(size == names.length)
+		{
+			int newCapacity = size * 2;
+			
+			String[] newNames = new String[newCapacity];
+			Object[] newValues = new Object[newCapacity];
+			long[] newNumbers = new long[newCapacity];
+			System.arraycopy(names, 0, newNames, 0, size);
+			System.arraycopy(values, 0, newValues, 0, size);
+			System.arraycopy(numbers, 0, newNumbers, 0, size);
+			names = newNames;
+			values = newValues;
+			numbers = newNumbers;
+		}
+		
+		modCount++;
+		return size++;
+	}
+}
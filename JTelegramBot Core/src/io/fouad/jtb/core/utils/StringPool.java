@@ -0,0 +1,113 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Fouad Almalki
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.fouad.jtb.core.utils;
+
+/**
+ * A bounded pool of canonical strings, which the bean deserializers use to share the strings that repeat across
+ * the updates (e.g. the names of the users and the titles of the chats), instead of holding a copy of them in every
+ * decoded message. A string is looked up by the characters of the parser, so a string which is already in the
+ * pool is not even allocated.
+ * <p>
+ * The pool is a direct-mapped hash table: every string has a single slot, and a new string evicts the one in its
+ * slot. The slots are read and written without locking. A race between two threads can only cost a miss, since
+ * the strings are immutable and a slot always holds a whole string.
+ */
+public class StringPool
+{
+	/**
+	 * Longer strings (e.g. the texts of the messages) rarely repeat, so they are not pooled.
+	 */
+	public static final int MAX_STRING_LENGTH = 64;
+	
+	private final int capacity;
+	private final String[] table;
+	private final int mask;
+	
+	/**
+	 * @param capacity the maximum number of pooled strings, rounded up to a power of two
+	 */
+	public StringPool(int capacity)
+	{
+		if(capacity <= 0) throw new IllegalArgumentException("\"capacity\" must be positive.");
+		
+		int tableSize = Integer.highestOneBit(Math.min(capacity, 1 << 30));
+		if(tableSize < capacity) tableSize <<= 1;
+		
+		this.capacity = capacity;
+		this.table = new String[tableSize];
+		this.mask = tableSize - 1;
+	}
+	
+	public int getCapacity(){return capacity;}
+	
+	/**
+	 * @return the pooled string which has the given characters, which is added to the pool if it is not there
+	 */
+	public String intern(char[] chars, int offset, int length)
+	{
+		if(length > MAX_STRING_LENGTH) return new String(chars, offset, length);
+		
+		int hash = 0;
+		for(int i = offset; i < offset + length; i++) hash = 31 * hash + chars[i];
+		
+		int slot = spread(hash) & mask;
+		String s = table[slot];
+		if(s != null && s.length() == length && s.hashCode() == hash && equals(s, chars, offset)) return s;
+		
+		s = new String(chars, offset, length);
+		table[slot] = s;
+		return s;
+	}
+	
+	/**
+	 * @return the pooled string which is equal to the given one, which is added to the pool if it is not there
+	 */
+	public String intern(String s)
+	{
+		if(s == null || s.length() > MAX_STRING_LENGTH) return s;
+		
+		int slot = spread(s.hashCode()) & mask;
+		String pooled = table[slot];
+		if(s.equals(pooled)) return pooled;
+		
+		table[slot] = s;
+		return s;
+	}
+	
+	private static int spread(int hash)
+	{
+		return hash ^ (hash >>> 16);
+	}
+	
+	private static boolean equals(String s, char[] chars, int offset)
+	{
+		for(int i = 0; i < s.length(); i++)
+		{
+			if(s.charAt(i) != chars[offset + i]) return false;
+		}
+		
+		return true;
+	}
+}
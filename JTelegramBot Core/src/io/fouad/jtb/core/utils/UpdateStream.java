@@ -0,0 +1,80 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Fouad Almalki
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.fouad.jtb.core.utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.fouad.jtb.core.beans.TelegramResult;
+import io.fouad.jtb.core.beans.Update;
+import io.fouad.jtb.core.beans.UpdateBatch;
+
+/**
+ * The result type of getUpdates which makes <code>JsonUtils</code> walk the array of updates token by token, and
+ * pass each update to the listener as soon as it is decoded, instead of decoding the whole array first. The
+ * transports pass the type to <code>JsonUtils</code> as is, so the streaming works through any of them that
+ * decode by <code>JsonUtils</code>. Any other transport returns the updates in the <code>UpdateBatch</code>.
+ */
+public class UpdateStream extends TypeReference<TelegramResult<UpdateBatch>>
+{
+	/**
+	 * Receives the updates of a getUpdates response in order, on the thread which decodes the response.
+	 */
+	public interface Listener
+	{
+		void onUpdate(Update update);
+	}
+	
+	private final Listener listener;
+	private final boolean lazyDecoding;
+	private final StringPool stringPool;
+	private final FieldProjection fieldProjection;
+	
+	/**
+	 * @param listener the listener of the updates
+	 * @param lazyDecoding whether the updates are decoded as <code>LazyUpdate</code>
+	 */
+	public UpdateStream(Listener listener, boolean lazyDecoding)
+	{
+		this(listener, lazyDecoding, null, null);
+	}
+	
+	/**
+	 * @param listener the listener of the updates
+	 * @param lazyDecoding whether the updates are decoded as <code>LazyUpdate</code>
+	 * @param stringPool the pool of the repeated strings of the updates, or <code>null</code> to not pool them
+	 * @param fieldProjection the fields of the updates to decode, or <code>null</code> to decode all of them
+	 */
+	public UpdateStream(Listener listener, boolean lazyDecoding, StringPool stringPool, FieldProjection fieldProjection)
+	{
+		this.listener = listener;
+		this.lazyDecoding = lazyDecoding;
+		this.stringPool = stringPool;
+		this.fieldProjection = fieldProjection;
+	}
+	
+	public Listener getListener(){return listener;}
+	public boolean isLazyDecoding(){return lazyDecoding;}
+	public StringPool getStringPool(){return stringPool;}
+	public FieldProjection getFieldProjection(){return fieldProjection;}
+}
@@ -0,0 +1,708 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Fouad Almalki
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.fouad.jtb.webhook;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.fouad.jtb.core.beans.TelegramResult;
+import io.fouad.jtb.core.exceptions.NegativeResponseException;
+import io.fouad.jtb.core.utils.FormBodyWriter;
+import io.fouad.jtb.core.utils.HttpClient;
+import io.fouad.jtb.core.utils.HttpClient.FileField;
+import io.fouad.jtb.core.utils.HttpClient.HttpResponse;
+import io.fouad.jtb.core.utils.HttpClient.MultipartBody;
+import io.fouad.jtb.core.utils.HttpClient.NameValueParameter;
+import io.fouad.jtb.core.utils.HttpClient.RequestTimeouts;
+import io.fouad.jtb.core.utils.HttpTransport;
+import io.fouad.jtb.core.utils.JsonUtils;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.pool.AbstractChannelPoolHandler;
+import io.netty.channel.pool.FixedChannelPool;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpChunkedInput;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpContentDecompressor;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpHeaders.Values;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.stream.ChunkedStream;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.FutureListener;
+import io.netty.util.concurrent.Promise;
+import io.netty.util.concurrent.ScheduledFuture;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLParameters;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static io.netty.handler.codec.http.HttpHeaders.Names.ACCEPT_ENCODING;
+import static io.netty.handler.codec.http.HttpHeaders.Names.CONNECTION;
+import static io.netty.handler.codec.http.HttpHeaders.Names.CONTENT_LENGTH;
+import static io.netty.handler.codec.http.HttpHeaders.Names.CONTENT_TYPE;
+import static io.netty.handler.codec.http.HttpHeaders.Names.HOST;
+import static io.netty.handler.codec.http.HttpHeaders.Names.USER_AGENT;
+import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+
+/**
+ * A non-blocking HTTP client based on Netty. Unlike <code>HttpClient</code>, sending a request does not block
+ * the calling thread; the request is written by one of a few event loop threads over a pooled keep-alive
+ * connection and the returned <code>Future</code> is completed once the response arrives. This allows a single
+ * JVM to have thousands of API calls in flight without dedicating a thread to each one of them.
+ * <p>
+ * An instance of this class should be shared and reused, and then released by calling <code>shutdown()</code>.
+ * It can also be plugged into <code>TelegramBotConfig</code> as the transport of a bot. The read timeout of a request
+ * is the maximum time to wait for its whole response once it is sent, and the connect timeout is not applied per
+ * request (connections are pooled); use the deadline to bound the waiting for a free connection as well.
+ */
+public class NettyHttpClient implements HttpTransport
+{
+	// default values
+	public static final int EVENT_LOOP_THREADS = 2;
+	public static final int MAX_CONNECTIONS_PER_HOST = 64;
+	public static final int MAX_RESPONSE_SIZE_IN_BYTES = 16 * 1024 * 1024;
+	
+	private static final AttributeKey<PendingRequest> PENDING_REQUEST = AttributeKey.valueOf("jtbPendingRequest");
+	
+	/**
+	 * Represents a request that has been written to a channel and is waiting for its response.
+	 */
+	private static class PendingRequest
+	{
+		private final FixedChannelPool pool;
+		private final Promise<HttpResponse> promise;
+		
+		// whether the whole request has been written, accessed only by the event loop of the channel
+		private boolean requestWritten;
+		
+		public PendingRequest(FixedChannelPool pool, Promise<HttpResponse> promise)
+		{
+			this.pool = pool;
+			this.promise = promise;
+		}
+	}
+	
+	private final EventLoopGroup eventLoopGroup;
+	private final Bootstrap bootstrap;
+	private final SslContext sslCtx;
+	private final int maxConnectionsPerHost;
+	private final ConcurrentMap<String, FixedChannelPool> pools = new ConcurrentHashMap<String, FixedChannelPool>();
+	
+	public NettyHttpClient() throws SSLException
+	{
+		this(EVENT_LOOP_THREADS, MAX_CONNECTIONS_PER_HOST);
+	}
+	
+	/**
+	 * Creates a non-blocking HTTP client.
+	 * 
+	 * @param eventLoopThreads number of threads which perform all the I/O of this client
+	 * @param maxConnectionsPerHost maximum number of concurrent connections per host. Requests exceeding
+	 *                              this limit wait for a connection to be released back to the pool
+	 * 
+	 * @throws SSLException if the SSL context cannot be initialized
+	 */
+	public NettyHttpClient(int eventLoopThreads, int maxConnectionsPerHost) throws SSLException
+	{
+		if(eventLoopThreads <= 0) throw new IllegalArgumentException("\"eventLoopThreads\" must be positive.");
+		if(maxConnectionsPerHost <= 0) throw new IllegalArgumentException("\"maxConnectionsPerHost\" must be positive.");
+		
+		this.maxConnectionsPerHost = maxConnectionsPerHost;
+		this.sslCtx = SslContextBuilder.forClient().build();
+		this.eventLoopGroup = new NioEventLoopGroup(eventLoopThreads);
+		this.bootstrap = new Bootstrap().group(eventLoopGroup)
+		                                .channel(NioSocketChannel.class)
+		                                .option(ChannelOption.SO_KEEPALIVE, true)
+		                                .option(ChannelOption.TCP_NODELAY, true);
+	}
+	
+	/**
+	 * Send HTTP POST request using application/x-www-form-urlencoded content type. This method returns immediately.
+	 * 
+	 * @param requestUrl url to send the request to
+	 * @param formFields pairs of Key/Value HTTP POST parameters
+	 * 
+	 * @return a future which is completed with the response, or failed with <code>NegativeResponseException</code>
+	 *         if 4xx-5xx HTTP response is received from Telegram server
+	 * 
+	 * @throws IOException if the request cannot be encoded
+	 */
+	public Future<HttpResponse> sendHttpPostAsync(String requestUrl, List<? extends NameValueParameter<String, ?>> formFields)
+			throws IOException
+	{
+		return sendHttpPostAsync(requestUrl, formFields, RequestTimeouts.NONE);
+	}
+	
+	/**
+	 * Send HTTP POST request using application/x-www-form-urlencoded content type. This method returns immediately.
+	 * 
+	 * @param requestUrl url to send the request to
+	 * @param formFields pairs of Key/Value HTTP POST parameters
+	 * @param timeouts the time limits of the request
+	 * 
+	 * @return a future which is completed with the response, or failed with <code>NegativeResponseException</code>
+	 *         if 4xx-5xx HTTP response is received from Telegram server, or with <code>SocketTimeoutException</code>
+	 *         if the request times out
+	 * 
+	 * @throws IOException if the request cannot be encoded
+	 */
+	public Future<HttpResponse> sendHttpPostAsync(String requestUrl, List<? extends NameValueParameter<String, ?>> formFields,
+	                                              RequestTimeouts timeouts) throws IOException
+	{
+		FormBodyWriter writer = FormBodyWriter.forCurrentThread().appendAll(formFields);
+		ByteBuf body = Unpooled.copiedBuffer(writer.getBuffer(), 0, writer.size());
+		
+		return send(new URL(requestUrl), "application/x-www-form-urlencoded;charset=UTF-8", body, timeouts);
+	}
+	
+	/**
+	 * Send HTTP POST request using application/json content type. This method returns immediately.
+	 * 
+	 * @param requestUrl url to send the request to
+	 * @param fields pairs of Key/Value parameters, written as the fields of a single JSON object
+	 * 
+	 * @return a future which is completed with the response, or failed with <code>NegativeResponseException</code>
+	 *         if 4xx-5xx HTTP response is received from Telegram server
+	 * 
+	 * @throws IOException if the request cannot be encoded
+	 */
+	public Future<HttpResponse> sendJsonPostAsync(String requestUrl, List<? extends NameValueParameter<String, ?>> fields)
+			throws IOException
+	{
+		return sendJsonPostAsync(requestUrl, fields, RequestTimeouts.NONE);
+	}
+	
+	/**
+	 * Send HTTP POST request using application/json content type. This method returns immediately.
+	 * 
+	 * @param requestUrl url to send the request to
+	 * @param fields pairs of Key/Value parameters, written as the fields of a single JSON object
+	 * @param timeouts the time limits of the request
+	 * 
+	 * @return a future which is completed with the response, or failed with <code>NegativeResponseException</code>
+	 *         if 4xx-5xx HTTP response is received from Telegram server, or with <code>SocketTimeoutException</code>
+	 *         if the request times out
+	 * 
+	 * @throws IOException if the request cannot be encoded
+	 */
+	public Future<HttpResponse> sendJsonPostAsync(String requestUrl, List<? extends NameValueParameter<String, ?>> fields,
+	                                              RequestTimeouts timeouts) throws IOException
+	{
+		ByteBuf body = Unpooled.buffer();
+		
+		try
+		{
+			HttpClient.writeJsonBody(new ByteBufOutputStream(body), fields);
+		}
+		catch(IOException e)
+		{
+			body.release();
+			throw e;
+		}
+		
+		return send(new URL(requestUrl), "application/json;charset=UTF-8", body, timeouts);
+	}
+	
+	/**
+	 * Send HTTP POST request using multipart/form-data content type. The files are not read into memory;
+	 * they are streamed in chunks by the event loop as the connection becomes writable, and closed once sent.
+	 * 
+	 * @param requestUrl url to send the request to
+	 * @param formFields pairs of Key/Value HTTP POST parameters
+	 * @param files list of files
+	 * 
+	 * @return a future which is completed with the response, or failed with <code>NegativeResponseException</code>
+	 *         if 4xx-5xx HTTP response is received from Telegram server
+	 * 
+	 * @throws IOException if an I/O exception occurs while checking the sizes of the files
+	 */
+	public Future<HttpResponse> sendHttpPostAsync(String requestUrl, List<? extends NameValueParameter<String, ?>> formFields,
+	                                              List<NameValueParameter<String, FileField>> files) throws IOException
+	{
+		return sendHttpPostAsync(requestUrl, formFields, files, RequestTimeouts.NONE);
+	}
+	
+	/**
+	 * Send HTTP POST request using multipart/form-data content type. The files are not read into memory;
+	 * they are streamed in chunks by the event loop as the connection becomes writable, and closed once sent.
+	 * Since the event loop reads them, they should be backed by local files rather than by slow sources.
+	 * 
+	 * @param requestUrl url to send the request to
+	 * @param formFields pairs of Key/Value HTTP POST parameters
+	 * @param files list of files
+	 * @param timeouts the time limits of the request, including the upload of the files
+	 * 
+	 * @return a future which is completed with the response, or failed with <code>NegativeResponseException</code>
+	 *         if 4xx-5xx HTTP response is received from Telegram server, or with <code>SocketTimeoutException</code>
+	 *         if the request times out
+	 * 
+	 * @throws IOException if an I/O exception occurs while checking the sizes of the files
+	 */
+	public Future<HttpResponse> sendHttpPostAsync(String requestUrl, List<? extends NameValueParameter<String, ?>> formFields,
+	                                              List<NameValueParameter<String, FileField>> files,
+	                                              RequestTimeouts timeouts) throws IOException
+	{
+		URL url = new URL(requestUrl);
+		MultipartBody multipartBody = new MultipartBody(formFields, files);
+		
+		return send(url, multipartBody.getContentType(), null, new ChunkedStream(multipartBody.openStream()),
+		            multipartBody.getContentLength(), timeouts);
+	}
+	
+	/**
+	 * Send HTTP POST request using application/x-www-form-urlencoded content type. This is a blocking method.
+	 * 
+	 * @param requestUrl url to send the request to
+	 * @param formFields pairs of Key/Value HTTP POST parameters
+	 * 
+	 * @return response for the request
+	 * 
+	 * @throws IOException if an I/O exception occurs
+	 * @throws NegativeResponseException if 4xx-5xx HTTP response is received from Telegram server
+	 */
+	public HttpResponse sendHttpPost(String requestUrl, List<? extends NameValueParameter<String, ?>> formFields)
+			throws IOException, NegativeResponseException
+	{
+		return await(sendHttpPostAsync(requestUrl, formFields));
+	}
+	
+	/**
+	 * Send HTTP POST request using multipart/form-data content type. This is a blocking method.
+	 * 
+	 * @param requestUrl url to send the request to
+	 * @param formFields pairs of Key/Value HTTP POST parameters
+	 * @param files list of files
+	 * 
+	 * @return response for the request
+	 * 
+	 * @throws IOException if an I/O exception occurs
+	 * @throws NegativeResponseException if 4xx-5xx HTTP response is received from Telegram server
+	 */
+	public HttpResponse sendHttpPost(String requestUrl, List<? extends NameValueParameter<String, ?>> formFields,
+	                                 List<NameValueParameter<String, FileField>> files)
+			throws IOException, NegativeResponseException
+	{
+		return await(sendHttpPostAsync(requestUrl, formFields, files));
+	}
+	
+	@Override
+	public <R> TelegramResult<R> sendHttpPost(String requestUrl, List<? extends NameValueParameter<String, ?>> formFields,
+	                                          RequestTimeouts timeouts, TypeReference<TelegramResult<R>> resultType)
+			throws IOException, NegativeResponseException
+	{
+		return toTelegramResult(await(sendHttpPostAsync(requestUrl, formFields, timeouts)), resultType);
+	}
+	
+	/**
+	 * Uploads the files with the same multipart body as <code>HttpClient</code>, streamed by the event loop.
+	 */
+	@Override
+	public <R> TelegramResult<R> sendHttpPost(String requestUrl, List<? extends NameValueParameter<String, ?>> formFields,
+	                                          List<NameValueParameter<String, FileField>> files,
+	                                          RequestTimeouts timeouts, TypeReference<TelegramResult<R>> resultType)
+			throws IOException, NegativeResponseException
+	{
+		return toTelegramResult(await(sendHttpPostAsync(requestUrl, formFields, files, timeouts)), resultType);
+	}
+	
+	@Override
+	public <R> TelegramResult<R> sendJsonPost(String requestUrl, List<? extends NameValueParameter<String, ?>> fields,
+	                                          RequestTimeouts timeouts, TypeReference<TelegramResult<R>> resultType)
+			throws IOException, NegativeResponseException
+	{
+		return toTelegramResult(await(sendJsonPostAsync(requestUrl, fields, timeouts)), resultType);
+	}
+	
+	/**
+	 * Downloads a file by <code>HttpClient</code>, since a whole file should not be aggregated in memory.
+	 */
+	@Override
+	public void downloadFile(String fileUrl, OutputStream saveToOutputStream, RequestTimeouts timeouts) throws IOException
+	{
+		HttpClient.downloadFile(fileUrl, saveToOutputStream, timeouts);
+	}
+	
+	/**
+	 * Closes all pooled connections and stops the event loop threads.
+	 */
+	public void shutdown()
+	{
+		for(FixedChannelPool pool : pools.values()) pool.close();
+		pools.clear();
+		eventLoopGroup.shutdownGracefully();
+	}
+	
+	private Future<HttpResponse> send(URL url, String contentType, ByteBuf body, RequestTimeouts timeouts)
+	{
+		return send(url, contentType, body, null, body.readableBytes(), timeouts);
+	}
+	
+	/**
+	 * Sends a request whose body is either held in a buffer or streamed from a chunked input.
+	 * 
+	 * @param contentLength the length of the streamed body, or -1 to send it with chunked transfer encoding
+	 */
+	private Future<HttpResponse> send(final URL url, final String contentType, final ByteBuf body,
+	                                  final ChunkedStream streamedBody, final long contentLength,
+	                                  final RequestTimeouts timeouts)
+	{
+		final Promise<HttpResponse> promise = eventLoopGroup.next().newPromise();
+		final FixedChannelPool pool = getPool(url);
+		
+		final long deadlineInMillis = timeouts.getDeadlineInMillis();
+		if(deadlineInMillis > 0)
+		{
+			final ScheduledFuture<?> deadlineTimer = eventLoopGroup.schedule(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					promise.tryFailure(new SocketTimeoutException("The request has exceeded its deadline (" + deadlineInMillis + " ms)."));
+				}
+			}, deadlineInMillis, TimeUnit.MILLISECONDS);
+			
+			promise.addListener(new FutureListener<HttpResponse>()
+			{
+				@Override
+				public void operationComplete(Future<HttpResponse> future)
+				{
+					deadlineTimer.cancel(false);
+				}
+			});
+		}
+		
+		pool.acquire().addListener(new FutureListener<Channel>()
+		{
+			@Override
+			public void operationComplete(Future<Channel> future)
+			{
+				if(!future.isSuccess())
+				{
+					releaseBody(body, streamedBody);
+					promise.tryFailure(future.cause());
+					return;
+				}
+				
+				final Channel channel = future.getNow();
+				
+				// the deadline has passed (or the request is cancelled) while waiting for a connection
+				if(promise.isDone())
+				{
+					releaseBody(body, streamedBody);
+					pool.release(channel);
+					return;
+				}
+				
+				String path = url.getPath();
+				if(url.getQuery() != null) path += "?" + url.getQuery();
+				
+				HttpRequest request;
+				if(body != null) request = new DefaultFullHttpRequest(HTTP_1_1, HttpMethod.POST, path, body);
+				else request = new DefaultHttpRequest(HTTP_1_1, HttpMethod.POST, path);
+				
+				request.headers().set(HOST, getHostHeader(url));
+				request.headers().set(CONNECTION, Values.KEEP_ALIVE);
+				request.headers().set(ACCEPT_ENCODING, Values.GZIP + "," + Values.DEFLATE);
+				request.headers().set(USER_AGENT, "Java Agent");
+				request.headers().set(CONTENT_TYPE, contentType);
+				if(contentLength >= 0) request.headers().set(CONTENT_LENGTH, contentLength);
+				else HttpHeaders.setTransferEncodingChunked(request);
+				
+				final PendingRequest pendingRequest = new PendingRequest(pool, promise);
+				channel.attr(PENDING_REQUEST).set(pendingRequest);
+				
+				// if the request fails before its response is received (e.g. it times out), the connection
+				// has to be closed, otherwise the late response would be taken as the response of the next request
+				promise.addListener(new FutureListener<HttpResponse>()
+				{
+					@Override
+					public void operationComplete(Future<HttpResponse> future)
+					{
+						if(!future.isSuccess()) abort(channel, pendingRequest, future.cause());
+					}
+				});
+				
+				ChannelFuture writeFuture;
+				if(streamedBody == null) writeFuture = channel.writeAndFlush(request);
+				else
+				{
+					// ChunkedWriteHandler reads the next chunk only when the connection is writable
+					channel.write(request);
+					writeFuture = channel.writeAndFlush(new HttpChunkedInput(streamedBody));
+				}
+				
+				writeFuture.addListener(new ChannelFutureListener()
+				{
+					@Override
+					public void operationComplete(ChannelFuture future)
+					{
+						if(!future.isSuccess())
+						{
+							fail(channel, future.cause());
+							return;
+						}
+						
+						pendingRequest.requestWritten = true;
+						
+						final int readTimeoutInMillis = timeouts.getReadTimeoutInMillis();
+						if(readTimeoutInMillis <= 0) return;
+						
+						final ScheduledFuture<?> readTimer = channel.eventLoop().schedule(new Runnable()
+						{
+							@Override
+							public void run()
+							{
+								abort(channel, pendingRequest, new SocketTimeoutException("No response has been received within " + readTimeoutInMillis + " ms."));
+							}
+						}, readTimeoutInMillis, TimeUnit.MILLISECONDS);
+						
+						promise.addListener(new FutureListener<HttpResponse>()
+						{
+							@Override
+							public void operationComplete(Future<HttpResponse> future)
+							{
+								readTimer.cancel(false);
+							}
+						});
+					}
+				});
+			}
+		});
+		
+		return promise;
+	}
+	
+	/**
+	 * The value of the Host header, which includes the port only if it is not the default port of the protocol.
+	 */
+	private static String getHostHeader(URL url)
+	{
+		int port = url.getPort();
+		if(port == -1 || port == url.getDefaultPort()) return url.getHost();
+		else return url.getHost() + ":" + port;
+	}
+	
+	private FixedChannelPool getPool(URL url)
+	{
+		final boolean secure = "https".equalsIgnoreCase(url.getProtocol());
+		final String host = url.getHost();
+		final int port = url.getPort() != -1 ? url.getPort() : url.getDefaultPort();
+		
+		String key = url.getProtocol() + "://" + host + ":" + port;
+		FixedChannelPool pool = pools.get(key);
+		if(pool != null) return pool;
+		
+		pool = new FixedChannelPool(bootstrap.clone().remoteAddress(host, port), new AbstractChannelPoolHandler()
+		{
+			@Override
+			public void channelCreated(Channel ch)
+			{
+				ChannelPipeline pipeline = ch.pipeline();
+				
+				if(secure)
+				{
+					SslHandler sslHandler = sslCtx.newHandler(ch.alloc(), host, port);
+					
+					// verify that the server certificate matches the host name
+					SSLEngine engine = sslHandler.engine();
+					SSLParameters sslParameters = engine.getSSLParameters();
+					sslParameters.setEndpointIdentificationAlgorithm("HTTPS");
+					engine.setSSLParameters(sslParameters);
+					
+					pipeline.addLast(sslHandler);
+				}
+				
+				pipeline.addLast(new HttpClientCodec());
+				pipeline.addLast(new HttpContentDecompressor());
+				pipeline.addLast(new HttpObjectAggregator(MAX_RESPONSE_SIZE_IN_BYTES));
+				pipeline.addLast(new ChunkedWriteHandler());
+				pipeline.addLast(new ResponseHandler());
+			}
+		}, maxConnectionsPerHost);
+		
+		FixedChannelPool existingPool = pools.putIfAbsent(key, pool);
+		if(existingPool != null)
+		{
+			pool.close();
+			return existingPool;
+		}
+		
+		return pool;
+	}
+	
+	private static void releaseBody(ByteBuf body, ChunkedStream streamedBody)
+	{
+		if(body != null) body.release();
+		
+		if(streamedBody != null)
+		{
+			try
+			{
+				streamedBody.close();
+			}
+			catch(Exception e)
+			{
+				// nothing to do, the request has failed already
+			}
+		}
+	}
+	
+	private static void fail(Channel channel, Throwable cause)
+	{
+		PendingRequest pendingRequest = channel.attr(PENDING_REQUEST).getAndSet(null);
+		channel.close();
+		
+		if(pendingRequest != null)
+		{
+			pendingRequest.pool.release(channel);
+			pendingRequest.promise.tryFailure(cause);
+		}
+	}
+	
+	private static <R> TelegramResult<R> toTelegramResult(HttpResponse response, TypeReference<TelegramResult<R>> resultType)
+			throws IOException, NegativeResponseException
+	{
+		// the responses of this client always hold the raw body, see ResponseHandler
+		TelegramResult<R> telegramResult = JsonUtils.toJavaObject(response.getResponseBytes(), resultType);
+		if(!telegramResult.isOk()) throw new NegativeResponseException(response.getHttpStatusCode(), telegramResult);
+		return telegramResult;
+	}
+	
+	/**
+	 * Fails a request and closes its connection, unless the connection has already moved on to another request.
+	 */
+	private static void abort(final Channel channel, final PendingRequest pendingRequest, final Throwable cause)
+	{
+		channel.eventLoop().execute(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				if(!channel.attr(PENDING_REQUEST).compareAndSet(pendingRequest, null)) return;
+				
+				channel.close();
+				pendingRequest.pool.release(channel);
+				pendingRequest.promise.tryFailure(cause);
+			}
+		});
+	}
+	
+	private static HttpResponse await(Future<HttpResponse> future) throws IOException, NegativeResponseException
+	{
+		try
+		{
+			return future.get();
+		}
+		catch(InterruptedException e)
+		{
+			future.cancel(false);
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for the response.", e);
+		}
+		catch(ExecutionException e)
+		{
+			Throwable cause = e.getCause();
+			if(cause instanceof NegativeResponseException) throw (NegativeResponseException) cause;
+			if(cause instanceof IOException) throw (IOException) cause;
+			throw new IOException(cause);
+		}
+	}
+	
+	private static class ResponseHandler extends SimpleChannelInboundHandler<FullHttpResponse>
+	{
+		@Override
+		protected void channelRead0(ChannelHandlerContext ctx, FullHttpResponse msg)
+		{
+			Channel channel = ctx.channel();
+			PendingRequest pendingRequest = channel.attr(PENDING_REQUEST).getAndSet(null);
+			if(pendingRequest == null) return; // unsolicited response
+			
+			int status = msg.getStatus().code();
+			
+			// the body is kept as raw bytes, so that it is decoded by Jackson straight from UTF-8
+			// instead of being inflated into a string first
+			ByteBuf content = msg.content();
+			byte[] responseBody = new byte[content.readableBytes()];
+			content.getBytes(content.readerIndex(), responseBody);
+			
+			// hand the connection back to the pool before completing the promise, so that
+			// a listener that sends a new request can reuse it right away. A response that arrives before
+			// the whole request is written (e.g. an early rejection of an upload) leaves the connection unusable
+			if(!HttpHeaders.isKeepAlive(msg) || !pendingRequest.requestWritten) channel.close();
+			pendingRequest.pool.release(channel);
+			
+			if(status >= 200 && status < 400)
+			{
+				pendingRequest.promise.trySuccess(new HttpResponse(status, responseBody));
+			}
+			else
+			{
+				pendingRequest.promise.tryFailure(new NegativeResponseException(status, responseBody));
+			}
+		}
+		
+		@Override
+		public void channelInactive(ChannelHandlerContext ctx) throws Exception
+		{
+			fail(ctx.channel(), new IOException("The connection was closed before receiving the response."));
+			super.channelInactive(ctx);
+		}
+		
+		@Override
+		public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause)
+		{
+			fail(ctx.channel(), cause);
+		}
+	}
+}
\ No newline at end of file
@@ -27,6 +27,7 @@ package io.fouad.jtb.webhook;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import io.fouad.jtb.core.JTelegramBot;
 import io.fouad.jtb.core.TelegramBotConfig;
+import io.fouad.jtb.core.beans.LazyUpdate;
 import io.fouad.jtb.core.beans.TelegramResult;
 import io.fouad.jtb.core.beans.Update;
 import io.fouad.jtb.core.exceptions.NegativeResponseException;
@@ -57,7 +58,6 @@ import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
 import io.netty.handler.ssl.SslProvider;
 import io.netty.handler.ssl.util.SelfSignedCertificate;
-import io.netty.util.CharsetUtil;
 
 import javax.net.ssl.SSLException;
 import java.io.File;
@@ -232,11 +232,13 @@ public class WebhookServer
 		{
 			if(msg.getUri().equals(path)) // to make sure it's coming from Telegram server
 			{
-				String requestAsJson = msg.content().toString(CharsetUtil.UTF_8);
-				
 				try
 				{
-					Update update = JsonUtils.toJavaObject(requestAsJson, Update.class);
+					// the update is decoded straight from the request buffer, without copying it into a string
+					TelegramBotConfig config = bot.getTelegramBotConfig();
+					Class<? extends Update> updateClass = config.isLazyUpdateDecoding() ? LazyUpdate.class : Update.class;
+					Update update = JsonUtils.toJavaObject(msg.content().nioBuffer(), updateClass, config.getStringPool(),
+					                                       config.getFieldProjection());
 					bot.onUpdateReceived(update);
 					
 					FullHttpResponse response = new DefaultFullHttpResponse(HTTP_1_1, OK, Unpooled.wrappedBuffer("{}".getBytes("UTF-8")));